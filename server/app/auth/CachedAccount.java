@@ -0,0 +1,51 @@
+package auth;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.stream.Stream;
+import models.Account;
+
+/**
+ * The parts of an {@link Account} that {@link CiviFormProfile} needs to authorize requests, copied
+ * out of the entity so that they can be cached and shared between requests.
+ */
+@AutoValue
+abstract class CachedAccount {
+
+  static CachedAccount create(Account account) {
+    // A TI may access the applicants of the accounts their group manages.
+    ImmutableSet<Long> accessibleApplicantIds =
+        Stream.concat(
+                account
+                    .getMemberOfGroup()
+                    .map(tiGroup -> tiGroup.getManagedAccounts().stream())
+                    .orElse(Stream.of()),
+                Stream.of(account))
+            .flatMap(a -> a.ownedApplicantIds().stream())
+            .collect(toImmutableSet());
+    return new AutoValue_CachedAccount(
+        account.id,
+        Optional.ofNullable(account.getEmailAddress()),
+        Optional.ofNullable(account.getAuthorityId()),
+        account.getGlobalAdmin(),
+        account.getAdministeredProgramNames(),
+        accessibleApplicantIds);
+  }
+
+  abstract long id();
+
+  abstract Optional<String> emailAddress();
+
+  abstract Optional<String> authorityId();
+
+  abstract boolean globalAdmin();
+
+  abstract ImmutableList<String> administeredProgramNames();
+
+  /** The ids of the applicants the account owns or, for a TI, manages. */
+  abstract ImmutableSet<Long> accessibleApplicantIds();
+}
@@ -3,17 +3,19 @@ package auth;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import featureflags.FeatureFlags;
-import java.util.Comparator;
+import io.ebean.DB;
+import io.ebean.Database;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 import javax.persistence.EntityNotFoundException;
 import models.Account;
 import models.Applicant;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import repository.DatabaseExecutionContext;
@@ -24,49 +26,125 @@ import repository.DatabaseExecutionContext;
  * contain only server-local information, like execution contexts, database connections, etc.
  */
 public class CiviFormProfile {
+  // Snapshots of accounts are cached across requests for a short time only, since they are
+  // invalidated only on the server that changes them (see UserRepository), and a check that is
+  // denied with a cached snapshot is retried with a fresh one.
+  public static final int ACCOUNT_CACHE_EXPIRATION_TIME_SECONDS = 10;
+
+  private final Database database;
   private DatabaseExecutionContext dbContext;
   private HttpExecutionContext httpContext;
   private CiviFormProfileData profileData;
   private FeatureFlags featureFlags;
+  private SyncCacheApi accountCache;
+
+  // The account, its snapshot and the applicant are looked up at most once per profile, which is
+  // wrapped once per request (see ProfileUtils#currentUserProfile).
+  private CompletableFuture<Account> account;
+  private CompletableFuture<CachedAccount> cachedAccount;
+  private CompletableFuture<Applicant> applicant;
 
   @Inject
   public CiviFormProfile(
       DatabaseExecutionContext dbContext,
       HttpExecutionContext httpContext,
       CiviFormProfileData profileData,
-      FeatureFlags featureFlags) {
+      FeatureFlags featureFlags,
+      @NamedCache("accounts") SyncCacheApi accountCache) {
+    this.database = DB.getDefault();
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
     this.profileData = Preconditions.checkNotNull(profileData);
     this.featureFlags = Preconditions.checkNotNull(featureFlags);
+    this.accountCache = Preconditions.checkNotNull(accountCache);
   }
 
-  /** Get the latest {@link Applicant} associated with the profile. */
-  public CompletableFuture<Applicant> getApplicant() {
-    return this.getAccount()
-        .thenApplyAsync(
-            (a) ->
-                a.getApplicants().stream()
-                    .sorted(Comparator.comparing((applicant) -> applicant.getWhenCreated()))
-                    .findFirst()
-                    .orElseThrow(),
-            httpContext.current());
-  }
-
-  /** Look up the {@link Account} associated with the profile from database. */
-  public CompletableFuture<Account> getAccount() {
-    return supplyAsync(
-        () -> {
-          Account account = new Account();
-          account.id = Long.valueOf(this.profileData.getId());
-          try {
-            account.refresh();
-          } catch (EntityNotFoundException e) {
-            throw new AccountNonexistentException(e.getMessage());
-          }
-          return account;
-        },
-        dbContext);
+  /** Get the oldest {@link Applicant} associated with the profile. */
+  public synchronized CompletableFuture<Applicant> getApplicant() {
+    if (applicant == null) {
+      // The applicant is queried rather than taken from the account's applicants, which may have
+      // been cached before the account was given a new applicant.
+      applicant =
+          this.getCachedAccount()
+              .thenApplyAsync(
+                  a ->
+                      database
+                          .find(Applicant.class)
+                          .where()
+                          .eq("account.id", a.id())
+                          .orderBy()
+                          .asc("whenCreated")
+                          .orderBy()
+                          .asc("id")
+                          .setMaxRows(1)
+                          .findOneOrEmpty()
+                          .orElseThrow(),
+                  dbContext);
+    }
+    return applicant;
+  }
+
+  /**
+   * Look up the {@link Account} associated with the profile from database.
+   *
+   * <p>The account is not shared with other requests, so it may be changed and saved. Changes that
+   * affect authorization must be followed by {@link #invalidateCachedAccount()}.
+   */
+  public synchronized CompletableFuture<Account> getAccount() {
+    if (account == null) {
+      account = supplyAsync(this::loadAccount, dbContext);
+    }
+    return account;
+  }
+
+  /**
+   * Removes the account from the cache used for authorization checks, after it was changed in
+   * database.
+   */
+  public void invalidateCachedAccount() {
+    accountCache.remove(getId());
+  }
+
+  /**
+   * Look up the snapshot of the {@link Account} associated with the profile, from a short-lived
+   * cache or from database.
+   */
+  synchronized CompletableFuture<CachedAccount> getCachedAccount() {
+    if (cachedAccount == null) {
+      cachedAccount =
+          supplyAsync(
+              () ->
+                  accountCache.getOrElseUpdate(
+                      getId(),
+                      () -> CachedAccount.create(loadAccount()),
+                      ACCOUNT_CACHE_EXPIRATION_TIME_SECONDS),
+              dbContext);
+    }
+    return cachedAccount;
+  }
+
+  /** Look up the snapshot of the {@link Account} from database, and cache it. */
+  private synchronized CompletableFuture<CachedAccount> reloadCachedAccount() {
+    cachedAccount =
+        supplyAsync(
+            () -> {
+              CachedAccount loaded = CachedAccount.create(loadAccount());
+              accountCache.set(getId(), loaded, ACCOUNT_CACHE_EXPIRATION_TIME_SECONDS);
+              return loaded;
+            },
+            dbContext);
+    return cachedAccount;
+  }
+
+  private Account loadAccount() {
+    Account account = new Account();
+    account.id = Long.valueOf(this.profileData.getId());
+    try {
+      account.refresh();
+    } catch (EntityNotFoundException e) {
+      throw new AccountNonexistentException(e.getMessage());
+    }
+    return account;
   }
 
   /**
@@ -131,6 +209,7 @@ public class CiviFormProfile {
               }
               a.setAuthorityId(authorityId);
               a.save();
+              invalidateCachedAccount();
               return null;
             },
             dbContext);
@@ -159,6 +238,7 @@ public class CiviFormProfile {
               }
               a.setEmailAddress(emailAddress);
               a.save();
+              invalidateCachedAccount();
               return null;
             },
             dbContext);
@@ -166,7 +246,8 @@ public class CiviFormProfile {
 
   /** Returns the authority id from the {@link Account} associated with the profile. */
   public CompletableFuture<String> getAuthorityId() {
-    return this.getAccount().thenApplyAsync(Account::getAuthorityId, httpContext.current());
+    return this.getCachedAccount()
+        .thenApplyAsync(a -> a.authorityId().orElse(null), httpContext.current());
   }
 
   /**
@@ -177,7 +258,8 @@ public class CiviFormProfile {
    * @return the future of the address to be retrieved.
    */
   public CompletableFuture<String> getEmailAddress() {
-    return this.getAccount().thenApplyAsync(Account::getEmailAddress, httpContext.current());
+    return this.getCachedAccount()
+        .thenApplyAsync(a -> a.emailAddress().orElse(null), httpContext.current());
   }
 
   /** Get the profile data. */
@@ -195,23 +277,10 @@ public class CiviFormProfile {
    * @return the future of the check
    */
   public CompletableFuture<Void> checkAuthorization(long applicantId) {
-    return getAccount()
+    return checkAccount(account -> account.accessibleApplicantIds().contains(applicantId))
         .thenApplyAsync(
-            account ->
-                Stream.concat(
-                        account
-                            .getMemberOfGroup()
-                            .flatMap(tiGroup -> Optional.of(tiGroup.getManagedAccounts().stream()))
-                            .orElse(Stream.of()),
-                        Stream.of(account))
-                    .map(Account::ownedApplicantIds)
-                    .reduce(
-                        ImmutableList.of(),
-                        (one, two) ->
-                            new ImmutableList.Builder<Long>().addAll(one).addAll(two).build()))
-        .thenApplyAsync(
-            idList -> {
-              if (!idList.contains(applicantId)) {
+            authorized -> {
+              if (!authorized) {
                 throw new SecurityException(
                     String.format(
                         "Account %s is not authorized to access applicant %d",
@@ -231,20 +300,34 @@ public class CiviFormProfile {
    * @return the future of the check
    */
   public CompletableFuture<Void> checkProgramAuthorization(String programName, Request request) {
-    return this.getAccount()
+    return checkAccount(
+            account ->
+                (account.globalAdmin() && featureFlags.allowCiviformAdminAccessPrograms(request))
+                    || account.administeredProgramNames().stream()
+                        .anyMatch(program -> program.equals(programName)))
         .thenApply(
-            account -> {
-              if (account.getGlobalAdmin()
-                  && featureFlags.allowCiviformAdminAccessPrograms(request)) {
-                return null;
-              }
-              if (account.getAdministeredProgramNames().stream()
-                  .anyMatch(program -> program.equals(programName))) {
-                return null;
+            authorized -> {
+              if (!authorized) {
+                throw new SecurityException(
+                    String.format(
+                        "Account %s is not authorized to access program %s.",
+                        getId(), programName));
               }
-              throw new SecurityException(
-                  String.format(
-                      "Account %s is not authorized to access program %s.", getId(), programName));
+              return null;
             });
   }
+
+  /**
+   * Returns whether the account passes {@code check}. If the account may have been cached before a
+   * change that would let it pass, the check is retried with the account from database.
+   */
+  private CompletableFuture<Boolean> checkAccount(Predicate<CachedAccount> check) {
+    return getCachedAccount()
+        .thenComposeAsync(
+            account ->
+                check.test(account)
+                    ? CompletableFuture.completedFuture(true)
+                    : reloadCachedAccount().thenApply(check::test),
+            dbContext);
+  }
 }
@@ -11,6 +11,8 @@ import models.ApiKey;
 import models.Applicant;
 import models.TrustedIntermediaryGroup;
 import org.apache.commons.lang3.RandomStringUtils;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import play.libs.concurrent.HttpExecutionContext;
 import repository.DatabaseExecutionContext;
 import repository.UserRepository;
@@ -30,6 +32,7 @@ public final class ProfileFactory {
   private final Provider<ApiKeyService> apiKeyService;
   private final Provider<UserRepository> userRepositoryProvider;
   private final FeatureFlags featureFlags;
+  private final SyncCacheApi accountCache;
 
   @Inject
   public ProfileFactory(
@@ -38,13 +41,15 @@ public final class ProfileFactory {
       Provider<VersionRepository> versionRepositoryProvider,
       Provider<ApiKeyService> apiKeyService,
       Provider<UserRepository> userRepositoryProvider,
-      FeatureFlags featureFlags) {
+      FeatureFlags featureFlags,
+      @NamedCache("accounts") SyncCacheApi accountCache) {
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
     this.versionRepositoryProvider = Preconditions.checkNotNull(versionRepositoryProvider);
     this.apiKeyService = Preconditions.checkNotNull(apiKeyService);
     this.userRepositoryProvider = Preconditions.checkNotNull(userRepositoryProvider);
     this.featureFlags = Preconditions.checkNotNull(featureFlags);
+    this.accountCache = Preconditions.checkNotNull(accountCache);
   }
 
   public CiviFormProfileData createNewApplicant() {
@@ -62,13 +67,15 @@ public final class ProfileFactory {
   public CiviFormProfileData createNewAdmin(Optional<String> maybeAuthorityId) {
     CiviFormProfileData profileData = create(new Roles[] {Roles.ROLE_CIVIFORM_ADMIN});
 
-    wrapProfileData(profileData)
+    CiviFormProfile profile = wrapProfileData(profileData);
+    profile
         .getAccount()
         .thenAccept(
             account -> {
               account.setGlobalAdmin(true);
               maybeAuthorityId.ifPresent(account::setAuthorityId);
               account.save();
+              profile.invalidateCachedAccount();
             })
         .join();
 
@@ -76,7 +83,7 @@ public final class ProfileFactory {
   }
 
   public CiviFormProfile wrapProfileData(CiviFormProfileData p) {
-    return new CiviFormProfile(dbContext, httpContext, p, featureFlags);
+    return new CiviFormProfile(dbContext, httpContext, p, featureFlags, accountCache);
   }
 
   /**
@@ -117,7 +124,8 @@ public final class ProfileFactory {
    */
   public CiviFormProfileData createFakeProgramAdmin() {
     CiviFormProfileData p = create(new Roles[] {Roles.ROLE_PROGRAM_ADMIN});
-    wrapProfileData(p)
+    CiviFormProfile profile = wrapProfileData(p);
+    profile
         .getAccount()
         .thenAccept(
             account -> {
@@ -130,6 +138,7 @@ public final class ProfileFactory {
               account.setEmailAddress(String.format("fake-local-admin-%d@example.com", account.id));
               account.setAuthorityId(generateFakeAdminAuthorityId());
               account.save();
+              profile.invalidateCachedAccount();
             })
         .join();
     return p;
@@ -142,7 +151,8 @@ public final class ProfileFactory {
   public CiviFormProfileData createFakeDualAdmin() {
     CiviFormProfileData p =
         create(new Roles[] {Roles.ROLE_PROGRAM_ADMIN, Roles.ROLE_CIVIFORM_ADMIN});
-    wrapProfileData(p)
+    CiviFormProfile profile = wrapProfileData(p);
+    profile
         .getAccount()
         .thenAccept(
             account -> {
@@ -156,6 +166,7 @@ public final class ProfileFactory {
                       program -> account.addAdministeredProgram(program.getProgramDefinition()));
               account.setEmailAddress(String.format("fake-local-admin-%d@example.com", account.id));
               account.save();
+              profile.invalidateCachedAccount();
             })
         .join();
     return p;
@@ -174,7 +185,8 @@ public final class ProfileFactory {
     }
 
     CiviFormProfileData tiProfileData = create(new Roles[] {Roles.ROLE_TI});
-    wrapProfileData(tiProfileData)
+    CiviFormProfile profile = wrapProfileData(tiProfileData);
+    profile
         .getAccount()
         .thenAccept(
             account -> {
@@ -182,6 +194,7 @@ public final class ProfileFactory {
               String email = String.format("fake-trusted-intermediary-%d@example.com", account.id);
               account.setEmailAddress(email);
               account.save();
+              profile.invalidateCachedAccount();
               userRepository.addTrustedIntermediaryToGroup(group.id, email);
             })
         .join();
@@ -10,10 +10,18 @@ import org.pac4j.core.context.session.SessionStore;
 import org.pac4j.core.profile.BasicUserProfile;
 import org.pac4j.core.profile.ProfileManager;
 import org.pac4j.play.PlayWebContext;
+import play.libs.typedmap.TypedKey;
 import play.mvc.Http;
 
 /** A utility class for CiviForm profile. */
 public class ProfileUtils {
+  /**
+   * The profile of the current user, added to the request by {@link filters.ValidAccountFilter} so
+   * that the account it looked up is reused while handling the request.
+   */
+  public static final TypedKey<CiviFormProfile> CURRENT_PROFILE =
+      TypedKey.create("currentProfile");
+
   private SessionStore sessionStore;
   private ProfileFactory profileFactory;
 
@@ -26,10 +34,21 @@ public class ProfileUtils {
   /**
    * Fetch the current profile from the session cookie, which the ProfileManager will fetch from the
    * request's cookies, using the injected session store to decrypt it.
+   *
+   * <p>If the request already carries a profile for the same account (see {@link
+   * #CURRENT_PROFILE}), that profile is returned, so that its account is looked up once per
+   * request.
    */
   public Optional<CiviFormProfile> currentUserProfile(Http.RequestHeader request) {
     PlayWebContext webContext = new PlayWebContext(request);
-    return currentUserProfile(webContext);
+    Optional<CiviFormProfile> profile = currentUserProfile(webContext);
+    Optional<CiviFormProfile> requestProfile = request.attrs().getOptional(CURRENT_PROFILE);
+    if (profile.isPresent()
+        && requestProfile.isPresent()
+        && requestProfile.get().getId().equals(profile.get().getId())) {
+      return requestProfile;
+    }
+    return profile;
   }
 
   /**
@@ -83,7 +102,7 @@ public class ProfileUtils {
   /** Return true if the account referenced by the profile exists. */
   public boolean validCiviFormProfile(CiviFormProfile profile) {
     try {
-      profile.getAccount().join();
+      profile.getCachedAccount().join();
       return true;
     } catch (CompletionException e) {
       if (e.getCause() instanceof AccountNonexistentException) {
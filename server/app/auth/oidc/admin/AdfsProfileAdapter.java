@@ -60,6 +60,7 @@ public class AdfsProfileAdapter extends OidcProfileAdapter {
               account -> {
                 account.setGlobalAdmin(true);
                 account.save();
+                profile.invalidateCachedAccount();
               })
           .join();
     }
@@ -1,11 +1,14 @@
 package controllers;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import auth.ProfileUtils;
 import com.google.common.collect.ImmutableSet;
 import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
 import play.mvc.Controller;
 import play.mvc.Http;
+import play.mvc.Result;
 import services.CiviFormError;
 
 /**
@@ -22,6 +25,14 @@ public class CiviFormController extends Controller {
     return messageJoiner.toString();
   }
 
+  /**
+   * Returns an OK result that sends {@code page} to the client as it's rendered, see {@link
+   * views.HtmlBundle#renderStreamed()}.
+   */
+  protected Result okStreamedHtml(Source<ByteString, ?> page) {
+    return ok().chunked(page).as(Http.MimeTypes.HTML + "; charset=utf-8");
+  }
+
   protected CompletableFuture<Void> checkApplicantAuthorization(
       ProfileUtils profileUtils, Http.Request request, long applicantId) {
     return profileUtils.currentUserProfile(request).orElseThrow().checkAuthorization(applicantId);
@@ -6,37 +6,55 @@ import static views.admin.programs.ProgramApplicationView.NEW_STATUS;
 import static views.admin.programs.ProgramApplicationView.NOTE;
 import static views.admin.programs.ProgramApplicationView.SEND_EMAIL;
 
+import akka.stream.OverflowStrategy;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Source;
+import akka.stream.javadsl.SourceQueueWithComplete;
+import akka.util.ByteString;
 import annotations.BindingAnnotations.Now;
 import auth.Authorizers;
 import auth.ProfileUtils;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Provider;
 import com.itextpdf.text.DocumentException;
 import controllers.BadRequestException;
 import controllers.CiviFormController;
 import featureflags.FeatureFlags;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Inject;
 import models.Application;
 import org.pac4j.play.java.Secure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import play.data.FormFactory;
 import play.i18n.Messages;
 import play.i18n.MessagesApi;
 import play.libs.F;
 import play.mvc.Http;
 import play.mvc.Result;
+import repository.DatabaseExecutionContext;
 import repository.SubmittedApplicationFilter;
 import repository.TimeFilter;
 import services.DateConverter;
 import services.IdentifierBasedPaginationSpec;
-import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
 import services.UrlUtils;
 import services.applicant.AnswerData;
@@ -62,8 +80,15 @@ import views.admin.programs.ProgramApplicationView;
 
 /** Controller for admins viewing applications to programs. */
 public final class AdminApplicationController extends CiviFormController {
+  private static final Logger logger = LoggerFactory.getLogger(AdminApplicationController.class);
+
   private static final int PAGE_SIZE = 10;
 
+  // How long writing a streamed export may block waiting for the client to read more of it.
+  private static final Duration STREAMED_RESPONSE_WRITE_TIMEOUT = Duration.ofMinutes(1);
+  // How many chunks of a streamed export may be written ahead of the client.
+  private static final int STREAMED_RESPONSE_BUFFERED_CHUNKS = 16;
+
   private static final String REDIRECT_URI_KEY = "redirectUri";
 
   private final ApplicantService applicantService;
@@ -80,6 +105,7 @@ public final class AdminApplicationController extends CiviFormController {
   private final MessagesApi messagesApi;
   private final DateConverter dateConverter;
   private final FeatureFlags featureFlags;
+  private final DatabaseExecutionContext databaseExecutionContext;
 
   @Inject
   public AdminApplicationController(
@@ -96,7 +122,8 @@ public final class AdminApplicationController extends CiviFormController {
       MessagesApi messagesApi,
       DateConverter dateConverter,
       @Now Provider<LocalDateTime> nowProvider,
-      FeatureFlags featureFlags) {
+      FeatureFlags featureFlags,
+      DatabaseExecutionContext databaseExecutionContext) {
     this.programService = checkNotNull(programService);
     this.applicantService = checkNotNull(applicantService);
     this.applicationListView = checkNotNull(applicationListView);
@@ -111,6 +138,7 @@ public final class AdminApplicationController extends CiviFormController {
     this.messagesApi = checkNotNull(messagesApi);
     this.dateConverter = checkNotNull(dateConverter);
     this.featureFlags = checkNotNull(featureFlags);
+    this.databaseExecutionContext = checkNotNull(databaseExecutionContext);
   }
 
   /** Download a JSON file containing all applications to all versions of the specified program. */
@@ -188,8 +216,13 @@ public final class AdminApplicationController extends CiviFormController {
       ProgramDefinition program = programService.getProgramDefinition(programId);
       checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
       String filename = String.format("%s-%s.csv", program.adminName(), nowProvider.get());
-      String csv = exporterService.getProgramAllVersionsCsv(programId, filters);
-      return ok(csv)
+      SubmittedApplicationFilter exportFilters = filters;
+      Source<ByteString, ?> csv =
+          streamToSource(
+              writer ->
+                  exporterService.writeProgramAllVersionsCsv(programId, exportFilters, writer));
+      return ok()
+          .chunked(csv)
           .as(Http.MimeTypes.BINARY)
           .withHeader(
               "Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
@@ -466,24 +499,160 @@ public final class AdminApplicationController extends CiviFormController {
     return redirect(redirectUrl).flashing("success", "Application note updated");
   }
 
-  /** Return a paginated HTML page displaying (part of) all applications to the program. */
+  /**
+   * Sets the same status on each of the selected applications to the program and redirects to the
+   * list of applications.
+   */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result updateStatuses(Http.Request request, long programId)
+      throws ProgramNotFoundException, StatusEmailNotFoundException, StatusNotFoundException,
+          AccountHasNoEmailException {
+    if (!featureFlags.isStatusTrackingEnabled(request)) {
+      return notFound("status tracking is not enabled");
+    }
+    ProgramDefinition program = programService.getProgramDefinition(programId);
+    String programName = program.adminName();
+
+    try {
+      checkProgramAdminAuthorization(profileUtils, request, programName).join();
+    } catch (CompletionException | NoSuchElementException e) {
+      return unauthorized();
+    }
+
+    Map<String, String> formData = formFactory.form().bindFromRequest(request).rawData();
+    ImmutableSet<Long> applicationIds = getSelectedApplicationIds(formData);
+    Optional<String> maybeNewStatus = Optional.ofNullable(formData.get(NEW_STATUS));
+    Optional<String> maybeSendEmail = Optional.ofNullable(formData.get(SEND_EMAIL));
+    Optional<String> maybeRedirectUri = Optional.ofNullable(formData.get(REDIRECT_URI_KEY));
+    if (maybeNewStatus.isEmpty()) {
+      return badRequest(String.format("The %s field is not present", NEW_STATUS));
+    }
+    if (maybeRedirectUri.isEmpty()) {
+      return badRequest(String.format("The %s field is not present", REDIRECT_URI_KEY));
+    }
+    // Unlike a single application's form, the checkbox is left out of the request when unchecked.
+    final boolean sendEmail;
+    if (maybeSendEmail.isEmpty() || maybeSendEmail.get().isBlank()) {
+      sendEmail = false;
+    } else if (maybeSendEmail.get().equals("on")) {
+      sendEmail = true;
+    } else {
+      return badRequest(String.format("%s value is invalid: %s", SEND_EMAIL, maybeSendEmail.get()));
+    }
+    // Only allow relative URLs to ensure that we redirect to the same domain.
+    String redirectUrl = UrlUtils.checkIsRelativeUrl(maybeRedirectUri.get());
+    if (applicationIds.isEmpty()) {
+      return redirect(redirectUrl).flashing("error", "No applications are selected.");
+    }
+
+    ImmutableList<Application> applications =
+        programAdminApplicationService.getApplications(applicationIds, program);
+    if (applications.size() != applicationIds.size()) {
+      return notFound("Some of the applications do not exist.");
+    }
+
+    programAdminApplicationService.setStatuses(
+        applications,
+        ApplicationEventDetails.StatusEvent.builder()
+            .setStatusText(maybeNewStatus.get())
+            .setEmailSent(sendEmail)
+            .build(),
+        profileUtils.currentUserProfile(request).get().getAccount().join());
+    return redirect(redirectUrl)
+        .flashing("success", String.format("%d application statuses updated", applications.size()));
+  }
+
+  /**
+   * Sets the same note on each of the selected applications to the program and redirects to the
+   * list of applications.
+   */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result updateNotes(Http.Request request, long programId) throws ProgramNotFoundException {
+    if (!featureFlags.isStatusTrackingEnabled(request)) {
+      return notFound("status tracking is not enabled");
+    }
+    ProgramDefinition program = programService.getProgramDefinition(programId);
+    String programName = program.adminName();
+
+    try {
+      checkProgramAdminAuthorization(profileUtils, request, programName).join();
+    } catch (CompletionException | NoSuchElementException e) {
+      return unauthorized();
+    }
+
+    Map<String, String> formData = formFactory.form().bindFromRequest(request).rawData();
+    ImmutableSet<Long> applicationIds = getSelectedApplicationIds(formData);
+    Optional<String> maybeNote = Optional.ofNullable(formData.get(NOTE));
+    Optional<String> maybeRedirectUri = Optional.ofNullable(formData.get(REDIRECT_URI_KEY));
+    if (maybeNote.isEmpty()) {
+      return badRequest("A note is not present.");
+    }
+    if (maybeRedirectUri.isEmpty()) {
+      return badRequest("A redirect URI is not present");
+    }
+    // Only allow relative URLs to ensure that we redirect to the same domain.
+    String redirectUrl = UrlUtils.checkIsRelativeUrl(maybeRedirectUri.get());
+    if (applicationIds.isEmpty()) {
+      return redirect(redirectUrl).flashing("error", "No applications are selected.");
+    }
+
+    ImmutableList<Application> applications =
+        programAdminApplicationService.getApplications(applicationIds, program);
+    if (applications.size() != applicationIds.size()) {
+      return notFound("Some of the applications do not exist.");
+    }
+
+    programAdminApplicationService.setNotes(
+        applications,
+        ApplicationEventDetails.NoteEvent.create(maybeNote.get()),
+        profileUtils.currentUserProfile(request).get().getAccount().join());
+    return redirect(redirectUrl)
+        .flashing("success", String.format("%d application notes updated", applications.size()));
+  }
+
+  /**
+   * Returns the ids of the applications selected in the list of applications, which are submitted
+   * as {@code applicationIds[]} and bound as {@code applicationIds[0]}, {@code applicationIds[1]},
+   * etc.
+   */
+  private static ImmutableSet<Long> getSelectedApplicationIds(Map<String, String> formData) {
+    String prefix = ProgramApplicationListView.APPLICATION_IDS + "[";
+    try {
+      return formData.entrySet().stream()
+          .filter(entry -> entry.getKey().startsWith(prefix))
+          .map(entry -> Long.parseLong(entry.getValue()))
+          .collect(ImmutableSet.toImmutableSet());
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Malformed application id");
+    }
+  }
+
+  /**
+   * Return a paginated HTML page displaying (part of) all applications to the program.
+   *
+   * <p>Pages are identified by a cursor, the id of the last application on the previous page, so
+   * that later pages are as cheap to load as the first. {@code page} is only used for display.
+   */
   @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
   public Result index(
       Http.Request request,
       long programId,
       Optional<String> search,
       Optional<Integer> page,
+      Optional<Long> cursor,
       Optional<String> fromDate,
       Optional<String> untilDate,
       Optional<String> applicationStatus,
       Optional<String> selectedApplicationUri)
       throws ProgramNotFoundException {
-    if (page.isEmpty()) {
+    // Any page but the first needs a cursor.
+    if (page.isEmpty() || (cursor.isEmpty() && page.get() != 1)) {
       return redirect(
           routes.AdminApplicationController.index(
               programId,
               search,
               Optional.of(1),
+              /* cursor= */ Optional.empty(),
               fromDate,
               untilDate,
               applicationStatus,
@@ -509,17 +678,24 @@ public final class AdminApplicationController extends CiviFormController {
       return unauthorized();
     }
 
-    var paginationSpec = new PageNumberBasedPaginationSpec(PAGE_SIZE, page.orElse(1));
+    var paginationSpec =
+        new IdentifierBasedPaginationSpec<>(PAGE_SIZE, cursor.orElse(Long.MAX_VALUE));
     PaginationResult<Application> applications =
-        programService.getSubmittedProgramApplicationsAllVersions(
-            programId, F.Either.Right(paginationSpec), filters);
-
-    return ok(
+        programService.getSubmittedProgramApplicationsAllVersionsPage(
+            programId, paginationSpec, filters);
+    Optional<Long> previousPageCursor =
+        cursor.isEmpty()
+            ? Optional.empty()
+            : programService.getPreviousSubmittedProgramApplicationsAllVersionsPageOffset(
+                programId, paginationSpec, filters);
+
+    return okStreamedHtml(
         applicationListView.render(
             request,
             program,
             getAllApplicationStatusesForProgram(program.id()),
-            paginationSpec,
+            page.get(),
+            previousPageCursor,
             applications,
             RenderFilterParams.builder()
                 .setSearch(search)
@@ -539,4 +715,86 @@ public final class AdminApplicationController extends CiviFormController {
         .sorted()
         .collect(ImmutableList.toImmutableList());
   }
+
+  /** Writes content for a streamed response. */
+  @FunctionalInterface
+  private interface StreamedContentWriter {
+    void write(Writer writer) throws Exception;
+  }
+
+  /**
+   * Returns a {@link Source} of the content written by {@code contentWriter}. The content is
+   * written on the database execution context as the response is streamed to the client, so large
+   * exports don't need to be held in memory.
+   *
+   * <p>The writer holds a thread of the database execution context for the whole export, including
+   * while it waits for the client to read more of it. Each wait is capped at {@link
+   * #STREAMED_RESPONSE_WRITE_TIMEOUT}, after which the export is abandoned.
+   *
+   * <p>If the writer fails, the stream fails rather than completes, so that the response is
+   * aborted and the client doesn't receive a truncated file that looks complete.
+   */
+  private Source<ByteString, ?> streamToSource(StreamedContentWriter contentWriter) {
+    return Source.<ByteString>queue(
+            STREAMED_RESPONSE_BUFFERED_CHUNKS, OverflowStrategy.backpressure())
+        .mapMaterializedValue(
+            queue -> {
+              CompletableFuture.runAsync(
+                  () -> {
+                    try {
+                      try (Writer writer =
+                          new OutputStreamWriter(
+                              new QueueOutputStream(queue), StandardCharsets.UTF_8)) {
+                        contentWriter.write(writer);
+                      }
+                      queue.complete();
+                    } catch (Exception e) {
+                      // The response headers have already been sent, so the best that can be done
+                      // is to abort the response and log the failure.
+                      logger.error("Failed to write streamed response", e);
+                      queue.fail(e);
+                    }
+                  },
+                  databaseExecutionContext);
+              return queue;
+            });
+  }
+
+  /**
+   * An {@link OutputStream} that offers what is written to a queue, blocking until the queue
+   * accepts it.
+   */
+  private static final class QueueOutputStream extends OutputStream {
+    private final SourceQueueWithComplete<ByteString> queue;
+
+    QueueOutputStream(SourceQueueWithComplete<ByteString> queue) {
+      this.queue = checkNotNull(queue);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      QueueOfferResult result;
+      try {
+        result =
+            queue
+                .offer(ByteString.fromArray(b, off, len))
+                .toCompletableFuture()
+                .get(STREAMED_RESPONSE_WRITE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch (ExecutionException | TimeoutException e) {
+        throw new IOException("Failed to write to the streamed response", e);
+      }
+      if (!result.equals(QueueOfferResult.enqueued())) {
+        // The client went away or the stream was otherwise closed.
+        throw new IOException("The streamed response was closed: " + result);
+      }
+    }
+  }
 }
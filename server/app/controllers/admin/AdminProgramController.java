@@ -71,7 +71,7 @@ public final class AdminProgramController extends CiviFormController {
   @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
   public Result index(Request request) {
     Optional<CiviFormProfile> profileMaybe = profileUtils.currentUserProfile(request);
-    return ok(
+    return okStreamedHtml(
         listView.render(
             programService.getActiveAndDraftPrograms(),
             questionService.getReadOnlyQuestionServiceSync().getActiveAndDraftQuestions(),
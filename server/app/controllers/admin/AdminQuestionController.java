@@ -72,7 +72,8 @@ public final class AdminQuestionController extends CiviFormController {
         .getReadOnlyQuestionService()
         .thenApplyAsync(
             readOnlyService ->
-                ok(listView.render(readOnlyService.getActiveAndDraftQuestions(), request)),
+                okStreamedHtml(
+                    listView.render(readOnlyService.getActiveAndDraftQuestions(), request)),
             httpExecutionContext.current());
   }
 
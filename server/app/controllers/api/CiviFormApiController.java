@@ -42,16 +42,28 @@ public class CiviFormApiController extends CiviFormController {
   }
 
   protected void assertHasProgramReadPermission(Http.Request request, String programSlug) {
-    ApiKey apiKey =
-        profileUtils
-            .currentApiKey(request)
-            .orElseThrow(() -> new AccountNonexistentException("No API key found for profile"));
+    assertHasProgramPermission(request, programSlug, ApiKeyGrants.Permission.READ);
+  }
+
+  protected void assertHasProgramWritePermission(Http.Request request, String programSlug) {
+    assertHasProgramPermission(request, programSlug, ApiKeyGrants.Permission.WRITE);
+  }
 
-    if (!apiKey.getGrants().hasProgramPermission(programSlug, ApiKeyGrants.Permission.READ)) {
+  private void assertHasProgramPermission(
+      Http.Request request, String programSlug, ApiKeyGrants.Permission permission) {
+    ApiKey apiKey = getApiKey(request);
+
+    if (!apiKey.getGrants().hasProgramPermission(programSlug, permission)) {
       throw new UnauthorizedApiRequestException(apiKey, programSlug);
     }
   }
 
+  protected ApiKey getApiKey(Http.Request request) {
+    return profileUtils
+        .currentApiKey(request)
+        .orElseThrow(() -> new AccountNonexistentException("No API key found for profile"));
+  }
+
   protected String getResponseJson(
       String payload, Optional<ApiPaginationTokenPayload> paginationTokenPayload) {
     var writer = new StringWriter();
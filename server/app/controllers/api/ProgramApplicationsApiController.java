@@ -2,31 +2,49 @@ package controllers.api;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import auth.AccountNonexistentException;
 import auth.ProfileUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.typesafe.config.Config;
+import featureflags.FeatureFlags;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.annotation.Nullable;
+import models.Account;
 import models.Application;
 import play.libs.F;
+import play.libs.Json;
 import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.SubmittedApplicationFilter;
 import repository.TimeFilter;
+import repository.UserRepository;
 import services.DateConverter;
 import services.IdentifierBasedPaginationSpec;
 import services.PaginationResult;
+import services.application.ApplicationEventDetails.NoteEvent;
+import services.application.ApplicationEventDetails.StatusEvent;
+import services.applications.AccountHasNoEmailException;
+import services.applications.ProgramAdminApplicationService;
+import services.applications.StatusEmailNotFoundException;
 import services.export.JsonExporter;
+import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
 import services.program.ProgramService;
+import services.program.StatusNotFoundException;
 
 /** API controller for admin access to a specific program's applications. */
 public final class ProgramApplicationsApiController extends CiviFormApiController {
@@ -38,6 +56,9 @@ public final class ProgramApplicationsApiController extends CiviFormApiControlle
   private final ProgramService programService;
   private final HttpExecutionContext httpContext;
   private final JsonExporter jsonExporter;
+  private final ProgramAdminApplicationService programAdminApplicationService;
+  private final UserRepository userRepository;
+  private final FeatureFlags featureFlags;
   private final int maxPageSize;
 
   @Inject
@@ -48,12 +69,18 @@ public final class ProgramApplicationsApiController extends CiviFormApiControlle
       JsonExporter jsonExporter,
       HttpExecutionContext httpContext,
       ProgramService programService,
+      ProgramAdminApplicationService programAdminApplicationService,
+      UserRepository userRepository,
+      FeatureFlags featureFlags,
       Config config) {
     super(apiPaginationTokenSerializer, profileUtils);
     this.dateConverter = checkNotNull(dateConverter);
     this.httpContext = checkNotNull(httpContext);
     this.jsonExporter = checkNotNull(jsonExporter);
     this.programService = checkNotNull(programService);
+    this.programAdminApplicationService = checkNotNull(programAdminApplicationService);
+    this.userRepository = checkNotNull(userRepository);
+    this.featureFlags = checkNotNull(featureFlags);
     this.maxPageSize = checkNotNull(config).getInt("api_applications_list_max_page_size");
   }
 
@@ -138,6 +165,130 @@ public final class ProgramApplicationsApiController extends CiviFormApiControlle
             });
   }
 
+  /**
+   * Sets the same status on each of the program's applications listed in the request, which is a
+   * JSON object like {@code {"applicationIds": [1, 2], "status": "Approved", "sendEmail": true}}.
+   * The changes are attributed to the admin who created the API key.
+   */
+  public CompletionStage<Result> updateStatuses(Http.Request request, String programSlug) {
+    if (!featureFlags.isStatusTrackingEnabled()) {
+      return CompletableFuture.completedFuture(notFound("status tracking is not enabled"));
+    }
+    assertHasProgramWritePermission(request, programSlug);
+    JsonNode body = getJsonBody(request);
+    ImmutableSet<Long> applicationIds = getApplicationIds(body);
+    StatusEvent statusEvent =
+        StatusEvent.builder()
+            .setStatusText(getRequiredText(body, "status"))
+            .setEmailSent(body.path("sendEmail").asBoolean(false))
+            .build();
+    Account admin = getApiKeyCreator(request);
+
+    return programService
+        .getActiveProgramDefinitionAsync(programSlug)
+        .thenApplyAsync(
+            programDefinition -> {
+              ImmutableList<Application> applications =
+                  getApplications(applicationIds, programDefinition);
+              try {
+                programAdminApplicationService.setStatuses(applications, statusEvent, admin);
+              } catch (StatusEmailNotFoundException
+                  | StatusNotFoundException
+                  | AccountHasNoEmailException e) {
+                // controllers.ErrorHandler responds to these with a bad request.
+                throw new CompletionException(e);
+              }
+              return getUpdatedApplicationsResult(applications);
+            },
+            httpContext.current());
+  }
+
+  /**
+   * Sets the same note on each of the program's applications listed in the request, which is a
+   * JSON object like {@code {"applicationIds": [1, 2], "note": "Called the applicant."}}. The
+   * changes are attributed to the admin who created the API key.
+   */
+  public CompletionStage<Result> updateNotes(Http.Request request, String programSlug) {
+    if (!featureFlags.isStatusTrackingEnabled()) {
+      return CompletableFuture.completedFuture(notFound("status tracking is not enabled"));
+    }
+    assertHasProgramWritePermission(request, programSlug);
+    JsonNode body = getJsonBody(request);
+    ImmutableSet<Long> applicationIds = getApplicationIds(body);
+    NoteEvent noteEvent = NoteEvent.create(getRequiredText(body, "note"));
+    Account admin = getApiKeyCreator(request);
+
+    return programService
+        .getActiveProgramDefinitionAsync(programSlug)
+        .thenApplyAsync(
+            programDefinition -> {
+              ImmutableList<Application> applications =
+                  getApplications(applicationIds, programDefinition);
+              programAdminApplicationService.setNotes(applications, noteEvent, admin);
+              return getUpdatedApplicationsResult(applications);
+            },
+            httpContext.current());
+  }
+
+  private static JsonNode getJsonBody(Http.Request request) {
+    JsonNode body = request.body().asJson();
+    if (body == null || !body.isObject()) {
+      throw new BadApiRequestException("The request body must be a JSON object.");
+    }
+    return body;
+  }
+
+  private static ImmutableSet<Long> getApplicationIds(JsonNode body) {
+    JsonNode applicationIds = body.path("applicationIds");
+    if (!applicationIds.isArray() || applicationIds.isEmpty()) {
+      throw new BadApiRequestException("applicationIds must be a non-empty array.");
+    }
+    ImmutableSet.Builder<Long> ids = ImmutableSet.builder();
+    for (JsonNode applicationId : applicationIds) {
+      if (!applicationId.isIntegralNumber() || !applicationId.canConvertToLong()) {
+        throw new BadApiRequestException("applicationIds must contain only application ids.");
+      }
+      ids.add(applicationId.asLong());
+    }
+    return ids.build();
+  }
+
+  private static String getRequiredText(JsonNode body, String fieldName) {
+    JsonNode value = body.path(fieldName);
+    if (!value.isTextual()) {
+      throw new BadApiRequestException(String.format("%s must be a string.", fieldName));
+    }
+    return value.asText();
+  }
+
+  /** Returns the account of the admin who created the request's API key. */
+  private Account getApiKeyCreator(Http.Request request) {
+    String createdBy = getApiKey(request).getCreatedBy();
+    return userRepository
+        .lookupAccountByAuthorityId(createdBy)
+        .orElseThrow(
+            () -> new AccountNonexistentException("No account found for the API key's creator"));
+  }
+
+  private ImmutableList<Application> getApplications(
+      ImmutableSet<Long> applicationIds, ProgramDefinition programDefinition) {
+    ImmutableList<Application> applications =
+        programAdminApplicationService.getApplications(applicationIds, programDefinition);
+    if (applications.size() != applicationIds.size()) {
+      throw new BadApiRequestException(
+          "applicationIds must contain only ids of applications to the program.");
+    }
+    return applications;
+  }
+
+  private Result getUpdatedApplicationsResult(ImmutableList<Application> applications) {
+    ObjectNode payload = Json.newObject();
+    ArrayNode applicationIds = payload.putArray("applicationIds");
+    applications.forEach(application -> applicationIds.add(application.id));
+    return ok(getResponseJson(payload.toString(), /* paginationTokenPayload= */ Optional.empty()))
+        .as("application/json");
+  }
+
   private Optional<ApiPaginationTokenPayload> getNextPageToken(
       PaginationResult<Application> paginationResult,
       String programSlug,
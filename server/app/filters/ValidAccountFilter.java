@@ -50,7 +50,8 @@ public class ValidAccountFilter extends EssentialFilter {
                     org.pac4j.play.routes.LogoutController.logout().url() + "?url=" + logoutUrl));
           }
 
-          return next.apply(request);
+          return next.apply(
+              profile.map(p -> request.addAttr(ProfileUtils.CURRENT_PROFILE, p)).orElse(request));
         });
   }
 
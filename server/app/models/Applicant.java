@@ -1,11 +1,13 @@
 package models;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import io.ebean.annotation.DbJson;
 import io.ebean.annotation.WhenCreated;
 import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
@@ -74,13 +76,38 @@ public class Applicant extends BaseModel {
   @PrePersist
   @PreUpdate
   public void synchronizeObject() {
-    this.preferredLocale =
-        getApplicantData().hasPreferredLocale()
-            ? getApplicantData().preferredLocale().toLanguageTag()
-            : null;
+    this.preferredLocale = preferredLocaleAsLanguageTag();
     this.object = objectAsJsonString();
   }
 
+  /**
+   * Returns the serialized applicant data as it was last read from or written to the database,
+   * which doesn't reflect changes made to {@link #getApplicantData()} since. Empty if the applicant
+   * hasn't been saved yet.
+   */
+  public Optional<String> getPersistedObject() {
+    return Optional.ofNullable(object);
+  }
+
+  /**
+   * Records that the serialized applicant data has been written to the database without saving
+   * this model, e.g. by a partial update.
+   */
+  public void setPersistedObject(String object) {
+    this.object = object;
+  }
+
+  /** Returns true if the preferred locale has changed since it was last saved. */
+  public boolean hasPreferredLocaleChanged() {
+    return !Objects.equals(Strings.emptyToNull(preferredLocale), preferredLocaleAsLanguageTag());
+  }
+
+  private String preferredLocaleAsLanguageTag() {
+    return getApplicantData().hasPreferredLocale()
+        ? getApplicantData().preferredLocale().toLanguageTag()
+        : null;
+  }
+
   private String objectAsJsonString() {
     return getApplicantData().asJsonString();
   }
@@ -2,6 +2,7 @@ package models;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.ebean.annotation.DbJson;
+import io.ebean.annotation.DbJsonB;
 import io.ebean.annotation.WhenCreated;
 import java.time.Instant;
 import java.util.List;
@@ -13,7 +14,9 @@ import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
 import javax.persistence.Table;
 import play.data.validation.Constraints;
+import services.LocalizedStrings;
 import services.applicant.ApplicantData;
+import services.export.ExportedAnswers;
 
 /**
  * An EBean mapped class that records the submission of a single applicant to a single program.
@@ -46,6 +49,9 @@ public class Application extends BaseModel {
 
   @Constraints.Required @DbJson private String object;
 
+  /** The answers as they are exported, stored when the application is submitted. */
+  @DbJsonB private ExportedAnswers exportedAnswers;
+
   private Instant submitTime;
   private String preferredLocale;
   private String submitterEmail;
@@ -95,6 +101,31 @@ public class Application extends BaseModel {
     this.preferredLocale =
         data.hasPreferredLocale() ? data.preferredLocale().toLanguageTag() : null;
     this.object = data.asJsonString();
+    this.exportedAnswers = null;
+    return this;
+  }
+
+  /**
+   * Returns the preferred locale of the applicant's data, without parsing it. See {@link
+   * ApplicantData#preferredLocale()}.
+   */
+  public Locale getPreferredLocale() {
+    if (this.preferredLocale == null || this.preferredLocale.isEmpty()) {
+      return LocalizedStrings.DEFAULT_LOCALE;
+    }
+    return Locale.forLanguageTag(preferredLocale);
+  }
+
+  /**
+   * Returns the answers as they are exported, if they were stored when the application was
+   * submitted. Applications submitted before answers were stored don't have them.
+   */
+  public Optional<ExportedAnswers> getExportedAnswers() {
+    return Optional.ofNullable(exportedAnswers);
+  }
+
+  public Application setExportedAnswers(ExportedAnswers exportedAnswers) {
+    this.exportedAnswers = exportedAnswers;
     return this;
   }
 
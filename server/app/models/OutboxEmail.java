@@ -0,0 +1,103 @@
+package models;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.annotation.DbArray;
+import io.ebean.annotation.WhenCreated;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * An EBean mapped class that represents an email queued to be sent.
+ *
+ * <p>Emails are queued in the same transaction as the change they are about and sent by {@link
+ * tasks.EmailOutboxDispatchTask}. An email that is yet to be sent has no sent time, and is due to
+ * be attempted at its next attempt time. It is no longer attempted if it has no next attempt time.
+ */
+@Entity
+@Table(name = "email_outbox")
+public final class OutboxEmail extends BaseModel {
+
+  @DbArray private List<String> toAddresses = new ArrayList<>();
+  private String subject;
+  private String body;
+  private int attempts;
+  private Instant nextAttemptTime;
+  private String lastError;
+  @WhenCreated private Instant createTime;
+  private Instant sentTime;
+
+  public OutboxEmail(ImmutableList<String> toAddresses, String subject, String body) {
+    this.toAddresses = new ArrayList<>(checkNotNull(toAddresses));
+    this.subject = checkNotNull(subject);
+    this.body = checkNotNull(body);
+    this.attempts = 0;
+    this.nextAttemptTime = Instant.now();
+  }
+
+  public ImmutableList<String> getToAddresses() {
+    return ImmutableList.copyOf(toAddresses);
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  /** The number of times sending this email has been attempted, including a current attempt. */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /** When sending this email is next attempted, or empty if it is no longer attempted. */
+  public Optional<Instant> getNextAttemptTime() {
+    return Optional.ofNullable(nextAttemptTime);
+  }
+
+  /** The error the last failed attempt to send this email failed with, if any. */
+  public Optional<String> getLastError() {
+    return Optional.ofNullable(lastError);
+  }
+
+  public Instant getCreateTime() {
+    return createTime;
+  }
+
+  public Optional<Instant> getSentTime() {
+    return Optional.ofNullable(sentTime);
+  }
+
+  /**
+   * Starts an attempt to send this email. The email is attempted again at {@code retryTime} unless
+   * the attempt is recorded as sent or failed before then, e.g. if the server stops while sending.
+   */
+  public OutboxEmail startAttempt(Instant retryTime) {
+    this.attempts += 1;
+    this.nextAttemptTime = checkNotNull(retryTime);
+    return this;
+  }
+
+  public OutboxEmail setSent(Instant sentTime) {
+    this.sentTime = checkNotNull(sentTime);
+    this.nextAttemptTime = null;
+    return this;
+  }
+
+  /**
+   * Records that the current attempt to send this email failed, and when it is attempted again, if
+   * it is.
+   */
+  public OutboxEmail setFailed(String error, Optional<Instant> retryTime) {
+    this.lastError = checkNotNull(error);
+    this.nextAttemptTime = retryTime.orElse(null);
+    return this;
+  }
+}
@@ -7,10 +7,12 @@ import java.time.Duration;
 import javax.inject.Provider;
 import scala.concurrent.ExecutionContext;
 import tasks.DatabaseSeedTask;
+import tasks.ProgramSlugMigrationTask;
 
 /**
  * Binds the {@link DatabaseSeedScheduler} as an eager singleton, which causes it to run at server
- * start time.
+ * start time. The scheduler also runs data migrations that must be done before they are relied on,
+ * such as {@link ProgramSlugMigrationTask}.
  */
 public final class DatabaseSeedModule extends AbstractModule {
 
@@ -25,11 +27,18 @@ public final class DatabaseSeedModule extends AbstractModule {
     public DatabaseSeedScheduler(
         ActorSystem actorSystem,
         ExecutionContext executionContext,
-        Provider<DatabaseSeedTask> databaseSeedTaskProvider) {
+        Provider<DatabaseSeedTask> databaseSeedTaskProvider,
+        Provider<ProgramSlugMigrationTask> programSlugMigrationTaskProvider) {
       actorSystem
           .scheduler()
           .scheduleOnce(
               Duration.ofMillis(10), () -> databaseSeedTaskProvider.get().run(), executionContext);
+      actorSystem
+          .scheduler()
+          .scheduleOnce(
+              Duration.ofMillis(10),
+              () -> programSlugMigrationTaskProvider.get().run(),
+              executionContext);
     }
   }
 }
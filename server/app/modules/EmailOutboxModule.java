@@ -0,0 +1,48 @@
+package modules;
+
+import akka.actor.ActorSystem;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.time.Duration;
+import javax.inject.Provider;
+import repository.DatabaseExecutionContext;
+import tasks.EmailOutboxDispatchTask;
+
+/**
+ * Binds the {@link EmailOutboxScheduler} as an eager singleton, which causes queued emails to be
+ * sent, and old sent emails to be deleted, periodically from server start time. The tasks run on
+ * the {@link DatabaseExecutionContext} since they mostly wait for the database.
+ */
+public final class EmailOutboxModule extends AbstractModule {
+
+  @Override
+  protected void configure() {
+    bind(EmailOutboxScheduler.class).asEagerSingleton();
+  }
+
+  public static final class EmailOutboxScheduler {
+    private static final Duration INTERVAL = Duration.ofSeconds(5);
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    @Inject
+    public EmailOutboxScheduler(
+        ActorSystem actorSystem,
+        DatabaseExecutionContext databaseExecutionContext,
+        Provider<EmailOutboxDispatchTask> emailOutboxDispatchTaskProvider) {
+      actorSystem
+          .scheduler()
+          .scheduleWithFixedDelay(
+              INTERVAL,
+              INTERVAL,
+              () -> emailOutboxDispatchTaskProvider.get().run(),
+              databaseExecutionContext);
+      actorSystem
+          .scheduler()
+          .scheduleWithFixedDelay(
+              PURGE_INTERVAL,
+              PURGE_INTERVAL,
+              () -> emailOutboxDispatchTaskProvider.get().purgeFinishedEmails(),
+              databaseExecutionContext);
+    }
+  }
+}
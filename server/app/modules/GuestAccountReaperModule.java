@@ -0,0 +1,41 @@
+package modules;
+
+import akka.actor.ActorSystem;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.time.Duration;
+import javax.inject.Provider;
+import repository.DatabaseExecutionContext;
+import tasks.GuestAccountReaperTask;
+
+/**
+ * Binds the {@link GuestAccountReaperScheduler} as an eager singleton, which causes unused guest
+ * accounts to be deleted periodically from shortly after server start time. The task runs on the
+ * {@link DatabaseExecutionContext} since it mostly waits for the database.
+ */
+public final class GuestAccountReaperModule extends AbstractModule {
+
+  @Override
+  protected void configure() {
+    bind(GuestAccountReaperScheduler.class).asEagerSingleton();
+  }
+
+  public static final class GuestAccountReaperScheduler {
+    private static final Duration INITIAL_DELAY = Duration.ofMinutes(5);
+    private static final Duration INTERVAL = Duration.ofHours(1);
+
+    @Inject
+    public GuestAccountReaperScheduler(
+        ActorSystem actorSystem,
+        DatabaseExecutionContext databaseExecutionContext,
+        Provider<GuestAccountReaperTask> guestAccountReaperTaskProvider) {
+      actorSystem
+          .scheduler()
+          .scheduleWithFixedDelay(
+              INITIAL_DELAY,
+              INTERVAL,
+              () -> guestAccountReaperTaskProvider.get().run(),
+              databaseExecutionContext);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+
+/**
+ * The changes between two serialized versions of an applicant's data, described as the new values
+ * of the properties that changed.
+ *
+ * <p>Properties are only compared down to {@link #MAX_DEPTH}, i.e. a change to any answer of a
+ * question is described as the new value of the whole question, such as {@code applicant.name}.
+ * That keeps the number of changes to apply small while still leaving the answers to other
+ * questions untouched.
+ */
+final class ApplicantDataDelta {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final int MAX_DEPTH = 2;
+
+  private final ImmutableList<Change> changes;
+
+  private ApplicantDataDelta(ImmutableList<Change> changes) {
+    this.changes = changes;
+  }
+
+  /** Computes the changes that turn the JSON document {@code before} into {@code after}. */
+  static ApplicantDataDelta between(String before, String after) {
+    ImmutableList.Builder<Change> changes = ImmutableList.builder();
+    try {
+      addChanges(ImmutableList.of(), mapper.readTree(before), mapper.readTree(after), changes);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return new ApplicantDataDelta(changes.build());
+  }
+
+  /** Returns true if the two documents are equivalent. */
+  boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  ImmutableList<Change> changes() {
+    return changes;
+  }
+
+  private static void addChanges(
+      ImmutableList<String> path,
+      JsonNode before,
+      JsonNode after,
+      ImmutableList.Builder<Change> changes) {
+    ImmutableSet<String> names =
+        ImmutableSet.<String>builder()
+            .addAll(before.fieldNames())
+            .addAll(after.fieldNames())
+            .build();
+    for (String name : names) {
+      ImmutableList<String> propertyPath =
+          ImmutableList.<String>builder().addAll(path).add(name).build();
+      JsonNode beforeValue = before.get(name);
+      JsonNode afterValue = after.get(name);
+      if (afterValue == null) {
+        changes.add(Change.create(propertyPath, Optional.empty()));
+      } else if (beforeValue == null) {
+        changes.add(Change.create(propertyPath, Optional.of(afterValue.toString())));
+      } else if (!beforeValue.equals(afterValue)) {
+        if (propertyPath.size() < MAX_DEPTH && beforeValue.isObject() && afterValue.isObject()) {
+          addChanges(propertyPath, beforeValue, afterValue, changes);
+        } else {
+          changes.add(Change.create(propertyPath, Optional.of(afterValue.toString())));
+        }
+      }
+    }
+  }
+
+  /** Sets or removes the property at a path of the document. */
+  @AutoValue
+  abstract static class Change {
+
+    static Change create(ImmutableList<String> path, Optional<String> value) {
+      return new AutoValue_ApplicantDataDelta_Change(path, value);
+    }
+
+    /** The names of the properties leading to the changed property, starting at the root. */
+    abstract ImmutableList<String> path();
+
+    /** The new value of the property as JSON, or empty if the property was removed. */
+    abstract Optional<String> value();
+  }
+}
@@ -5,8 +5,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.collect.ImmutableList;
 import io.ebean.DB;
 import io.ebean.Database;
+import io.ebean.Transaction;
+import javax.inject.Inject;
+import models.Account;
 import models.Application;
 import models.ApplicationEvent;
+import models.OutboxEmail;
+import services.application.ApplicationEventDetails;
 
 /**
  * ApplicationEventRepository performs operations on {@link ApplicationEvent} that often involve
@@ -14,18 +19,77 @@ import models.ApplicationEvent;
  */
 public final class ApplicationEventRepository {
   private final Database database;
+  private final EmailOutboxRepository emailOutboxRepository;
 
-  public ApplicationEventRepository() {
+  @Inject
+  public ApplicationEventRepository(EmailOutboxRepository emailOutboxRepository) {
     this.database = checkNotNull(DB.getDefault());
+    this.emailOutboxRepository = checkNotNull(emailOutboxRepository);
   }
 
   /** Insert a new {@link ApplicationEvent} record synchronously. */
   public ApplicationEvent insertSync(ApplicationEvent event) {
-    database.insert(event);
+    return insertSync(event, /* emails= */ ImmutableList.of());
+  }
+
+  /**
+   * Insert a new {@link ApplicationEvent} record synchronously, and queue the emails about it in
+   * the same transaction.
+   */
+  public ApplicationEvent insertSync(ApplicationEvent event, ImmutableList<OutboxEmail> emails) {
+    try (Transaction transaction = database.beginTransaction()) {
+      database.insert(event);
+      emailOutboxRepository.queue(emails);
+      transaction.commit();
+    }
     event.refresh();
     return event;
   }
 
+  /**
+   * Inserts an {@link ApplicationEvent} with the same {@code creator} and {@code details} for each
+   * of the {@code applications} synchronously, and queues the emails about them in the same
+   * transaction.
+   *
+   * <p>The event for the first application is inserted as usual, and is then copied for the others
+   * in a single statement, so the database sets their latest status in one pass, see the {@code
+   * application_events_insert} trigger.
+   */
+  public void insertManySync(
+      ImmutableList<Application> applications,
+      Account creator,
+      ApplicationEventDetails details,
+      ImmutableList<OutboxEmail> emails) {
+    if (applications.isEmpty()) {
+      return;
+    }
+    try (Transaction transaction = database.beginTransaction()) {
+      ApplicationEvent event = new ApplicationEvent(applications.get(0), creator, details);
+      database.insert(event);
+      ImmutableList<Long> otherApplicationIds =
+          applications.stream()
+              .skip(1)
+              .map(application -> application.id)
+              .collect(ImmutableList.toImmutableList());
+      if (!otherApplicationIds.isEmpty()) {
+        database
+            .sqlUpdate(
+                "INSERT INTO application_events"
+                    + " (application_id, creator_id, event_type, details, create_time)"
+                    + " SELECT applications.id, events.creator_id, events.event_type,"
+                    + " events.details, events.create_time"
+                    + " FROM application_events AS events, applications"
+                    + " WHERE events.id = :eventId AND applications.id IN (:applicationIds)")
+            .setParameter("eventId", event.id)
+            .setParameter("applicationIds", otherApplicationIds)
+            .execute();
+      }
+      transaction.setBatchMode(true);
+      emailOutboxRepository.queue(emails);
+      transaction.commit();
+    }
+  }
+
   /**
    * Returns all {@link ApplicationEvent} records for the {@link Application} with id {@code
    * applicationId} synchronously.
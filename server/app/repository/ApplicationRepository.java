@@ -3,11 +3,17 @@ package repository;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import io.ebean.Database;
 import io.ebean.ExpressionList;
+import io.ebean.Query;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
@@ -17,10 +23,13 @@ import javax.inject.Inject;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import models.Program;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import services.Path;
 import services.applicant.exception.ApplicantNotFoundException;
+import services.export.ExportedAnswers;
 import services.program.ProgramNotFoundException;
 
 /**
@@ -30,6 +39,7 @@ import services.program.ProgramNotFoundException;
 public final class ApplicationRepository {
   private final ProgramRepository programRepository;
   private final UserRepository userRepository;
+  private final EmailOutboxRepository emailOutboxRepository;
   private final Database database;
   private final DatabaseExecutionContext executionContext;
   private static final Logger logger = LoggerFactory.getLogger(ApplicationRepository.class);
@@ -38,9 +48,11 @@ public final class ApplicationRepository {
   public ApplicationRepository(
       ProgramRepository programRepository,
       UserRepository userRepository,
+      EmailOutboxRepository emailOutboxRepository,
       DatabaseExecutionContext executionContext) {
     this.programRepository = checkNotNull(programRepository);
     this.userRepository = checkNotNull(userRepository);
+    this.emailOutboxRepository = checkNotNull(emailOutboxRepository);
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
   }
@@ -58,6 +70,73 @@ public final class ApplicationRepository {
         .findEach(fn);
   }
 
+  /** Returns true if there are any submitted applications to the program with the given id. */
+  public boolean hasSubmittedApplications(long programId) {
+    return database
+        .find(Application.class)
+        .where()
+        .eq("program.id", programId)
+        .in("lifecycle_stage", ImmutableList.of(LifecycleStage.ACTIVE, LifecycleStage.OBSOLETE))
+        .exists();
+  }
+
+  /**
+   * Returns, for each of the given paths to a list of repeated entities, the largest number of
+   * repeated entities at that path in any submitted application to the program with the given id.
+   * Paths at which no application has any repeated entities are mapped to zero.
+   *
+   * <p>The counts are aggregated by the database in a single pass over the program's applications,
+   * so no application data is loaded.
+   *
+   * @param repeatedEntitiesPaths paths to repeated entity lists, e.g. {@code
+   *     applicant.household_members[]} or {@code applicant.household_members[0].jobs[]}
+   */
+  public ImmutableMap<Path, Integer> getMaxRepeatedEntityCounts(
+      long programId, ImmutableList<Path> repeatedEntitiesPaths) {
+    if (repeatedEntitiesPaths.isEmpty()) {
+      return ImmutableMap.of();
+    }
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < repeatedEntitiesPaths.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      // The application data is stored as a JSON string, so it is parsed with (object #>> '{}').
+      // In strict mode size() fails for anything other than an array, which the silent flag turns
+      // into no result, so applications without a list at the path are not counted.
+      sql.append(
+          String.format(
+              "MAX(CAST(jsonb_path_query_first((object #>> '{}')::jsonb,"
+                  + " CAST(:path%d AS jsonpath), '{}', true) AS int)) AS count%d",
+              i, i));
+    }
+    sql.append(
+        " FROM applications WHERE program_id = :programId"
+            + " AND lifecycle_stage IN (:activeStage, :obsoleteStage)");
+
+    SqlQuery query =
+        database
+            .sqlQuery(sql.toString())
+            .setParameter("programId", programId)
+            .setParameter("activeStage", LifecycleStage.ACTIVE.getValue())
+            .setParameter("obsoleteStage", LifecycleStage.OBSOLETE.getValue());
+    for (int i = 0; i < repeatedEntitiesPaths.size(); i++) {
+      query.setParameter(
+          "path" + i,
+          String.format(
+              "strict $.%s.size()", repeatedEntitiesPaths.get(i).withoutArrayReference()));
+    }
+    SqlRow row = query.findOne();
+
+    ImmutableMap.Builder<Path, Integer> counts = ImmutableMap.builder();
+    for (int i = 0; i < repeatedEntitiesPaths.size(); i++) {
+      Integer count = row == null ? null : row.getInteger("count" + i);
+      counts.put(repeatedEntitiesPaths.get(i), count == null ? 0 : count);
+    }
+    return counts.build();
+  }
+
   /**
    * Submit an application, which will delete any in-progress drafts, obsolete any submitted
    * applications to a program with the same name (to include past versions of the same program),
@@ -66,29 +145,52 @@ public final class ApplicationRepository {
   public CompletionStage<Application> submitApplication(
       Applicant applicant, Program program, Optional<String> tiSubmitterEmail) {
     return supplyAsync(
-        () -> submitApplicationInternal(applicant, program, tiSubmitterEmail),
+        () ->
+            submitApplicationInternal(
+                applicant,
+                program,
+                tiSubmitterEmail,
+                /* notifications= */ application -> ImmutableList.of()),
         executionContext.current());
   }
 
   public CompletionStage<Optional<Application>> submitApplication(
       long applicantId, long programId, Optional<String> tiSubmitterEmail) {
+    return submitApplication(
+        applicantId,
+        programId,
+        tiSubmitterEmail,
+        /* notifications= */ application -> ImmutableList.of());
+  }
+
+  /**
+   * Submits the application like {@link #submitApplication(long, long, Optional)}, and queues the
+   * emails {@code notifications} returns for the submitted application in the same transaction. The
+   * function is called in the transaction, so it may read from the database but must not block on
+   * other work.
+   */
+  public CompletionStage<Optional<Application>> submitApplication(
+      long applicantId,
+      long programId,
+      Optional<String> tiSubmitterEmail,
+      Function<Application, ImmutableList<OutboxEmail>> notifications) {
     return this.perform(
         applicantId,
         programId,
         (ApplicationArguments appArgs) ->
-            submitApplicationInternal(appArgs.applicant, appArgs.program, tiSubmitterEmail));
+            submitApplicationInternal(
+                appArgs.applicant, appArgs.program, tiSubmitterEmail, notifications));
   }
 
   private Application submitApplicationInternal(
-      Applicant applicant, Program program, Optional<String> tiSubmitterEmail) {
+      Applicant applicant,
+      Program program,
+      Optional<String> tiSubmitterEmail,
+      Function<Application, ImmutableList<OutboxEmail>> notifications) {
     database.beginTransaction();
     try {
       List<Application> oldApplications =
-          database
-              .createQuery(Application.class)
-              .where()
-              .eq("applicant.id", applicant.id)
-              .eq("program.name", program.getProgramDefinition().adminName())
+          applicationsToProgramQuery(applicant.id, program.getProgramDefinition().adminName())
               .findList();
       ImmutableList<Application> drafts =
           oldApplications.stream()
@@ -105,6 +207,10 @@ public final class ApplicationRepository {
           drafts.isEmpty()
               ? new Application(applicant, program, LifecycleStage.ACTIVE)
               : drafts.get(0);
+      // Drafts are kept up to date as the applicant answers questions, see
+      // updateApplicantDataAndCreateDraftIfMissing. The answers are copied again when submitting in
+      // case the draft was created or changed by other code paths.
+      application.setApplicantData(applicant.getApplicantData());
       application.setLifecycleStage(LifecycleStage.ACTIVE);
       application.setSubmitTimeToNow();
       if (tiSubmitterEmail.isPresent()) {
@@ -120,6 +226,7 @@ public final class ApplicationRepository {
         app.setLifecycleStage(LifecycleStage.OBSOLETE);
         app.save();
       }
+      emailOutboxRepository.queue(notifications.apply(application));
       database.commitTransaction();
       return application;
     } finally {
@@ -127,6 +234,21 @@ public final class ApplicationRepository {
     }
   }
 
+  /**
+   * Stores the answers of a submitted application in the form they are exported in, so that exports
+   * don't need to compute them.
+   */
+  public CompletionStage<Void> updateExportedAnswers(
+      Application application, ExportedAnswers exportedAnswers) {
+    return supplyAsync(
+        () -> {
+          application.setExportedAnswers(exportedAnswers);
+          application.save();
+          return null;
+        },
+        executionContext.current());
+  }
+
   private CompletionStage<Optional<Application>> perform(
       long applicantId, long programId, Function<ApplicationArguments, Application> fn) {
     CompletionStage<Optional<Applicant>> applicantDb = userRepository.lookupApplicant(applicantId);
@@ -158,6 +280,11 @@ public final class ApplicationRepository {
    * order that the applications were created.
    */
   public ImmutableList<Application> getApplications(TimeFilter submitTimeFilter) {
+    return ImmutableList.copyOf(submittedApplicationsQuery(submitTimeFilter).findList());
+  }
+
+  @VisibleForTesting
+  Query<Application> submittedApplicationsQuery(TimeFilter submitTimeFilter) {
     ExpressionList<Application> query =
         database
             .find(Application.class)
@@ -171,7 +298,30 @@ public final class ApplicationRepository {
     if (submitTimeFilter.untilTime().isPresent()) {
       query = query.where().lt("submit_time", submitTimeFilter.untilTime().get());
     }
-    return ImmutableList.copyOf(query.findList());
+    return query.query();
+  }
+
+  /** The applicant's applications to all versions of the program with the given name. */
+  @VisibleForTesting
+  Query<Application> applicationsToProgramQuery(long applicantId, String programName) {
+    return database
+        .createQuery(Application.class)
+        .where()
+        .eq("applicant.id", applicantId)
+        .eq("program.name", programName)
+        .query();
+  }
+
+  /** The applicant's draft application to the program version. */
+  @VisibleForTesting
+  Query<Application> draftApplicationQuery(long applicantId, long programId) {
+    return database
+        .createQuery(Application.class)
+        .where()
+        .eq("applicant.id", applicantId)
+        .eq("program.id", programId)
+        .eq("lifecycle_stage", LifecycleStage.DRAFT)
+        .query();
   }
 
   // Need to transmit both arguments to submitApplication through the CompletionStage pipeline.
@@ -190,13 +340,7 @@ public final class ApplicationRepository {
     database.beginTransaction();
     try {
       Optional<Application> existingDraft =
-          database
-              .createQuery(Application.class)
-              .where()
-              .eq("applicant.id", applicant.id)
-              .eq("program.id", program.id)
-              .eq("lifecycle_stage", LifecycleStage.DRAFT)
-              .findOneOrEmpty();
+          draftApplicationQuery(applicant.id, program.id).findOneOrEmpty();
       Application application =
           existingDraft.orElse(new Application(applicant, program, LifecycleStage.DRAFT));
       application.setApplicantData(applicant.getApplicantData());
@@ -229,12 +373,112 @@ public final class ApplicationRepository {
             createOrUpdateDraftApplicationInternal(appArgs.applicant, appArgs.program));
   }
 
+  /**
+   * Saves the changes to the applicant's data, see {@link UserRepository#updateApplicantData}, and
+   * creates a draft application to the program for the applicant if they don't have one yet, in one
+   * transaction.
+   *
+   * <p>Unlike {@link #createOrUpdateDraft(long, long)}, the applicant and program aren't looked up
+   * again, and an existing draft's data is copied from the saved applicant data in the database
+   * rather than serialized and sent again, so drafts read by exports stay up to date.
+   */
+  public CompletionStage<Void> updateApplicantDataAndCreateDraftIfMissing(
+      Applicant applicant, long programId) {
+    return supplyAsync(
+        () -> {
+          database.beginTransaction();
+          try {
+            userRepository.updateApplicantDataSync(applicant);
+            if (copyApplicantDataToDraft(applicant.id, programId) == 0) {
+              createDraftIfMissingInternal(applicant.id, programId);
+            }
+            database.commitTransaction();
+            return null;
+          } finally {
+            database.endTransaction();
+          }
+        },
+        executionContext.current());
+  }
+
+  /**
+   * Creates a draft application to the program for the applicant if they don't have one yet,
+   * without saving the applicant's data.
+   */
+  public CompletionStage<Void> createDraftIfMissing(Applicant applicant, long programId) {
+    return supplyAsync(
+        () -> {
+          createDraftIfMissingInternal(applicant.id, programId);
+          return null;
+        },
+        executionContext.current());
+  }
+
+  /**
+   * Sets the data of the applicant's draft application to the program to the applicant's saved
+   * data, and returns the number of drafts updated.
+   */
+  private int copyApplicantDataToDraft(long applicantId, long programId) {
+    return database
+        .sqlUpdate(
+            "UPDATE applications SET object = (SELECT object FROM applicants WHERE id ="
+                + " :applicantId) WHERE applicant_id = :applicantId AND program_id = :programId"
+                + " AND lifecycle_stage = :draftStage")
+        .setParameter("applicantId", applicantId)
+        .setParameter("programId", programId)
+        .setParameter("draftStage", LifecycleStage.DRAFT.getValue())
+        .execute();
+  }
+
+  /**
+   * Creates a draft application to the program for the applicant if they don't have one yet. Its
+   * data is copied from the applicant's saved data, rather than from an {@link Applicant} that may
+   * hold answers that failed validation and weren't saved.
+   */
+  private void createDraftIfMissingInternal(long applicantId, long programId) {
+    database
+        .sqlUpdate(
+            "INSERT INTO applications"
+                + " (applicant_id, program_id, object, lifecycle_stage, create_time)"
+                + " SELECT id, :programId, object, :draftStage, current_timestamp FROM applicants"
+                + " WHERE id = :applicantId AND NOT EXISTS (SELECT 1 FROM applications"
+                + " WHERE applicant_id = :applicantId AND program_id = :programId"
+                + " AND lifecycle_stage = :draftStage)")
+        .setParameter("applicantId", applicantId)
+        .setParameter("programId", programId)
+        .setParameter("draftStage", LifecycleStage.DRAFT.getValue())
+        .execute();
+  }
+
   public CompletionStage<Optional<Application>> getApplication(long applicationId) {
     return supplyAsync(
         () -> database.find(Application.class).setId(applicationId).findOneOrEmpty(),
         executionContext.current());
   }
 
+  /**
+   * Get the applications with the given ids, in ascending id order. Ids without an application are
+   * ignored.
+   *
+   * <p>The {@link Program} and applicant {@link models.Account} of the applications are eagerly
+   * loaded, so that they can be updated together without a query per application.
+   */
+  public CompletionStage<ImmutableList<Application>> getApplications(
+      ImmutableSet<Long> applicationIds) {
+    return supplyAsync(
+        () ->
+            ImmutableList.copyOf(
+                database
+                    .find(Application.class)
+                    .fetch("program")
+                    .fetch("applicant.account")
+                    .where()
+                    .idIn(applicationIds)
+                    .orderBy("id")
+                    .findList()),
+        executionContext.current());
+  }
+
   /**
    * Get all applications with the specified {@link LifecyleStage}s for an applicant.
    *
@@ -243,20 +487,73 @@ public final class ApplicationRepository {
   public CompletionStage<ImmutableSet<Application>> getApplicationsForApplicant(
       long applicantId, ImmutableSet<LifecycleStage> stages) {
     return supplyAsync(
-        () -> {
-          return database
-              .find(Application.class)
-              .where()
-              .eq("applicant.id", applicantId)
-              .isIn("lifecycle_stage", stages)
-              .query()
-              // Eagerly fetch the program in a SQL join.
-              .fetch("program")
-              .fetch("applicationEvents")
-              .findSet()
-              .stream()
-              .collect(ImmutableSet.toImmutableSet());
-        },
+        () -> ImmutableSet.copyOf(applicationsForApplicantQuery(applicantId, stages).findSet()),
+        executionContext.current());
+  }
+
+  @VisibleForTesting
+  Query<Application> applicationsForApplicantQuery(
+      long applicantId, ImmutableSet<LifecycleStage> stages) {
+    return database
+        .find(Application.class)
+        .where()
+        .eq("applicant.id", applicantId)
+        .isIn("lifecycle_stage", stages)
+        .query()
+        // Eagerly fetch the program in a SQL join.
+        .fetch("program")
+        .fetch("applicationEvents");
+  }
+
+  /**
+   * Returns a summary of the applicant's latest draft and latest submitted application to each
+   * program, where all versions of a program are considered the same program. The latest
+   * application is the one submitted last, or created last if none of them was submitted.
+   *
+   * <p>Only the listed columns are read, in a single query that picks the latest applications in
+   * the database, so neither the application data nor the program definitions are loaded.
+   */
+  public CompletionStage<ImmutableList<ApplicationSummary>> getLatestApplicationSummaries(
+      long applicantId) {
+    return supplyAsync(
+        () ->
+            database
+                .sqlQuery(
+                    "SELECT DISTINCT ON (programs.name, applications.lifecycle_stage)"
+                        + " applications.id, applications.program_id, programs.name,"
+                        + " applications.lifecycle_stage, applications.submit_time,"
+                        + " applications.latest_status, COUNT(*) OVER"
+                        + " (PARTITION BY programs.name, applications.lifecycle_stage) AS count"
+                        + " FROM applications"
+                        + " JOIN programs ON programs.id = applications.program_id"
+                        + " WHERE applications.applicant_id = :applicantId"
+                        + " AND applications.lifecycle_stage IN (:draftStage, :activeStage)"
+                        + " ORDER BY programs.name, applications.lifecycle_stage,"
+                        + " applications.submit_time DESC NULLS LAST,"
+                        + " applications.create_time DESC NULLS LAST")
+                .setParameter("applicantId", applicantId)
+                .setParameter("draftStage", LifecycleStage.DRAFT.getValue())
+                .setParameter("activeStage", LifecycleStage.ACTIVE.getValue())
+                .findList()
+                .stream()
+                .map(
+                    row ->
+                        ApplicationSummary.builder()
+                            .setApplicationId(row.getLong("id"))
+                            .setProgramId(row.getLong("program_id"))
+                            .setProgramName(row.getString("name"))
+                            .setLifecycleStage(
+                                row.getString("lifecycle_stage")
+                                        .equals(LifecycleStage.DRAFT.getValue())
+                                    ? LifecycleStage.DRAFT
+                                    : LifecycleStage.ACTIVE)
+                            .setSubmitTime(
+                                Optional.ofNullable(row.getTimestamp("submit_time"))
+                                    .map(Timestamp::toInstant))
+                            .setLatestStatus(Optional.ofNullable(row.getString("latest_status")))
+                            .setApplicationsWithStageCount(row.getInteger("count"))
+                            .build())
+                .collect(ImmutableList.toImmutableList()),
         executionContext.current());
   }
 }
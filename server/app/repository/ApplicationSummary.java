@@ -0,0 +1,57 @@
+package repository;
+
+import com.google.auto.value.AutoValue;
+import java.time.Instant;
+import java.util.Optional;
+import models.LifecycleStage;
+
+/**
+ * The columns of an {@link models.Application} needed to list it, without its applicant data or
+ * its program's definition. See {@link ApplicationRepository#getLatestApplicationSummaries}.
+ */
+@AutoValue
+public abstract class ApplicationSummary {
+
+  public abstract long applicationId();
+
+  /** The id of the program version the application is for. */
+  public abstract long programId();
+
+  /** The name the program has in all its versions. */
+  public abstract String programName();
+
+  public abstract LifecycleStage lifecycleStage();
+
+  public abstract Optional<Instant> submitTime();
+
+  public abstract Optional<String> latestStatus();
+
+  /**
+   * The number of the applicant's applications to any version of the program with the same
+   * lifecycle stage as this one, which is expected to be 1.
+   */
+  public abstract int applicationsWithStageCount();
+
+  public static Builder builder() {
+    return new AutoValue_ApplicationSummary.Builder();
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder setApplicationId(long v);
+
+    public abstract Builder setProgramId(long v);
+
+    public abstract Builder setProgramName(String v);
+
+    public abstract Builder setLifecycleStage(LifecycleStage v);
+
+    public abstract Builder setSubmitTime(Optional<Instant> v);
+
+    public abstract Builder setLatestStatus(Optional<String> v);
+
+    public abstract Builder setApplicationsWithStageCount(int v);
+
+    public abstract ApplicationSummary build();
+  }
+}
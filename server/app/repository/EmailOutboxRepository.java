@@ -0,0 +1,94 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.Transaction;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import models.OutboxEmail;
+
+/**
+ * Queues {@link OutboxEmail}s and tracks the attempts to send them.
+ *
+ * <p>All methods are synchronous. {@link #queue} joins the current transaction, if any, so that
+ * emails are only sent if the change they are about is committed.
+ */
+public final class EmailOutboxRepository {
+  private final Database database;
+
+  public EmailOutboxRepository() {
+    this.database = checkNotNull(DB.getDefault());
+  }
+
+  /** Queues emails to be sent, as part of the current transaction if there is one. */
+  public void queue(ImmutableList<OutboxEmail> emails) {
+    if (!emails.isEmpty()) {
+      database.insertAll(emails);
+    }
+  }
+
+  /**
+   * Claims up to {@code maxEmails} emails that are due to be attempted at {@code now}, oldest
+   * first, and starts an attempt to send each of them. Claimed emails aren't returned again before
+   * {@code retryTime}, even by other servers, unless the attempt is recorded as failed with an
+   * earlier retry time.
+   */
+  public ImmutableList<OutboxEmail> claimDueEmails(int maxEmails, Instant now, Instant retryTime) {
+    try (Transaction transaction = database.beginTransaction()) {
+      List<OutboxEmail> emails =
+          database
+              .find(OutboxEmail.class)
+              .where()
+              .isNull("sentTime")
+              .le("nextAttemptTime", now)
+              .orderBy("nextAttemptTime asc, id asc")
+              .setMaxRows(maxEmails)
+              .forUpdateSkipLocked()
+              .findList();
+      emails.forEach(email -> email.startAttempt(retryTime));
+      database.updateAll(emails);
+      transaction.commit();
+      return ImmutableList.copyOf(emails);
+    }
+  }
+
+  /** Records that the current attempt to send the email succeeded. */
+  public void markSent(OutboxEmail email, Instant sentTime) {
+    email.setSent(sentTime);
+    database.update(email);
+  }
+
+  /**
+   * Records that the current attempt to send the email failed. It is attempted again at {@code
+   * retryTime}, or never if that is empty.
+   */
+  public void markFailed(OutboxEmail email, String error, Optional<Instant> retryTime) {
+    email.setFailed(error, retryTime);
+    database.update(email);
+  }
+
+  /**
+   * Deletes the emails queued before {@code queuedBefore} that were sent or given up on, since
+   * they hold the addresses and contents of the emails.
+   *
+   * @return the number of emails deleted
+   */
+  public int deleteFinishedEmails(Instant queuedBefore) {
+    return database
+        .find(OutboxEmail.class)
+        .where()
+        .isNull("nextAttemptTime")
+        .lt("createTime", queuedBefore)
+        .delete();
+  }
+
+  /** Returns the emails that haven't been sent yet, oldest first. */
+  public ImmutableList<OutboxEmail> getUnsentEmails() {
+    return ImmutableList.copyOf(
+        database.find(OutboxEmail.class).where().isNull("sentTime").orderBy("id").findList());
+  }
+}
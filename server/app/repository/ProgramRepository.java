@@ -3,8 +3,10 @@ package repository;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import io.ebean.Database;
@@ -14,12 +16,17 @@ import io.ebean.Query;
 import io.ebean.SqlRow;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.inject.Singleton;
 import models.Account;
 import models.Application;
 import models.LifecycleStage;
@@ -31,8 +38,6 @@ import play.libs.F;
 import services.IdentifierBasedPaginationSpec;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
-import services.Path;
-import services.WellKnownPaths;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
 
@@ -40,19 +45,26 @@ import services.program.ProgramNotFoundException;
  * ProgramRepository performs complicated operations on {@link Program} that often involve other
  * EBean models or asynchronous handling.
  */
+@Singleton
 public final class ProgramRepository {
   private static final Logger logger = LoggerFactory.getLogger(ProgramRepository.class);
 
   private final Database database;
   private final DatabaseExecutionContext executionContext;
   private final Provider<VersionRepository> versionRepository;
+  private final VersionChangeCounter versionChangeCounter;
+  private final AtomicReference<ActiveProgramSlugs> activeProgramSlugs =
+      new AtomicReference<>(new ActiveProgramSlugs("", ImmutableMap.of()));
 
   @Inject
   public ProgramRepository(
-      DatabaseExecutionContext executionContext, Provider<VersionRepository> versionRepository) {
+      DatabaseExecutionContext executionContext,
+      Provider<VersionRepository> versionRepository,
+      VersionChangeCounter versionChangeCounter) {
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
     this.versionRepository = checkNotNull(versionRepository);
+    this.versionChangeCounter = checkNotNull(versionChangeCounter);
   }
 
   public CompletionStage<Optional<Program>> lookupProgram(long id) {
@@ -60,15 +72,24 @@ public final class ProgramRepository {
         () -> database.find(Program.class).where().eq("id", id).findOneOrEmpty(), executionContext);
   }
 
+  /** Returns the programs with the given ids that exist, in a single query. */
+  public CompletionStage<ImmutableList<Program>> lookupPrograms(ImmutableSet<Long> ids) {
+    return supplyAsync(
+        () -> ImmutableList.copyOf(database.find(Program.class).where().idIn(ids).findList()),
+        executionContext);
+  }
+
   public Program insertProgramSync(Program program) {
     program.id = null;
     database.insert(program);
     program.refresh();
+    versionChangeCounter.increment();
     return program;
   }
 
   public Program updateProgramSync(Program program) {
     database.update(program);
+    versionChangeCounter.increment();
     return program;
   }
 
@@ -153,26 +174,69 @@ public final class ProgramRepository {
     }
   }
 
-  /** Get the current active program with the provided slug. */
+  /**
+   * Get the current active program with the provided slug.
+   *
+   * <p>The slug is resolved with a map of the active programs' slugs, so finding the program is a
+   * single lookup by id.
+   */
   public CompletableFuture<Program> getForSlug(String slug) {
     return supplyAsync(
         () -> {
-          for (Program program : database.find(Program.class).where().isNull("slug").findList()) {
-            program.getSlug();
-            program.save();
-          }
-          ImmutableList<Program> activePrograms =
-              versionRepository.get().getActiveVersion().getPrograms();
-          List<Program> programsMatchingSlug =
-              database.find(Program.class).where().eq("slug", slug).findList();
-          return activePrograms.stream()
-              .filter(programsMatchingSlug::contains)
-              .findFirst()
+          Optional<Long> programId = Optional.ofNullable(getActiveProgramIdsBySlug().get(slug));
+          return programId
+              .flatMap(id -> database.find(Program.class).setId(id).findOneOrEmpty())
               .orElseThrow(() -> new RuntimeException(new ProgramNotFoundException(slug)));
         },
         executionContext.current());
   }
 
+  /**
+   * Returns the ids of the programs in the active version by their slugs.
+   *
+   * <p>The map is keyed by {@link VersionRepository#getCurrentVersionsStamp()}, and is rebuilt on
+   * the first lookup after the stamp changes, e.g. when a version is published.
+   */
+  private ImmutableMap<String, Long> getActiveProgramIdsBySlug() {
+    String versionsStamp = versionRepository.get().getCurrentVersionsStamp();
+    ActiveProgramSlugs current = activeProgramSlugs.get();
+    if (current.versionsStamp.equals(versionsStamp)) {
+      return current.programIdsBySlug;
+    }
+
+    // The stamp is read before the programs are loaded, so that a publish made while loading them
+    // results in a stale key rather than a stale map.
+    Map<String, Long> programIdsBySlug = new HashMap<>();
+    versionRepository.get().getActiveVersion().getPrograms().stream()
+        .sorted(Comparator.comparing(program -> program.id))
+        .forEach(
+            program -> {
+              // Programs saved before slugs were stored get theirs from their name.
+              Long existingId = programIdsBySlug.putIfAbsent(program.getSlug(), program.id);
+              if (existingId != null) {
+                logger.error(
+                    "Active programs {} and {} have the same slug: {}",
+                    existingId,
+                    program.id,
+                    program.getSlug());
+              }
+            });
+    ActiveProgramSlugs rebuilt =
+        new ActiveProgramSlugs(versionsStamp, ImmutableMap.copyOf(programIdsBySlug));
+    activeProgramSlugs.set(rebuilt);
+    return rebuilt.programIdsBySlug;
+  }
+
+  private static final class ActiveProgramSlugs {
+    private final String versionsStamp;
+    private final ImmutableMap<String, Long> programIdsBySlug;
+
+    private ActiveProgramSlugs(String versionsStamp, ImmutableMap<String, Long> programIdsBySlug) {
+      this.versionsStamp = checkNotNull(versionsStamp);
+      this.programIdsBySlug = checkNotNull(programIdsBySlug);
+    }
+  }
+
   public ImmutableList<Account> getProgramAdministrators(String programName) {
     return ImmutableList.copyOf(
         database.find(Account.class).where().arrayContains("admin_of", programName).findList());
@@ -221,11 +285,102 @@ public final class ProgramRepository {
       F.Either<IdentifierBasedPaginationSpec<Long>, PageNumberBasedPaginationSpec>
           paginationSpecEither,
       SubmittedApplicationFilter filters) {
+    ExpressionList<Application> query = submittedApplicationsQuery(programId, filters);
+    PagedList<Application> pagedQuery;
+
+    if (paginationSpecEither.left.isPresent()) {
+      IdentifierBasedPaginationSpec<Long> paginationSpec = paginationSpecEither.left.get();
+      pagedQuery =
+          query
+              .lt("id", paginationSpec.getCurrentPageOffsetIdentifier())
+              .orderBy("id desc")
+              .setMaxRows(paginationSpec.getPageSize())
+              .findPagedList();
+    } else {
+      PageNumberBasedPaginationSpec paginationSpec = paginationSpecEither.right.get();
+      pagedQuery =
+          query
+              .orderBy("id desc")
+              .setFirstRow(paginationSpec.getCurrentPageOffset())
+              .setMaxRows(paginationSpec.getPageSize())
+              .findPagedList();
+    }
+
+    pagedQuery.loadCount();
+
+    return new PaginationResult<Application>(
+        pagedQuery.hasNext(),
+        pagedQuery.getTotalPageCount(),
+        pagedQuery.getList().stream().collect(ImmutableList.toImmutableList()));
+  }
+
+  /**
+   * Get up to {@code maxRows} submitted applications for this program and all other previous and
+   * future versions of it that match the specified filters and have an id less than {@code
+   * offsetIdentifier}, in descending id order.
+   *
+   * <p>Unlike {@link #getApplicationsForAllProgramVersions}, the matching applications are not
+   * counted, so the cost of a page doesn't grow with the number of applications before it.
+   */
+  public ImmutableList<Application> getApplicationsForAllProgramVersionsBefore(
+      long programId, long offsetIdentifier, int maxRows, SubmittedApplicationFilter filters) {
+    return applicationsForAllProgramVersionsBeforeQuery(
+            programId, offsetIdentifier, maxRows, filters)
+        .findList()
+        .stream()
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @VisibleForTesting
+  Query<Application> applicationsForAllProgramVersionsBeforeQuery(
+      long programId, long offsetIdentifier, int maxRows, SubmittedApplicationFilter filters) {
+    return submittedApplicationsQuery(programId, filters)
+        .lt("id", offsetIdentifier)
+        .orderBy("id desc")
+        .setMaxRows(maxRows);
+  }
+
+  /**
+   * Returns the offset identifier of the page that precedes the page specified by {@code
+   * paginationSpec}, for use with {@link #getApplicationsForAllProgramVersionsBefore}. Returns
+   * empty if the preceding page is the first page.
+   */
+  public Optional<Long> getPreviousPageOffsetIdentifier(
+      long programId,
+      IdentifierBasedPaginationSpec<Long> paginationSpec,
+      SubmittedApplicationFilter filters) {
+    // The preceding page ends with the application the given page is offset by, so it holds the
+    // first pageSize applications from there in ascending order. It is in turn offset by the
+    // application after those, if there is one.
+    int pageSize = paginationSpec.getPageSize();
+    List<Long> laterIdentifiers =
+        submittedApplicationsQuery(programId, filters)
+            .ge("id", paginationSpec.getCurrentPageOffsetIdentifier())
+            .select("id")
+            .orderBy("id asc")
+            .setMaxRows(pageSize + 1)
+            .findSingleAttributeList();
+    return laterIdentifiers.size() > pageSize
+        ? Optional.of(laterIdentifiers.get(pageSize))
+        : Optional.empty();
+  }
+
+  /**
+   * Counts the submitted applications for this program and all other previous and future versions
+   * of it that match the specified filters.
+   */
+  public int countApplicationsForAllProgramVersions(
+      long programId, SubmittedApplicationFilter filters) {
+    return submittedApplicationsQuery(programId, filters).findCount();
+  }
+
+  @VisibleForTesting
+  ExpressionList<Application> submittedApplicationsQuery(
+      long programId, SubmittedApplicationFilter filters) {
     ExpressionList<Application> query =
         database
             .find(Application.class)
             .fetch("program")
-            .orderBy("id desc")
             .where()
             .in("program_id", allProgramVersionsQuery(programId))
             .in(
@@ -246,15 +401,13 @@ public final class ProgramRepository {
       if (search.matches("^\\d+$")) {
         query = query.eq("id", Integer.parseInt(search));
       } else {
-        String firstNamePath = getApplicationObjectPath(WellKnownPaths.APPLICANT_FIRST_NAME);
-        String lastNamePath = getApplicationObjectPath(WellKnownPaths.APPLICANT_LAST_NAME);
+        // applicant_name_search is a generated column with a trigram index that holds the
+        // applicant's name as "first last", "last first" and "last, first". See 48.sql.
         query =
             query
                 .or()
                 .ieq("submitter_email", search)
-                .raw(firstNamePath + " || ' ' || " + lastNamePath + " ILIKE ?", "%" + search + "%")
-                .raw(lastNamePath + " || ' ' || " + firstNamePath + " ILIKE ?", "%" + search + "%")
-                .raw(lastNamePath + " || ', ' || " + firstNamePath + " ILIKE ?", "%" + search + "%")
+                .raw("applicant_name_search ILIKE ?", "%" + search + "%")
                 .endOr();
       }
     }
@@ -268,31 +421,7 @@ public final class ProgramRepository {
       }
     }
 
-    PagedList<Application> pagedQuery;
-
-    if (paginationSpecEither.left.isPresent()) {
-      IdentifierBasedPaginationSpec<Long> paginationSpec = paginationSpecEither.left.get();
-      pagedQuery =
-          query
-              .where()
-              .lt("id", paginationSpec.getCurrentPageOffsetIdentifier())
-              .setMaxRows(paginationSpec.getPageSize())
-              .findPagedList();
-    } else {
-      PageNumberBasedPaginationSpec paginationSpec = paginationSpecEither.right.get();
-      pagedQuery =
-          query
-              .setFirstRow(paginationSpec.getCurrentPageOffset())
-              .setMaxRows(paginationSpec.getPageSize())
-              .findPagedList();
-    }
-
-    pagedQuery.loadCount();
-
-    return new PaginationResult<Application>(
-        pagedQuery.hasNext(),
-        pagedQuery.getTotalPageCount(),
-        pagedQuery.getList().stream().collect(ImmutableList.toImmutableList()));
+    return query;
   }
 
   private Query<Program> allProgramVersionsQuery(long programId) {
@@ -301,30 +430,4 @@ public final class ProgramRepository {
 
     return database.find(Program.class).select("id").where().in("name", programNameQuery).query();
   }
-
-  private String getApplicationObjectPath(Path path) {
-    StringBuilder result = new StringBuilder();
-
-    result.append("(");
-
-    // While the column type is JSONB, CiviForm writes the JSON object into the database as a
-    // string.
-    // This requires queries that interact with the JSON column to instruct postgres to parse the
-    // contents
-    // into JSON, which we do here with (object #>> '{}')::jsonb
-    result.append("(object #>> '{}')::jsonb");
-
-    int lastIndex = path.segments().size() - 1;
-    for (int i = 0; i < lastIndex; i++) {
-      result.append(" -> '");
-      result.append(path.segments().get(i));
-      result.append("'");
-    }
-
-    result.append(" ->> '");
-    result.append(path.segments().get(lastIndex));
-    result.append("')");
-
-    return result.toString();
-  }
 }
@@ -33,15 +33,18 @@ public final class QuestionRepository {
   private final Database database;
   private final DatabaseExecutionContext executionContext;
   private final Provider<VersionRepository> versionRepositoryProvider;
+  private final VersionChangeCounter versionChangeCounter;
 
   @Inject
   public QuestionRepository(
       DatabaseExecutionContext executionContext,
       ProgramRepository programRepository,
-      Provider<VersionRepository> versionRepositoryProvider) {
+      Provider<VersionRepository> versionRepositoryProvider,
+      VersionChangeCounter versionChangeCounter) {
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+    this.versionChangeCounter = checkNotNull(versionChangeCounter);
   }
 
   public CompletionStage<Set<Question>> listQuestions() {
@@ -80,6 +83,7 @@ public final class QuestionRepository {
 
         newDraftQuestion.addVersion(draftVersion).save();
         draftVersion.refresh();
+        versionChangeCounter.increment();
 
         // Update other questions that may reference the previous revision.
         if (definition.isEnumerator()) {
@@ -229,6 +233,7 @@ public final class QuestionRepository {
     return supplyAsync(
         () -> {
           database.insert(question);
+          versionChangeCounter.increment();
           return question;
         },
         executionContext);
@@ -236,6 +241,7 @@ public final class QuestionRepository {
 
   public Question insertQuestionSync(Question question) {
     database.insert(question);
+    versionChangeCounter.increment();
     return question;
   }
 
@@ -243,6 +249,7 @@ public final class QuestionRepository {
     return supplyAsync(
         () -> {
           database.update(question);
+          versionChangeCounter.increment();
           return question;
         },
         executionContext);
@@ -250,6 +257,7 @@ public final class QuestionRepository {
 
   public Question updateQuestionSync(Question question) {
     database.update(question);
+    versionChangeCounter.increment();
     return question;
   }
 }
@@ -9,9 +9,11 @@ import io.ebean.Database;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import models.StoredFile;
+import services.program.ProgramDefinition;
 
 /**
  * StoredFileRepository performs complicated operations on {@link StoredFile} that involve
@@ -62,6 +64,35 @@ public final class StoredFileRepository {
         executionContext);
   }
 
+  /**
+   * Adds the program to the readers in the ACLs of the files with the given key names, with a
+   * single statement for all of them. Files that already have the program as a reader are left
+   * unchanged.
+   */
+  public CompletionStage<Void> addProgramToReaders(
+      ImmutableList<String> keyNames, ProgramDefinition programDefinition) {
+    if (keyNames.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return supplyAsync(
+        () -> {
+          // The ACLs of files created before they were introduced may lack a readers array.
+          database
+              .sqlUpdate(
+                  "UPDATE files SET acls = jsonb_set(COALESCE(acls, CAST('{}' AS jsonb)),"
+                      + " '{programReadAcls}', CASE WHEN jsonb_typeof(acls -> 'programReadAcls')"
+                      + " = 'array' THEN acls -> 'programReadAcls' ELSE CAST('[]' AS jsonb) END"
+                      + " || jsonb_build_array(CAST(:programName AS text)))"
+                      + " WHERE name IN (:keyNames) AND NOT COALESCE(acls -> 'programReadAcls'"
+                      + " @> jsonb_build_array(CAST(:programName AS text)), false)")
+              .setParameter("programName", programDefinition.adminName())
+              .setParameter("keyNames", keyNames)
+              .execute();
+          return null;
+        },
+        executionContext);
+  }
+
   public CompletionStage<StoredFile> insert(StoredFile file) {
     return supplyAsync(
         () -> {
@@ -5,20 +5,35 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import auth.CiviFormProfile;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import forms.AddApplicantToTrustedIntermediaryGroupForm;
 import io.ebean.DB;
 import io.ebean.Database;
+import io.ebean.SqlQuery;
+import io.ebean.SqlUpdate;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 import javax.inject.Inject;
 import models.Account;
 import models.Applicant;
 import models.TrustedIntermediaryGroup;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import services.CiviFormError;
+import services.PageNumberBasedPaginationSpec;
+import services.PaginationResult;
 import services.applicant.ApplicantData;
 import services.program.ProgramDefinition;
 import services.ti.EmailAddressExistsException;
@@ -33,11 +48,15 @@ public final class UserRepository {
 
   private final Database database;
   private final DatabaseExecutionContext executionContext;
+  private final SyncCacheApi accountCache;
 
   @Inject
-  public UserRepository(DatabaseExecutionContext executionContext) {
+  public UserRepository(
+      DatabaseExecutionContext executionContext,
+      @NamedCache("accounts") SyncCacheApi accountCache) {
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
+    this.accountCache = checkNotNull(accountCache);
   }
 
   public CompletionStage<Set<Applicant>> listApplicants() {
@@ -105,6 +124,78 @@ public final class UserRepository {
         executionContext);
   }
 
+  /**
+   * Persists the changes made to the applicant's data since it was loaded.
+   *
+   * <p>Nothing is written if the data is unchanged. Otherwise only the properties of the data that
+   * changed are set, see {@link ApplicantDataDelta}, so concurrent updates to other parts of the
+   * data, such as another block, aren't overwritten and the whole document isn't sent to the
+   * database for every block. Falls back to {@link #updateApplicant} for new applicants and
+   * changes to the preferred locale.
+   */
+  public CompletionStage<Void> updateApplicantData(Applicant applicant) {
+    return supplyAsync(
+        () -> {
+          updateApplicantDataSync(applicant);
+          return null;
+        },
+        executionContext);
+  }
+
+  /**
+   * Like {@link #updateApplicantData}, but runs on the calling thread, so that the update is part
+   * of the caller's transaction if there is one.
+   */
+  void updateApplicantDataSync(Applicant applicant) {
+    Optional<String> persistedObject = applicant.getPersistedObject();
+    if (persistedObject.isEmpty() || applicant.hasPreferredLocaleChanged()) {
+      database.save(applicant);
+      return;
+    }
+    String object = applicant.getApplicantData().asJsonString();
+    if (object.equals(persistedObject.get())) {
+      return;
+    }
+    ApplicantDataDelta delta = ApplicantDataDelta.between(persistedObject.get(), object);
+    if (!delta.isEmpty()) {
+      applyApplicantDataDelta(applicant.id, delta);
+    }
+    applicant.setPersistedObject(object);
+  }
+
+  private void applyApplicantDataDelta(long applicantId, ApplicantDataDelta delta) {
+    // The data is stored as a JSON string within the jsonb column, so it is parsed before the
+    // changes are applied and serialized back into a string afterwards.
+    String document = "(object #>> '{}')::jsonb";
+    Map<String, Object> parameters = new HashMap<>();
+    for (int i = 0; i < delta.changes().size(); i++) {
+      ApplicantDataDelta.Change change = delta.changes().get(i);
+      List<String> pathElements = new ArrayList<>();
+      for (int j = 0; j < change.path().size(); j++) {
+        String name = String.format("path%d_%d", i, j);
+        pathElements.add(String.format("CAST(:%s AS text)", name));
+        parameters.put(name, change.path().get(j));
+      }
+      String path = String.format("ARRAY[%s]", String.join(", ", pathElements));
+      if (change.value().isPresent()) {
+        document =
+            String.format("jsonb_set(%s, %s, CAST(:value%d AS jsonb))", document, path, i);
+        parameters.put(String.format("value%d", i), change.value().get());
+      } else {
+        document = String.format("(%s #- %s)", document, path);
+      }
+    }
+
+    SqlUpdate update =
+        database.sqlUpdate(
+            String.format(
+                "UPDATE applicants SET object = CASE WHEN jsonb_typeof(object) = 'string'"
+                    + " THEN to_jsonb(CAST(%1$s AS text)) ELSE %1$s END WHERE id = :id",
+                document));
+    parameters.forEach(update::setParameter);
+    update.setParameter("id", applicantId).execute();
+  }
+
   public Optional<Applicant> lookupApplicantSync(long id) {
     return database.find(Applicant.class).setId(id).findOneOrEmpty();
   }
@@ -114,8 +205,11 @@ public final class UserRepository {
       Applicant left, Applicant right, Account account) {
     return supplyAsync(
         () -> {
+          Optional.ofNullable(left.getAccount()).ifPresent(this::invalidateCachedAccount);
+          Optional.ofNullable(right.getAccount()).ifPresent(this::invalidateCachedAccount);
           left.setAccount(account).save();
           right.setAccount(account).save();
+          invalidateCachedAccount(account);
           return mergeApplicants(left, right).saveAndReturn();
         },
         executionContext);
@@ -150,6 +244,7 @@ public final class UserRepository {
     if (tiGroup.isEmpty()) {
       throw new NoSuchTrustedIntermediaryGroupError();
     }
+    tiGroup.get().getTrustedIntermediaries().forEach(this::invalidateCachedAccount);
     database.delete(tiGroup.get());
   }
 
@@ -179,6 +274,7 @@ public final class UserRepository {
             });
     account.setMemberOfGroup(tiGroup.get());
     account.save();
+    invalidateCachedAccount(account);
   }
 
   public void removeTrustedIntermediaryFromGroup(long id, long accountId)
@@ -196,6 +292,7 @@ public final class UserRepository {
         && account.getMemberOfGroup().get().equals(tiGroup.get())) {
       account.setMemberOfGroup(null);
       account.save();
+      invalidateCachedAccount(account);
     } else {
       throw new NoSuchTrustedIntermediaryError();
     }
@@ -210,6 +307,85 @@ public final class UserRepository {
     return civiformProfile.getAccount().join().getMemberOfGroup();
   }
 
+  /**
+   * Returns a page of the accounts managed by the trusted intermediary group, ordered by the name of
+   * their newest applicant. If a name or date of birth query is given, only the accounts whose
+   * newest applicant's name contains the name query, ignoring case, or whose date of birth is the
+   * date of birth query are included.
+   *
+   * <p>The accounts are filtered, ordered and paged by the database, using the columns generated
+   * from the applicant's name and date of birth, see 48.sql and 51.sql. Only the accounts on the
+   * page and their applicants are loaded.
+   */
+  public PaginationResult<Account> searchManagedAccounts(
+      long tiGroupId,
+      Optional<String> nameQuery,
+      Optional<LocalDate> dateOfBirthQuery,
+      PageNumberBasedPaginationSpec paginationSpec) {
+    StringBuilder from =
+        new StringBuilder(
+            " FROM accounts LEFT JOIN LATERAL (SELECT applicant_name_search,"
+                + " applicant_date_of_birth FROM applicants"
+                + " WHERE applicants.account_id = accounts.id"
+                + " ORDER BY when_created DESC LIMIT 1) newest ON true"
+                + " WHERE accounts.managed_by_group_id = :tiGroupId");
+    List<String> matches = new ArrayList<>();
+    nameQuery.ifPresent(query -> matches.add("newest.applicant_name_search ILIKE :namePattern"));
+    dateOfBirthQuery.ifPresent(
+        query -> matches.add("newest.applicant_date_of_birth = :dateOfBirth"));
+    if (!matches.isEmpty()) {
+      from.append(" AND (").append(String.join(" OR ", matches)).append(")");
+    }
+    Consumer<SqlQuery> setParameters =
+        query -> {
+          query.setParameter("tiGroupId", tiGroupId);
+          nameQuery.ifPresent(name -> query.setParameter("namePattern", "%" + name + "%"));
+          // Dates of birth are stored as the start of the day in UTC, see ApplicantData.
+          dateOfBirthQuery.ifPresent(
+              date ->
+                  query.setParameter(
+                      "dateOfBirth", date.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        };
+
+    SqlQuery countQuery = database.sqlQuery("SELECT COUNT(*) AS count" + from);
+    setParameters.accept(countQuery);
+    int count = countQuery.findOne().getInteger("count");
+
+    // The third line of applicant_name_search is the name as "last, first", which is how the name
+    // is displayed.
+    SqlQuery pageQuery =
+        database.sqlQuery(
+            "SELECT accounts.id AS id"
+                + from
+                + " ORDER BY split_part(newest.applicant_name_search, E'\\n', 3), accounts.id"
+                + " LIMIT :limit OFFSET :offset");
+    setParameters.accept(pageQuery);
+    List<Long> ids =
+        pageQuery
+            .setParameter("limit", paginationSpec.getPageSize())
+            .setParameter("offset", paginationSpec.getCurrentPageOffset())
+            .mapToScalar(Long.class)
+            .findList();
+
+    Map<Long, Account> accountsById = new HashMap<>();
+    if (!ids.isEmpty()) {
+      database
+          .find(Account.class)
+          .fetch("applicants")
+          .where()
+          .idIn(ids)
+          .findList()
+          .forEach(account -> accountsById.put(account.id, account));
+    }
+    return new PaginationResult<Account>(
+        paginationSpec.getCurrentPageOffset() + ids.size() < count,
+        (int) Math.ceil((double) count / paginationSpec.getPageSize()),
+        ids.stream()
+            .map(accountsById::get)
+            .filter(Objects::nonNull)
+            .collect(ImmutableList.toImmutableList()));
+  }
+
   /**
    * Create an applicant and add it to the provided trusted intermediary group. Associate it with an
    * email address if one is provided, but if one is not provided, use an anonymous (guest-style)
@@ -262,6 +438,7 @@ public final class UserRepository {
           account -> {
             account.addAdministeredProgram(program);
             account.save();
+            invalidateCachedAccount(account);
           });
       return Optional.empty();
     }
@@ -280,9 +457,57 @@ public final class UserRepository {
         account -> {
           account.removeAdministeredProgram(program);
           account.save();
+          invalidateCachedAccount(account);
         });
   }
 
+  /**
+   * Removes the account from the cache of accounts used by {@link CiviFormProfile}, after its
+   * applicants or roles changed, so that its next lookup on this server gets the change.
+   */
+  private void invalidateCachedAccount(Account account) {
+    accountCache.remove(String.valueOf(account.id));
+  }
+
+  /**
+   * Deletes up to {@code limit} guest accounts that were never used to start an application, and
+   * their applicants, if all of their applicants were created before {@code createdBefore}. Guest
+   * accounts have no authority id or email address and no role, and are created for every visitor
+   * who continues as a guest, whether or not they go on to apply.
+   *
+   * @return the number of accounts deleted
+   */
+  public int deleteUnusedGuestAccounts(Instant createdBefore, int limit) {
+    // Data-modifying statements in WITH see the same snapshot, and the foreign keys of the deleted
+    // applicants are checked at the end of the statement, once both deletes are done.
+    return database
+        .sqlUpdate(
+            "WITH unused_guest_accounts AS ("
+                + " SELECT accounts.id FROM accounts"
+                + " WHERE accounts.authority_id IS NULL"
+                + " AND accounts.email_address IS NULL"
+                + " AND accounts.member_of_group_id IS NULL"
+                + " AND accounts.managed_by_group_id IS NULL"
+                + " AND accounts.global_admin IS NOT TRUE"
+                + " AND coalesce(cardinality(accounts.admin_of), 0) = 0"
+                + " AND EXISTS (SELECT 1 FROM applicants WHERE applicants.account_id = accounts.id)"
+                + " AND NOT EXISTS ("
+                + "  SELECT 1 FROM applicants WHERE applicants.account_id = accounts.id"
+                + "  AND (applicants.when_created >= :createdBefore"
+                + "   OR EXISTS (SELECT 1 FROM applications"
+                + "    WHERE applications.applicant_id = applicants.id)))"
+                + " ORDER BY accounts.id"
+                + " LIMIT :limit"
+                + " FOR UPDATE OF accounts SKIP LOCKED),"
+                + " deleted_applicants AS ("
+                + " DELETE FROM applicants"
+                + " WHERE account_id IN (SELECT id FROM unused_guest_accounts))"
+                + " DELETE FROM accounts WHERE id IN (SELECT id FROM unused_guest_accounts)")
+        .setParameter("createdBefore", createdBefore)
+        .setParameter("limit", limit)
+        .execute();
+  }
+
   public ImmutableSet<Account> getGlobalAdmins() {
     return ImmutableSet.copyOf(
         database.find(Account.class).where().eq("global_admin", true).findList());
@@ -0,0 +1,29 @@
+package repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Singleton;
+
+/**
+ * An in-process counter that is incremented whenever this server changes the questions or programs
+ * in the current ACTIVE or DRAFT {@link models.Version}.
+ *
+ * <p>The counter is part of {@link VersionRepository#getCurrentVersionsStamp()}, which caches of
+ * data derived from the current versions use as their key. Incrementing it makes edits visible to
+ * those caches immediately, even when the edit does not change any of the database values the
+ * stamp is computed from.
+ */
+@Singleton
+public final class VersionChangeCounter {
+
+  private final AtomicLong changeCount = new AtomicLong();
+
+  /** Returns the number of changes recorded by this server since it started. */
+  public long get() {
+    return changeCount.get();
+  }
+
+  /** Records that the questions or programs in the current versions have changed. */
+  public void increment() {
+    changeCount.incrementAndGet();
+  }
+}
@@ -40,11 +40,14 @@ public final class VersionRepository {
   private static final Logger logger = LoggerFactory.getLogger(VersionRepository.class);
   private final Database database;
   private final ProgramRepository programRepository;
+  private final VersionChangeCounter versionChangeCounter;
 
   @Inject
-  public VersionRepository(ProgramRepository programRepository) {
+  public VersionRepository(
+      ProgramRepository programRepository, VersionChangeCounter versionChangeCounter) {
     this.database = DB.getDefault();
     this.programRepository = checkNotNull(programRepository);
+    this.versionChangeCounter = checkNotNull(versionChangeCounter);
   }
 
   /**
@@ -149,6 +152,7 @@ public final class VersionRepository {
           active.save();
           draft.refresh();
           active.refresh();
+          versionChangeCounter.increment();
           break;
         case DRY_RUN:
           break;
@@ -220,6 +224,25 @@ public final class VersionRepository {
         .findOne();
   }
 
+  /**
+   * Returns a stamp identifying the current state of the ACTIVE and DRAFT versions. The stamp
+   * changes whenever a version is published, a question or program is added to, removed from,
+   * tombstoned in, or edited in either version, so it can be used as the key of caches holding data
+   * derived from the current versions.
+   *
+   * <p>The database part of the stamp is maintained by triggers on the version, question and
+   * program tables, so reading it is a single row lookup that does not load any question or program
+   * definitions, and it reflects changes made by other servers.
+   */
+  public String getCurrentVersionsStamp() {
+    long databaseStamp =
+        database
+            .sqlQuery("SELECT stamp FROM version_stamp WHERE id = 1")
+            .findOne()
+            .getLong("stamp");
+    return versionChangeCounter.get() + ":" + databaseStamp;
+  }
+
   /**
    * Given any revision of a question, return the most recent conceptual version of it. Will return
    * the current DRAFT version if present then the current ACTIVE version.
@@ -259,6 +282,7 @@ public final class VersionRepository {
     logger.trace("Submitting update.");
     database.update(draftProgram);
     draftProgram.refresh();
+    versionChangeCounter.increment();
   }
 
   public boolean isInactive(Question question) {
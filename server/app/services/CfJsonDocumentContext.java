@@ -3,6 +3,8 @@ package services;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.TypeRef;
@@ -14,10 +16,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import services.applicant.Currency;
 import services.applicant.JsonPathProvider;
@@ -28,9 +32,14 @@ import services.applicant.question.Scalar;
 public class CfJsonDocumentContext {
   private static final TypeRef<List<Object>> LIST_OF_OBJECTS_TYPE = new TypeRef<>() {};
   private static final TypeRef<ImmutableList<Long>> IMMUTABLE_LIST_LONG_TYPE = new TypeRef<>() {};
+  // Returned by valueAt() if there is no value at a path, as opposed to a null value.
+  private static final Object MISSING = new Object();
 
   protected boolean locked = false;
-  protected final DocumentContext jsonData;
+  protected DocumentContext jsonData;
+
+  // Whether jsonData is shared with locked copies of this instance, see shareDocument().
+  private boolean shared = false;
 
   public CfJsonDocumentContext(DocumentContext jsonData) {
     this.jsonData = checkNotNull(jsonData);
@@ -45,6 +54,22 @@ public class CfJsonDocumentContext {
   }
 
   public DocumentContext getDocumentContext() {
+    // The document may be changed directly by the caller.
+    if (!locked) {
+      unshare();
+    }
+    return jsonData;
+  }
+
+  /**
+   * Returns the document of this instance for a locked copy of it to use. This instance copies the
+   * document before it is next changed, so creating a copy takes constant time rather than
+   * serializing and parsing the whole document.
+   */
+  protected DocumentContext shareDocument() {
+    if (!locked) {
+      shared = true;
+    }
     return jsonData;
   }
 
@@ -64,12 +89,7 @@ public class CfJsonDocumentContext {
    * @return true if path is present; false otherwise
    */
   public boolean hasPath(Path path) {
-    try {
-      jsonData.read(path.toString());
-    } catch (PathNotFoundException e) {
-      return false;
-    }
-    return true;
+    return valueAt(path) != MISSING;
   }
 
   /**
@@ -247,14 +267,68 @@ public class CfJsonDocumentContext {
     }
   }
 
+  @SuppressWarnings("unchecked")
   private void putAt(Path path, Object value) {
     checkLocked();
-    jsonData.put(path.parentPath().toString(), path.keyName(), value);
+    Object parent = valueAt(path.parentPath());
+    if (parent instanceof Map && isKey(path)) {
+      ((Map<Object, Object>) parent).put(path.keyName(), value);
+    } else {
+      jsonData.put(path.parentPath().toString(), path.keyName(), value);
+    }
   }
 
+  @SuppressWarnings("unchecked")
   private void addAt(Path path, Object value) {
     checkLocked();
-    jsonData.add(path.withoutArrayReference().toString(), value);
+    Object array = valueAt(path.withoutArrayReference());
+    if (array instanceof List) {
+      ((List<Object>) array).add(value);
+    } else {
+      jsonData.add(path.withoutArrayReference().toString(), value);
+    }
+  }
+
+  /** Returns true if the last segment of the path is a plain object key, e.g. not an index. */
+  private static boolean isKey(Path path) {
+    return path.accessors()
+        .map(accessors -> !accessors.isEmpty() && Iterables.getLast(accessors) instanceof String)
+        .orElse(false);
+  }
+
+  /**
+   * Returns the value at the given path, which may be null, or {@link #MISSING} if there is no
+   * value at the path.
+   *
+   * <p>The data is walked directly using the path's precompiled {@link Path#accessors()} where
+   * possible, and only evaluated by JsonPath otherwise.
+   */
+  private Object valueAt(Path path) {
+    Optional<ImmutableList<Object>> accessors = path.accessors();
+    if (accessors.isEmpty()) {
+      try {
+        return jsonData.read(path.toString());
+      } catch (PathNotFoundException e) {
+        return MISSING;
+      }
+    }
+
+    Object value = jsonData.json();
+    for (Object accessor : accessors.get()) {
+      if (accessor instanceof String) {
+        if (!(value instanceof Map) || !((Map<?, ?>) value).containsKey(accessor)) {
+          return MISSING;
+        }
+        value = ((Map<?, ?>) value).get(accessor);
+      } else {
+        int index = (Integer) accessor;
+        if (!(value instanceof List) || index >= ((List<?>) value).size()) {
+          return MISSING;
+        }
+        value = ((List<?>) value).get(index);
+      }
+    }
+    return value;
   }
 
   /**
@@ -422,10 +496,13 @@ public class CfJsonDocumentContext {
    * @throws JsonPathTypeMismatchException if the scalar at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, Class<T> type) throws JsonPathTypeMismatchException {
-    try {
-      return Optional.ofNullable(jsonData.read(path.toString(), type));
-    } catch (PathNotFoundException e) {
+    Object value = valueAt(path);
+    if (value == MISSING) {
       return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(
+          jsonData.configuration().mappingProvider().map(value, type, jsonData.configuration()));
     } catch (MappingException e) {
       throw new JsonPathTypeMismatchException(path, type, e);
     }
@@ -441,10 +518,13 @@ public class CfJsonDocumentContext {
    * @throws JsonPathTypeMismatchException if the value at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, TypeRef<T> type) throws JsonPathTypeMismatchException {
-    try {
-      return Optional.ofNullable(jsonData.read(path.toString(), type));
-    } catch (PathNotFoundException e) {
+    Object value = valueAt(path);
+    if (value == MISSING) {
       return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(
+          jsonData.configuration().mappingProvider().map(value, type, jsonData.configuration()));
     } catch (MappingException e) {
       throw new JsonPathTypeMismatchException(path, type.getClass(), e);
     }
@@ -520,6 +600,27 @@ public class CfJsonDocumentContext {
     }
   }
 
+  /**
+   * Returns true if the object at the given path, or any element of the array at the given path,
+   * passes the filter. This is the same as evaluating the JsonPath query {@code path[?(filter)]}
+   * with {@link #evalPredicate(JsonPathPredicate)}, without formatting and parsing a query. Array
+   * elements that aren't objects are filtered as objects without any properties.
+   */
+  public boolean evalPredicate(Path path, Predicate<Map<?, ?>> filter) {
+    Object value = valueAt(path);
+    if (value instanceof Map) {
+      return filter.test((Map<?, ?>) value);
+    }
+    if (value instanceof List) {
+      for (Object element : (List<?>) value) {
+        if (filter.test(element instanceof Map ? (Map<?, ?>) element : ImmutableMap.of())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public String asJsonString() {
     return jsonData.jsonString();
   }
@@ -584,10 +685,37 @@ public class CfJsonDocumentContext {
     return pathsRemoved.build();
   }
 
+  /**
+   * Checks that this instance may be changed. Must be called before any change to the document, so
+   * that locked copies sharing it aren't changed too.
+   */
   protected void checkLocked() {
     if (locked) {
       throw new RuntimeException(
           "Cannot change " + this.getClass().getSimpleName() + " after it has been locked.");
     }
+    unshare();
+  }
+
+  private void unshare() {
+    if (shared) {
+      jsonData = JsonPathProvider.getJsonPath().parse(deepCopy(jsonData.json()));
+      shared = false;
+    }
+  }
+
+  /** Copies the maps and lists a parsed JSON document consists of. Other values are immutable. */
+  private static Object deepCopy(Object json) {
+    if (json instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      ((Map<?, ?>) json).forEach((key, value) -> copy.put(key, deepCopy(value)));
+      return copy;
+    }
+    if (json instanceof List) {
+      List<Object> copy = new ArrayList<>();
+      ((List<?>) json).forEach(item -> copy.add(deepCopy(item)));
+      return copy;
+    }
+    return json;
   }
 }
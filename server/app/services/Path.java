@@ -7,6 +7,7 @@ import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -27,6 +28,10 @@ public abstract class Path {
   private static final String JSON_PATH_START = JSON_PATH_START_TOKEN + JSON_PATH_DIVIDER;
   private static final Splitter JSON_SPLITTER = Splitter.on(JSON_PATH_DIVIDER);
   private static final Joiner JSON_JOINER = Joiner.on(JSON_PATH_DIVIDER);
+  private static final Pattern ACCESSOR_SEGMENT_REGEX =
+      Pattern.compile("([\\w-]+)(\\[(\\d{1,9})])?");
+  private static final int ACCESSOR_KEY_GROUP = 1;
+  private static final int ACCESSOR_INDEX_GROUP = 3;
 
   public static Path empty() {
     return create(ImmutableList.of());
@@ -72,6 +77,31 @@ public abstract class Path {
     return isEmpty() ? JSON_PATH_START_TOKEN : JSON_JOINER.join(segments());
   }
 
+  /**
+   * The object keys and array indices that lead from the root of the JSON data to the value at this
+   * path, e.g. ["applicant", "children", 2, "name"] for {@code applicant.children[2].name}. This
+   * lets {@link CfJsonDocumentContext} walk the data directly rather than have JsonPath parse the
+   * path on every access.
+   *
+   * <p>Empty if the path can't be expressed that way, e.g. {@code applicant.children[]}, in which
+   * case it has to be evaluated by JsonPath.
+   */
+  @Memoized
+  Optional<ImmutableList<Object>> accessors() {
+    ImmutableList.Builder<Object> accessors = ImmutableList.builder();
+    for (String segment : segments()) {
+      Matcher matcher = ACCESSOR_SEGMENT_REGEX.matcher(segment);
+      if (!matcher.matches()) {
+        return Optional.empty();
+      }
+      accessors.add(matcher.group(ACCESSOR_KEY_GROUP));
+      if (matcher.group(ACCESSOR_INDEX_GROUP) != null) {
+        accessors.add(Integer.valueOf(matcher.group(ACCESSOR_INDEX_GROUP)));
+      }
+    }
+    return Optional.of(accessors.build());
+  }
+
   /** Returns this path in JsonPath predicate format, which must start with \$. */
   @Memoized
   public String predicateFormat() {
@@ -4,6 +4,7 @@ package services;
 public final class WellKnownPaths {
   // These need to stay in sync with the correct paths for a top-level question
   // asking the applicant their name. This is seeded by the DatabaseSeedTask.
+  // The applicant_name_search columns added in evolution 48 also read these paths.
   public static Path APPLICANT_FIRST_NAME = Path.create("applicant.name.first_name");
   public static Path APPLICANT_MIDDLE_NAME = Path.create("applicant.name.middle_name");
   public static Path APPLICANT_LAST_NAME = Path.create("applicant.name.last_name");
@@ -249,19 +249,21 @@ public final class ApiKeyService {
   }
 
   // Pattern for matching and extracting form field names that specify
-  // granting read permission for a program.
+  // granting read or write permission for a program.
   // These field names have the format "grant-program-read[program-slug]"
   // Where "program-slug" is the sluggified name of the program the key should
   // be granted read access for e.g. "grant-program-read[utility-discount-program]".
-  private static final Pattern GRANT_PROGRAM_READ_PATTERN =
-      Pattern.compile("^grant-program-read\\[([\\w\\-]+)\\]$");
+  // Write access, e.g. for setting the status of applications, is granted by
+  // "grant-program-write[program-slug]".
+  private static final Pattern GRANT_PROGRAM_PERMISSION_PATTERN =
+      Pattern.compile("^grant-program-(read|write)\\[([\\w\\-]+)\\]$");
 
   private ApiKeyGrants resolveGrants(DynamicForm form) {
     ApiKeyGrants grants = new ApiKeyGrants();
     ImmutableSet<String> programSlugs = programService.getAllProgramSlugs();
 
     for (String formDataKey : form.rawData().keySet()) {
-      Matcher matcher = GRANT_PROGRAM_READ_PATTERN.matcher(formDataKey);
+      Matcher matcher = GRANT_PROGRAM_PERMISSION_PATTERN.matcher(formDataKey);
 
       if (!matcher.find()) {
         continue;
@@ -269,7 +271,7 @@ public final class ApiKeyService {
 
       matcher.matches();
 
-      String programSlug = matcher.group(1);
+      String programSlug = matcher.group(2);
 
       if (!programSlugs.contains(programSlug)) {
         // Making the root exception cause a ProgramNotFoundException will cause
@@ -278,7 +280,8 @@ public final class ApiKeyService {
         throw new RuntimeException(new ProgramNotFoundException(programSlug));
       }
 
-      grants.grantProgramPermission(programSlug, Permission.READ);
+      grants.grantProgramPermission(
+          programSlug, matcher.group(1).equals("write") ? Permission.WRITE : Permission.READ);
     }
 
     return grants;
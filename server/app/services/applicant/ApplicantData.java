@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
+import com.jayway.jsonpath.DocumentContext;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Locale;
@@ -49,11 +50,28 @@ public class ApplicantData extends CfJsonDocumentContext {
   }
 
   public ApplicantData(Optional<Locale> preferredLocale, String jsonData) {
-    super(JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData)));
+    this(preferredLocale, JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData)));
+  }
+
+  private ApplicantData(Optional<Locale> preferredLocale, DocumentContext jsonData) {
+    super(jsonData);
     this.preferredLocale = preferredLocale;
     this.failedUpdates = Optional.empty();
   }
 
+  /**
+   * Returns a locked copy of this data, with the given updates that couldn't be applied to it.
+   *
+   * <p>The copy shares its JSON document with this instance until this instance is changed, so
+   * making one takes constant time regardless of the size of the data.
+   */
+  public ApplicantData lockedCopy(ImmutableMap<Path, String> failedUpdates) {
+    ApplicantData copy = new ApplicantData(Optional.of(preferredLocale()), shareDocument());
+    copy.setFailedUpdates(failedUpdates);
+    copy.lock();
+    return copy;
+  }
+
   /** Returns true if this applicant has set their preferred locale, and false otherwise. */
   public boolean hasPreferredLocale() {
     return this.preferredLocale.isPresent();
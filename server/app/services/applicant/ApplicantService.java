@@ -8,7 +8,6 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.typesafe.config.Config;
 import java.net.URI;
@@ -16,30 +15,31 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import models.Applicant;
 import models.Application;
 import models.DisplayMode;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import models.Program;
-import models.StoredFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.libs.concurrent.HttpExecutionContext;
 import repository.ApplicationRepository;
+import repository.ApplicationSummary;
+import repository.ProgramRepository;
 import repository.StoredFileRepository;
 import repository.TimeFilter;
 import repository.UserRepository;
-import repository.VersionRepository;
 import services.Path;
 import services.applicant.ApplicantService.ApplicantProgramData;
 import services.applicant.exception.ApplicantNotFoundException;
@@ -47,7 +47,8 @@ import services.applicant.exception.ApplicationSubmissionException;
 import services.applicant.exception.ProgramBlockNotFoundException;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Scalar;
-import services.cloud.aws.SimpleEmail;
+import services.export.ExportedAnswers;
+import services.program.ActiveVersionProgramsCache;
 import services.program.PathNotInBlockException;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
@@ -69,9 +70,9 @@ public final class ApplicantService {
   private final ApplicationRepository applicationRepository;
   private final UserRepository userRepository;
   private final StoredFileRepository storedFileRepository;
-  private final VersionRepository versionRepository;
+  private final ActiveVersionProgramsCache activeVersionProgramsCache;
+  private final ProgramRepository programRepository;
   private final ProgramService programService;
-  private final SimpleEmail amazonSESClient;
   private final Clock clock;
   private final String baseUrl;
   private final boolean isStaging;
@@ -84,19 +85,19 @@ public final class ApplicantService {
   public ApplicantService(
       ApplicationRepository applicationRepository,
       UserRepository userRepository,
-      VersionRepository versionRepository,
+      ActiveVersionProgramsCache activeVersionProgramsCache,
+      ProgramRepository programRepository,
       StoredFileRepository storedFileRepository,
       ProgramService programService,
-      SimpleEmail amazonSESClient,
       Clock clock,
       Config configuration,
       HttpExecutionContext httpExecutionContext) {
     this.applicationRepository = checkNotNull(applicationRepository);
     this.userRepository = checkNotNull(userRepository);
-    this.versionRepository = checkNotNull(versionRepository);
+    this.activeVersionProgramsCache = checkNotNull(activeVersionProgramsCache);
+    this.programRepository = checkNotNull(programRepository);
     this.storedFileRepository = checkNotNull(storedFileRepository);
     this.programService = checkNotNull(programService);
-    this.amazonSESClient = checkNotNull(amazonSESClient);
     this.clock = checkNotNull(clock);
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
 
@@ -164,6 +165,12 @@ public final class ApplicantService {
         application.getApplicantData(), programDefinition, baseUrl);
   }
 
+  /** Get a {@link ReadOnlyApplicantProgramService} from applicant data and a program definition. */
+  public ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
+      ApplicantData applicantData, ProgramDefinition programDefinition) {
+    return new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition, baseUrl);
+  }
+
   /**
    * Attempt to perform a set of updates to the applicant's {@link ApplicantData}. If updates are
    * valid, they are saved to storage. If not, a set of errors are returned along with the modified
@@ -255,23 +262,18 @@ public final class ApplicantService {
                   new ReadOnlyApplicantProgramServiceImpl(
                       applicant.getApplicantData(), programDefinition, baseUrl, failedUpdates);
 
+              // The applicant's data is only saved if the block is valid, but the draft is created
+              // either way. Both reuse the applicant loaded above.
               Optional<Block> blockMaybe = roApplicantProgramService.getBlock(blockId);
-              if (blockMaybe.isPresent() && !blockMaybe.get().hasErrors()) {
-                return userRepository
-                    .updateApplicant(applicant)
-                    .thenApplyAsync(
-                        (finishedSaving) -> roApplicantProgramService,
-                        httpExecutionContext.current());
-              }
-
-              return CompletableFuture.completedFuture(roApplicantProgramService);
+              CompletionStage<Void> saved =
+                  blockMaybe.isPresent() && !blockMaybe.get().hasErrors()
+                      ? applicationRepository.updateApplicantDataAndCreateDraftIfMissing(
+                          applicant, programId)
+                      : applicationRepository.createDraftIfMissing(applicant, programId);
+              return saved.thenApplyAsync(
+                  (finishedSaving) -> roApplicantProgramService, httpExecutionContext.current());
             },
-            httpExecutionContext.current())
-        .thenCompose(
-            (v) ->
-                applicationRepository
-                    .createOrUpdateDraft(applicantId, programId)
-                    .thenApplyAsync(appDraft -> v));
+            httpExecutionContext.current());
   }
 
   /**
@@ -305,7 +307,11 @@ public final class ApplicantService {
   private CompletionStage<Application> submitApplication(
       long applicantId, long programId, Optional<String> tiSubmitterEmail) {
     return applicationRepository
-        .submitApplication(applicantId, programId, tiSubmitterEmail)
+        .submitApplication(
+            applicantId,
+            programId,
+            tiSubmitterEmail,
+            application -> getSubmissionNotifications(application, tiSubmitterEmail))
         .thenComposeAsync(
             (Optional<Application> applicationMaybe) -> {
               if (applicationMaybe.isEmpty()) {
@@ -314,56 +320,80 @@ public final class ApplicantService {
               }
 
               Application application = applicationMaybe.get();
-              String programName = application.getProgram().getProgramDefinition().adminName();
-              notifyProgramAdmins(applicantId, programId, application.id, programName);
-
-              if (tiSubmitterEmail.isPresent()) {
-                notifyTiSubmitter(tiSubmitterEmail.get(), applicantId, application.id, programName);
-              }
-
-              maybeNotifyApplicant(applicantId, application.id, programName);
-
-              return updateStoredFileAclsForSubmit(applicantId, programId)
+              return storeSubmittedAnswers(application)
                   .thenApplyAsync((ignoreVoid) -> application, httpExecutionContext.current());
             },
             httpExecutionContext.current());
   }
 
   /**
-   * When an application is submitted, we store the name of its program in the ACLs for each file in
-   * the application.
+   * Returns the emails to send about a submitted application. They are queued in the transaction
+   * that submits it, and sent in the background.
    */
-  private CompletionStage<Void> updateStoredFileAclsForSubmit(long applicantId, long programId) {
-    CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
-        programService.getActiveProgramDefinitionAsync(programId).toCompletableFuture();
-
-    CompletableFuture<List<StoredFile>> storedFilesFuture =
-        getReadOnlyApplicantProgramService(applicantId, programId)
-            .thenApplyAsync(
-                ReadOnlyApplicantProgramService::getStoredFileKeys, httpExecutionContext.current())
-            .thenComposeAsync(storedFileRepository::lookupFiles, httpExecutionContext.current())
-            .toCompletableFuture();
+  private ImmutableList<OutboxEmail> getSubmissionNotifications(
+      Application application, Optional<String> tiSubmitterEmail) {
+    long applicantId = application.getApplicant().id;
+    long programId = application.getProgram().id;
+    String programName = application.getProgram().getProgramDefinition().adminName();
+
+    ImmutableList.Builder<OutboxEmail> notifications = ImmutableList.builder();
+    getProgramAdminsNotification(applicantId, programId, application.id, programName)
+        .ifPresent(notifications::add);
+    if (tiSubmitterEmail.isPresent()) {
+      notifications.add(
+          getTiSubmitterNotification(
+              tiSubmitterEmail.get(), applicantId, application.id, programName));
+    }
+    getApplicantNotification(application, programName).ifPresent(notifications::add);
+    return notifications.build();
+  }
 
-    return CompletableFuture.allOf(programDefinitionCompletableFuture, storedFilesFuture)
+  /**
+   * When an application is submitted, we store the name of its program in the ACLs for each file in
+   * the application, with a single update for all of them. If this fails, the submission fails, as
+   * it did before the answers were stored, since program admins couldn't read the files otherwise.
+   *
+   * <p>We also store its answers in the form they are exported in. The answers of a submitted
+   * application never change, so exports can use them instead of evaluating the program for every
+   * application. This is best-effort: exports evaluate the program for applications without stored
+   * answers, so a failure is logged rather than failing the submission.
+   */
+  private CompletionStage<Void> storeSubmittedAnswers(Application application) {
+    return programService
+        .getActiveProgramDefinitionAsync(application.getProgram().id)
         .thenComposeAsync(
-            (ignoreVoid) -> {
-              List<StoredFile> storedFiles = storedFilesFuture.join();
-              ProgramDefinition programDefinition = programDefinitionCompletableFuture.join();
-              CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
-
-              for (StoredFile file : storedFiles) {
-                file.getAcls().addProgramToReaders(programDefinition);
-                future =
-                    CompletableFuture.allOf(
-                        future, storedFileRepository.update(file).toCompletableFuture());
-              }
-
-              return future;
+            programDefinition -> {
+              ReadOnlyApplicantProgramService roApplicantProgramService =
+                  getReadOnlyApplicantProgramService(application, programDefinition);
+              return storedFileRepository
+                  .addProgramToReaders(
+                      roApplicantProgramService.getStoredFileKeys(), programDefinition)
+                  .thenComposeAsync(
+                      (ignoreVoid) -> storeExportedAnswers(application, roApplicantProgramService),
+                      httpExecutionContext.current());
             },
             httpExecutionContext.current());
   }
 
-  private void notifyProgramAdmins(
+  private CompletionStage<Void> storeExportedAnswers(
+      Application application, ReadOnlyApplicantProgramService roApplicantProgramService) {
+    CompletionStage<Void> update;
+    try {
+      update =
+          applicationRepository.updateExportedAnswers(
+              application, ExportedAnswers.create(roApplicantProgramService));
+    } catch (RuntimeException e) {
+      update = CompletableFuture.failedFuture(e);
+    }
+    return update.exceptionally(
+        e -> {
+          logger.error(
+              "Failed to store the answers of submitted application {}", application.id, e);
+          return null;
+        });
+  }
+
+  private Optional<OutboxEmail> getProgramAdminsNotification(
       long applicantId, long programId, long applicationId, String programName) {
     String viewLink =
         baseUrl
@@ -375,15 +405,17 @@ public final class ApplicantService {
             "Applicant %d submitted a new application %d to program %s.\n"
                 + "View the application at %s.",
             applicantId, applicationId, programName, viewLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingProgramAdminNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(
-          programService.getNotificationEmailAddresses(programName), subject, message);
+    ImmutableList<String> toAddresses =
+        isStaging
+            ? ImmutableList.of(stagingProgramAdminNotificationMailingList)
+            : programService.getNotificationEmailAddresses(programName);
+    if (toAddresses.isEmpty()) {
+      return Optional.empty();
     }
+    return Optional.of(new OutboxEmail(toAddresses, subject, message));
   }
 
-  private void notifyTiSubmitter(
+  private OutboxEmail getTiSubmitterNotification(
       String tiEmail, long applicantId, long applicationId, String programName) {
     String tiDashLink =
         baseUrl
@@ -402,18 +434,18 @@ public final class ApplicantService {
                 + " ID is %d.\n"
                 + "Manage your clients at %s.",
             programName, applicantId, applicationId, tiDashLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingTiNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(tiEmail, subject, message);
-    }
+    return new OutboxEmail(
+        ImmutableList.of(isStaging ? stagingTiNotificationMailingList : tiEmail), subject, message);
   }
 
-  private void maybeNotifyApplicant(long applicantId, long applicationId, String programName) {
-    Optional<String> email = getEmail(applicantId).toCompletableFuture().join();
-    if (email.isEmpty()) {
-      return;
+  private Optional<OutboxEmail> getApplicantNotification(
+      Application application, String programName) {
+    String email = application.getApplicant().getAccount().getEmailAddress();
+    if (Strings.isNullOrEmpty(email)) {
+      return Optional.empty();
     }
+    long applicantId = application.getApplicant().id;
+    long applicationId = application.id;
     String civiformLink = baseUrl;
     String subject = String.format("Your application to program %s is received", programName);
     String message =
@@ -422,11 +454,11 @@ public final class ApplicantService {
                 + " application ID is %d.\n"
                 + "Log in to CiviForm at %s.",
             programName, applicantId, applicationId, civiformLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingApplicantNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(email.get(), subject, message);
-    }
+    return Optional.of(
+        new OutboxEmail(
+            ImmutableList.of(isStaging ? stagingApplicantNotificationMailingList : email),
+            subject,
+            message));
   }
 
   /** Return the name of the given applicant id. If not available, returns the email. */
@@ -503,28 +535,63 @@ public final class ApplicantService {
    * </ul>
    */
   public CompletionStage<ApplicationPrograms> relevantProgramsForApplicant(long applicantId) {
-    // Note: The Program model associated with the application is eagerly loaded.
-    CompletableFuture<ImmutableSet<Application>> applicationsFuture =
-        applicationRepository
-            .getApplicationsForApplicant(
-                applicantId, ImmutableSet.of(LifecycleStage.DRAFT, LifecycleStage.ACTIVE))
-            .toCompletableFuture();
-    ImmutableList<ProgramDefinition> activePrograms =
-        versionRepository.getActiveVersion().getPrograms().stream()
-            .map(Program::getProgramDefinition)
-            .filter(pdef -> pdef.displayMode().equals(DisplayMode.PUBLIC))
-            .collect(ImmutableList.toImmutableList());
+    CompletableFuture<ImmutableList<ApplicationSummary>> applicationsFuture =
+        applicationRepository.getLatestApplicationSummaries(applicantId).toCompletableFuture();
+    ImmutableMap<Long, ProgramDefinition> activePrograms =
+        activeVersionProgramsCache.getActivePrograms();
 
-    return applicationsFuture.thenApplyAsync(
+    return applicationsFuture.thenComposeAsync(
         applications -> {
           logDuplicateDrafts(applications);
-          return relevantProgramsForApplicant(activePrograms, applications);
+          // Drafts are shown with the program version they are for, and submitted applications
+          // with the statuses of that version, so those versions are loaded if they aren't active.
+          ImmutableSet<Long> otherProgramIds =
+              applications.stream()
+                  .filter(
+                      application ->
+                          application.lifecycleStage().equals(LifecycleStage.DRAFT)
+                              || application.latestStatus().isPresent())
+                  .map(ApplicationSummary::programId)
+                  .filter(programId -> !activePrograms.containsKey(programId))
+                  .collect(ImmutableSet.toImmutableSet());
+          CompletionStage<ImmutableMap<Long, ProgramDefinition>> otherProgramsFuture =
+              otherProgramIds.isEmpty()
+                  ? CompletableFuture.completedStage(ImmutableMap.of())
+                  : programRepository
+                      .lookupPrograms(otherProgramIds)
+                      .thenApply(
+                          programs ->
+                              programs.stream()
+                                  .map(Program::getProgramDefinition)
+                                  .collect(
+                                      ImmutableMap.toImmutableMap(
+                                          ProgramDefinition::id, pdef -> pdef)));
+          return otherProgramsFuture.thenApply(
+              otherPrograms ->
+                  relevantProgramsForApplicant(
+                      activePrograms,
+                      programId ->
+                          activePrograms.containsKey(programId)
+                              ? activePrograms.get(programId)
+                              : otherPrograms.get(programId),
+                      applications));
         },
         httpExecutionContext.current());
   }
 
+  /**
+   * Sorts the programs into those the applicant has a draft for, has applied to, and hasn't applied
+   * to.
+   *
+   * @param activePrograms the programs in the active version, by id
+   * @param programsById returns the program an application is for, given its id; only called for
+   *     drafts and for submitted applications with a status
+   * @param applications the latest draft and submitted application to each program
+   */
   private ApplicationPrograms relevantProgramsForApplicant(
-      ImmutableList<ProgramDefinition> activePrograms, ImmutableSet<Application> applications) {
+      ImmutableMap<Long, ProgramDefinition> activePrograms,
+      Function<Long, ProgramDefinition> programsById,
+      ImmutableList<ApplicationSummary> applications) {
     // Use ImmutableMap.copyOf rather than the collector to guard against cases where the
     // provided active programs contains duplicate entries with the same adminName. In this
     // case, the ImmutableMap collector would throw since ImmutableMap builders don't allow
@@ -532,32 +599,20 @@ public final class ApplicantService {
     // use the last provided key.
     ImmutableMap<String, ProgramDefinition> activeProgramNames =
         ImmutableMap.copyOf(
-            activePrograms.stream()
+            activePrograms.values().stream()
+                .filter(pdef -> pdef.displayMode().equals(DisplayMode.PUBLIC))
                 .collect(Collectors.toMap(ProgramDefinition::adminName, pdef -> pdef)));
 
     // When new revisions of Programs are created, they have distinct IDs but retain the
-    // same adminName. In order to find the most recent draft / active application,
-    // we first group by the unique program name rather than the ID.
-    Map<String, Map<LifecycleStage, Optional<Application>>> mostRecentApplicationsByProgram =
-        applications.stream()
-            .collect(
-                Collectors.groupingBy(
-                    a -> {
-                      return a.getProgram().getProgramDefinition().adminName();
-                    },
-                    Collectors.groupingBy(
-                        Application::getLifecycleStage,
-                        // In practice, we don't expect an applicant to have multiple
-                        // DRAFT or ACTIVE applications for a given program. Grabbing the latest
-                        // application here guards against that case, should it occur.
-                        Collectors.maxBy(
-                            Comparator.<Application, Instant>comparing(
-                                    a -> {
-                                      return a.getSubmitTime() != null
-                                          ? a.getSubmitTime()
-                                          : Instant.ofEpochMilli(0);
-                                    })
-                                .thenComparing(Application::getCreateTime)))));
+    // same adminName. The applications are the most recent draft / active application for each
+    // unique program name rather than the ID.
+    Map<String, Map<LifecycleStage, ApplicationSummary>> mostRecentApplicationsByProgram =
+        new HashMap<>();
+    for (ApplicationSummary application : applications) {
+      mostRecentApplicationsByProgram
+          .computeIfAbsent(application.programName(), programName -> new HashMap<>())
+          .put(application.lifecycleStage(), application);
+    }
 
     ImmutableList.Builder<ApplicantProgramData> inProgressPrograms = ImmutableList.builder();
     ImmutableList.Builder<ApplicantProgramData> submittedPrograms = ImmutableList.builder();
@@ -566,16 +621,16 @@ public final class ApplicantService {
     Set<String> programNamesWithApplications = Sets.newHashSet();
     mostRecentApplicationsByProgram.forEach(
         (programName, appByStage) -> {
-          Optional<Application> maybeDraftApp =
-              appByStage.getOrDefault(LifecycleStage.DRAFT, Optional.empty());
-          Optional<Application> maybeSubmittedApp =
-              appByStage.getOrDefault(LifecycleStage.ACTIVE, Optional.empty());
+          Optional<ApplicationSummary> maybeDraftApp =
+              Optional.ofNullable(appByStage.get(LifecycleStage.DRAFT));
+          Optional<ApplicationSummary> maybeSubmittedApp =
+              Optional.ofNullable(appByStage.get(LifecycleStage.ACTIVE));
           Optional<Instant> latestSubmittedApplicationTime =
-              maybeSubmittedApp.map(Application::getSubmitTime);
+              maybeSubmittedApp.flatMap(ApplicationSummary::submitTime);
           if (maybeDraftApp.isPresent()) {
             inProgressPrograms.add(
                 ApplicantProgramData.builder()
-                    .setProgram(maybeDraftApp.get().getProgram().getProgramDefinition())
+                    .setProgram(programsById.apply(maybeDraftApp.get().programId()))
                     .setLatestSubmittedApplicationTime(latestSubmittedApplicationTime)
                     .build());
             programNamesWithApplications.add(programName);
@@ -583,12 +638,14 @@ public final class ApplicantService {
             // When extracting the application status, the definitions associated with the program
             // version at the time of submission are used. However, when clicking "reapply", we use
             // the latest program version below.
-            ProgramDefinition applicationProgramVersion =
-                maybeSubmittedApp.get().getProgram().getProgramDefinition();
-            Optional<String> maybeLatestStatus = maybeSubmittedApp.get().getLatestStatus();
+            Optional<String> maybeLatestStatus = maybeSubmittedApp.get().latestStatus();
             Optional<StatusDefinitions.Status> maybeCurrentStatus =
                 maybeLatestStatus.isPresent()
-                    ? applicationProgramVersion.statusDefinitions().getStatuses().stream()
+                    ? programsById
+                        .apply(maybeSubmittedApp.get().programId())
+                        .statusDefinitions()
+                        .getStatuses()
+                        .stream()
                         .filter(
                             programStatus ->
                                 programStatus.statusText().equals(maybeLatestStatus.get()))
@@ -634,33 +691,15 @@ public final class ApplicantService {
    * programs for which they had draft applications. We can remove this logging once we determine
    * and resolve the root cause of the duplicate draft applications.
    */
-  private void logDuplicateDrafts(ImmutableSet<Application> applications) {
-    Collection<Map<LifecycleStage, List<Application>>> groupedByStatus =
-        applications.stream()
-            .collect(
-                Collectors.groupingBy(
-                    a -> {
-                      return a.getProgram().getProgramDefinition().adminName();
-                    },
-                    Collectors.groupingBy(Application::getLifecycleStage)))
-            .values();
-    for (Map<LifecycleStage, List<Application>> programAppsMap : groupedByStatus) {
-      List<Application> draftApplications =
-          programAppsMap.getOrDefault(LifecycleStage.DRAFT, Lists.newArrayList());
-      if (draftApplications.size() > 1) {
-        String joinedProgramIds =
-            String.join(
-                ", ",
-                draftApplications.stream()
-                    .map(a -> String.format("%d", a.getProgram().getProgramDefinition().id()))
-                    .collect(ImmutableList.toImmutableList()));
+  private void logDuplicateDrafts(ImmutableList<ApplicationSummary> applications) {
+    for (ApplicationSummary application : applications) {
+      if (application.lifecycleStage().equals(LifecycleStage.DRAFT)
+          && application.applicationsWithStageCount() > 1) {
         logger.debug(
             String.format(
                 "DEBUG LOG ID: 98afa07855eb8e69338b5af13236a6b7. Program"
-                    + " Admin Name: %1$s, Duplicate Program Definition"
-                    + " ids: %2$s.",
-                draftApplications.get(0).getProgram().getProgramDefinition().adminName(),
-                joinedProgramIds));
+                    + " Admin Name: %1$s, Duplicate draft applications: %2$d.",
+                application.programName(), application.applicationsWithStageCount()));
       }
     }
   }
@@ -0,0 +1,82 @@
+package services.applicant;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+import services.program.BlockDefinition;
+import services.program.ProgramDefinition;
+
+/**
+ * The part of a program's {@link Block}s that is the same for every applicant: the order of its
+ * block definitions, and for each enumerator block definition, the repeated block definitions that
+ * are shown for each of its repeated entities.
+ *
+ * <p>It is compiled once per program definition (see {@link ProgramDefinition#compiledBlocks()}),
+ * and {@link ReadOnlyApplicantProgramServiceImpl} builds each applicant's blocks from it by adding
+ * their repeated entities and answers.
+ */
+public final class CompiledBlockGraph {
+
+  private final ImmutableList<Node> nodes;
+
+  public CompiledBlockGraph(ProgramDefinition programDefinition) {
+    ImmutableListMultimap<Long, BlockDefinition> repeatedBlockDefinitions =
+        Multimaps.index(
+            programDefinition.blockDefinitions().stream()
+                .filter(BlockDefinition::isRepeated)
+                .iterator(),
+            blockDefinition -> blockDefinition.enumeratorId().get());
+    this.nodes =
+        compile(programDefinition.getNonRepeatedBlockDefinitions(), repeatedBlockDefinitions);
+  }
+
+  private static ImmutableList<Node> compile(
+      ImmutableList<BlockDefinition> blockDefinitions,
+      ImmutableListMultimap<Long, BlockDefinition> repeatedBlockDefinitions) {
+    return blockDefinitions.stream()
+        .map(
+            blockDefinition ->
+                new Node(
+                    blockDefinition,
+                    blockDefinition.isEnumerator()
+                        ? compile(
+                            repeatedBlockDefinitions.get(blockDefinition.id()),
+                            repeatedBlockDefinitions)
+                        : ImmutableList.of()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** The non-repeated block definitions of the program, in order. */
+  ImmutableList<Node> nodes() {
+    return nodes;
+  }
+
+  /** A block definition and, if it is an enumerator, the block definitions it repeats. */
+  static final class Node {
+    private final BlockDefinition blockDefinition;
+    private final String blockId;
+    private final ImmutableList<Node> repeatedNodes;
+
+    private Node(BlockDefinition blockDefinition, ImmutableList<Node> repeatedNodes) {
+      this.blockDefinition = checkNotNull(blockDefinition);
+      this.blockId = String.valueOf(blockDefinition.id());
+      this.repeatedNodes = checkNotNull(repeatedNodes);
+    }
+
+    BlockDefinition blockDefinition() {
+      return blockDefinition;
+    }
+
+    /** The id of the block outside of any repeated entity, i.e. the block definition's id. */
+    String blockId() {
+      return blockId;
+    }
+
+    /** The block definitions shown for each repeated entity of this enumerator, in order. */
+    ImmutableList<Node> repeatedNodes() {
+      return repeatedNodes;
+    }
+  }
+}
@@ -70,6 +70,12 @@ public interface ReadOnlyApplicantProgramService {
   /** Returns summary data for each question in this application. */
   ImmutableList<AnswerData> getSummaryData();
 
+  /**
+   * Returns summary data for each question in every block of this program, including blocks that
+   * are hidden from the applicant by a show/hide predicate.
+   */
+  ImmutableList<AnswerData> getSummaryDataOfAllBlocks();
+
   /** Get the string identifiers for all stored files for this application. */
   ImmutableList<String> getStoredFileKeys();
 
@@ -1,7 +1,6 @@
 package services.applicant;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -13,8 +12,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import services.LocalizedStrings;
 import services.Path;
-import services.applicant.predicate.JsonPathPredicateGenerator;
-import services.applicant.predicate.PredicateEvaluator;
+import services.applicant.predicate.CompiledPredicate;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.CurrencyQuestion;
 import services.applicant.question.DateQuestion;
@@ -32,14 +30,15 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
 
   /**
    * Note that even though {@link ApplicantData} is mutable, we can consider it immutable at this
-   * point since there is no shared state between requests. In fact, we call {@link
-   * ApplicantData#lock()} in the constructor so no changes can occur. This means that we can
+   * point since there is no shared state between requests. In fact, we take a {@link
+   * ApplicantData#lockedCopy} in the constructor so no changes can occur. This means that we can
    * memoize attributes based on ApplicantData without concern that the data will change.
    */
   private final ApplicantData applicantData;
 
   private final ProgramDefinition programDefinition;
   private final String baseUrl;
+  private ImmutableList<Block> blockList;
   private ImmutableList<Block> allBlockList;
   private ImmutableList<Block> currentBlockList;
 
@@ -53,10 +52,7 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
       ProgramDefinition programDefinition,
       String baseUrl,
       ImmutableMap<Path, String> failedUpdates) {
-    this.applicantData = new ApplicantData(checkNotNull(applicantData).asJsonString());
-    this.applicantData.setPreferredLocale(applicantData.preferredLocale());
-    this.applicantData.setFailedUpdates(failedUpdates);
-    this.applicantData.lock();
+    this.applicantData = checkNotNull(applicantData).lockedCopy(failedUpdates);
     this.programDefinition = checkNotNull(programDefinition);
     this.baseUrl = checkNotNull(baseUrl);
   }
@@ -168,9 +164,17 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
 
   @Override
   public ImmutableList<AnswerData> getSummaryData() {
+    return getSummaryData(getAllActiveBlocks());
+  }
+
+  @Override
+  public ImmutableList<AnswerData> getSummaryDataOfAllBlocks() {
+    return getSummaryData(getBlocks());
+  }
+
+  private ImmutableList<AnswerData> getSummaryData(ImmutableList<Block> blocks) {
     // TODO: We need to be able to use this on the admin side with admin-specific l10n.
     ImmutableList.Builder<AnswerData> builder = new ImmutableList.Builder<>();
-    ImmutableList<Block> blocks = getAllActiveBlocks();
     for (Block block : blocks) {
       ImmutableList<ApplicantQuestion> questions = block.getQuestions();
       for (int questionIndex = 0; questionIndex < questions.size(); questionIndex++) {
@@ -222,41 +226,47 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
   }
 
   /**
-   * Gets {@link Block}s for this program and applicant. If {@code onlyIncludeInProgressBlocks} is
-   * true, then only the current blocks will be included in the list. A block is "in progress" if it
-   * has yet to be filled out by the applicant, or if it was filled out in the context of this
-   * program.
+   * Gets {@link Block}s for this program and applicant that satisfy {@code includeBlockIfTrue}.
+   * Blocks that are filtered out still have their repeated blocks included if those satisfy it.
    */
   private ImmutableList<Block> getBlocks(Predicate<Block> includeBlockIfTrue) {
-    String emptyBlockIdSuffix = "";
-    return getBlocks(
-        programDefinition.getNonRepeatedBlockDefinitions(),
-        emptyBlockIdSuffix,
-        Optional.empty(),
-        includeBlockIfTrue);
+    return getBlocks().stream()
+        .filter(includeBlockIfTrue)
+        .collect(ImmutableList.toImmutableList());
   }
 
   /**
-   * Recursive helper method for {@link ReadOnlyApplicantProgramServiceImpl#getBlocks(Predicate)}.
+   * Gets all {@link Block}s for this program and applicant, in order. They are built once from the
+   * program's {@link CompiledBlockGraph} and shared by the filtered lists of blocks.
    */
-  private ImmutableList<Block> getBlocks(
-      ImmutableList<BlockDefinition> blockDefinitions,
-      String blockIdSuffix,
-      Optional<RepeatedEntity> maybeRepeatedEntity,
-      Predicate<Block> includeBlockIfTrue) {
-    ImmutableList.Builder<Block> blockListBuilder = ImmutableList.builder();
+  private ImmutableList<Block> getBlocks() {
+    if (blockList == null) {
+      ImmutableList.Builder<Block> blockListBuilder = ImmutableList.builder();
+      addBlocks(
+          blockListBuilder,
+          programDefinition.compiledBlocks().nodes(),
+          /* blockIdSuffix= */ "",
+          Optional.empty());
+      blockList = blockListBuilder.build();
+    }
+    return blockList;
+  }
 
-    for (BlockDefinition blockDefinition : blockDefinitions) {
-      // Create and maybe include the block for this block definition.
+  /** Recursive helper method for {@link ReadOnlyApplicantProgramServiceImpl#getBlocks()}. */
+  private void addBlocks(
+      ImmutableList.Builder<Block> blockListBuilder,
+      ImmutableList<CompiledBlockGraph.Node> nodes,
+      String blockIdSuffix,
+      Optional<RepeatedEntity> maybeRepeatedEntity) {
+    for (CompiledBlockGraph.Node node : nodes) {
+      BlockDefinition blockDefinition = node.blockDefinition();
       Block block =
           new Block(
-              blockDefinition.id() + blockIdSuffix,
+              blockIdSuffix.isEmpty() ? node.blockId() : node.blockId() + blockIdSuffix,
               blockDefinition,
               applicantData,
               maybeRepeatedEntity);
-      if (includeBlockIfTrue.test(block)) {
-        blockListBuilder.add(block);
-      }
+      blockListBuilder.add(block);
 
       // For an enumeration block definition, build blocks for its repeated questions
       if (blockDefinition.isEnumerator()) {
@@ -278,21 +288,15 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
                         applicantData));
         // For each repeated entity, recursively build blocks for all of the repeated blocks of this
         // enumerator block.
-        ImmutableList<BlockDefinition> repeatedBlockDefinitions =
-            programDefinition.getBlockDefinitionsForEnumerator(blockDefinition.id());
         for (int i = 0; i < repeatedEntities.size(); i++) {
-          String nextBlockIdSuffix = String.format("%s-%d", blockIdSuffix, i);
-          blockListBuilder.addAll(
-              getBlocks(
-                  repeatedBlockDefinitions,
-                  nextBlockIdSuffix,
-                  Optional.of(repeatedEntities.get(i)),
-                  includeBlockIfTrue));
+          addBlocks(
+              blockListBuilder,
+              node.repeatedNodes(),
+              blockIdSuffix + "-" + i,
+              Optional.of(repeatedEntities.get(i)));
         }
       }
     }
-
-    return blockListBuilder.build();
   }
 
   private boolean showBlock(Block block) {
@@ -314,18 +318,16 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
   }
 
   private boolean evaluateVisibility(Block block, PredicateDefinition predicate) {
-    JsonPathPredicateGenerator predicateGenerator =
-        new JsonPathPredicateGenerator(
-            this.programDefinition.streamQuestionDefinitions().collect(toImmutableList()),
-            block.getRepeatedEntity());
-    PredicateEvaluator predicateEvaluator =
-        new PredicateEvaluator(this.applicantData, predicateGenerator);
+    CompiledPredicate compiledPredicate =
+        programDefinition
+            .compiledPredicates()
+            .get(predicate.rootNode(), block.getRepeatedEntity());
 
     switch (predicate.action()) {
       case HIDE_BLOCK:
-        return !predicateEvaluator.evaluate(predicate.rootNode());
+        return !compiledPredicate.evaluate(applicantData);
       case SHOW_BLOCK:
-        return predicateEvaluator.evaluate(predicate.rootNode());
+        return compiledPredicate.evaluate(applicantData);
       default:
         return true;
     }
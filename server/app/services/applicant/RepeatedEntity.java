@@ -1,6 +1,7 @@
 package services.applicant;
 
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.Optional;
@@ -100,6 +101,7 @@ public abstract class RepeatedEntity {
   /** Member functions. */
 
   /** The contextualized path to the root of this repeated entity. */
+  @Memoized
   public Path contextualizedPath() {
     Path parentPath =
         parent().map(RepeatedEntity::contextualizedPath).orElse(ApplicantData.APPLICANT_PATH);
@@ -0,0 +1,270 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.exception.InvalidPredicateException;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateExpressionNode;
+
+/**
+ * A {@link PredicateExpressionNode} compiled for the repeated context of a {@link
+ * JsonPathPredicateGenerator}, so that it can be evaluated against many {@link ApplicantData}s.
+ *
+ * <p>Each leaf node is resolved to the path of its question and its compared value is parsed once.
+ * Evaluating a leaf then reads the scalar directly from the applicant's data, with the same
+ * semantics as the JsonPath filter {@link JsonPathPredicateGenerator#fromLeafNode} formats for it.
+ * Leaf nodes whose compared value can't be evaluated directly fall back to that JsonPath filter.
+ */
+public final class CompiledPredicate {
+
+  private static final ObjectMapper mapper =
+      new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+  private final Predicate<ApplicantData> predicate;
+
+  private CompiledPredicate(Predicate<ApplicantData> predicate) {
+    this.predicate = predicate;
+  }
+
+  /** Compiles the expression tree rooted at {@code node} for the generator's repeated context. */
+  public static CompiledPredicate compile(
+      PredicateExpressionNode node, JsonPathPredicateGenerator generator) {
+    return new CompiledPredicate(compileNode(node, generator));
+  }
+
+  /**
+   * Returns true if and only if the entire expression tree evaluates to true based on the given
+   * {@link ApplicantData}.
+   */
+  public boolean evaluate(ApplicantData applicantData) {
+    return predicate.test(applicantData);
+  }
+
+  private static Predicate<ApplicantData> compileNode(
+      PredicateExpressionNode node, JsonPathPredicateGenerator generator) {
+    switch (node.getType()) {
+      case LEAF_OPERATION:
+        return compileLeafNode(node.getLeafNode(), generator);
+      case AND:
+        ImmutableList<Predicate<ApplicantData>> allOf =
+            node.getAndNode().children().stream()
+                .map(child -> compileNode(child, generator))
+                .collect(toImmutableList());
+        return applicantData -> allOf.stream().allMatch(child -> child.test(applicantData));
+      case OR:
+        ImmutableList<Predicate<ApplicantData>> anyOf =
+            node.getOrNode().children().stream()
+                .map(child -> compileNode(child, generator))
+                .collect(toImmutableList());
+        return applicantData -> anyOf.stream().anyMatch(child -> child.test(applicantData));
+      default:
+        return applicantData -> false;
+    }
+  }
+
+  /**
+   * A leaf node is true if and only if there exists a value in {@link ApplicantData} that
+   * satisfies its operation. It is false if the predicate is invalid.
+   */
+  private static Predicate<ApplicantData> compileLeafNode(
+      LeafOperationExpressionNode node, JsonPathPredicateGenerator generator) {
+    try {
+      Path path = generator.getTargetPath(node);
+      Optional<Predicate<Map<?, ?>>> filter = compileFilter(node);
+      if (filter.isPresent()) {
+        return applicantData -> applicantData.evalPredicate(path, filter.get());
+      }
+      JsonPathPredicate jsonPathPredicate = generator.fromLeafNode(node);
+      return applicantData -> applicantData.evalPredicate(jsonPathPredicate);
+    } catch (InvalidPredicateException e) {
+      return applicantData -> false;
+    }
+  }
+
+  /**
+   * Compiles the filter {@code [?(@.scalar operator value)]} of a leaf node, or returns empty if
+   * the compared value isn't one the operator can be applied to directly.
+   */
+  private static Optional<Predicate<Map<?, ?>>> compileFilter(LeafOperationExpressionNode node) {
+    Optional<Object> parsedValue = parseComparedValue(node.comparedValue().value());
+    if (parsedValue.isEmpty()) {
+      return Optional.empty();
+    }
+    Object value = parsedValue.get();
+    Optional<List<?>> values =
+        value instanceof List ? Optional.of((List<?>) value) : Optional.empty();
+
+    Operator operator = node.operator();
+    // Applied to the scalar's value if the object has the scalar, which may be null.
+    Predicate<Object> test;
+    // Whether an object without the scalar passes the filter.
+    boolean testIfMissing = false;
+    switch (operator) {
+      case EQUAL_TO:
+        test = scalar -> jsonPathEquals(scalar, value);
+        break;
+      case NOT_EQUAL_TO:
+        test = scalar -> !jsonPathEquals(scalar, value);
+        testIfMissing = true;
+        break;
+      case GREATER_THAN:
+        test = scalar -> compare(scalar, value).map(result -> result > 0).orElse(false);
+        break;
+      case GREATER_THAN_OR_EQUAL_TO:
+      case IS_AFTER:
+        test = scalar -> compare(scalar, value).map(result -> result >= 0).orElse(false);
+        break;
+      case LESS_THAN:
+        test = scalar -> compare(scalar, value).map(result -> result < 0).orElse(false);
+        break;
+      case LESS_THAN_OR_EQUAL_TO:
+      case IS_BEFORE:
+        test = scalar -> compare(scalar, value).map(result -> result <= 0).orElse(false);
+        break;
+      case IN:
+        if (values.isEmpty()) {
+          return Optional.empty();
+        }
+        test = scalar -> contains(values.get(), scalar);
+        break;
+      case NOT_IN:
+        if (values.isEmpty()) {
+          return Optional.empty();
+        }
+        test = scalar -> !contains(values.get(), scalar);
+        testIfMissing = true;
+        break;
+      case ANY_OF:
+        if (values.isEmpty()) {
+          return Optional.empty();
+        }
+        test =
+            scalar ->
+                scalar instanceof List
+                    && ((List<?>) scalar).stream().anyMatch(s -> contains(values.get(), s));
+        break;
+      case NONE_OF:
+        if (values.isEmpty()) {
+          return Optional.empty();
+        }
+        test =
+            scalar ->
+                scalar instanceof List
+                    && ((List<?>) scalar).stream().noneMatch(s -> contains(values.get(), s));
+        break;
+      case SUBSET_OF:
+        if (values.isEmpty()) {
+          return Optional.empty();
+        }
+        test =
+            scalar ->
+                scalar instanceof List
+                    && ((List<?>) scalar).stream().allMatch(s -> contains(values.get(), s));
+        break;
+      default:
+        return Optional.empty();
+    }
+
+    String key = node.scalar().name().toLowerCase();
+    boolean passesIfMissing = testIfMissing;
+    return Optional.of(
+        object -> object.containsKey(key) ? test.test(object.get(key)) : passesIfMissing);
+  }
+
+  /**
+   * Parses a compared value formatted for JsonPath, e.g. {@code "text"}, {@code 5} or {@code [1,
+   * 2]}. Numbers are parsed as {@link BigDecimal}s. Returns empty if the value isn't valid JSON.
+   */
+  private static Optional<Object> parseComparedValue(String value) {
+    try {
+      return Optional.ofNullable(toBigDecimals(mapper.readValue(value, Object.class)));
+    } catch (JsonProcessingException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Nullable
+  private static Object toBigDecimals(@Nullable Object value) {
+    if (value instanceof Number) {
+      return new BigDecimal(value.toString());
+    }
+    if (value instanceof List) {
+      List<Object> values = new ArrayList<>();
+      for (Object element : (List<?>) value) {
+        values.add(toBigDecimals(element));
+      }
+      return Collections.unmodifiableList(values);
+    }
+    return value;
+  }
+
+  /**
+   * Whether a value from the applicant's data equals a compared value, which JsonPath considers
+   * true for a number and a string if they represent the same number.
+   */
+  private static boolean jsonPathEquals(@Nullable Object scalar, @Nullable Object value) {
+    if (scalar == null || value == null) {
+      return scalar == value;
+    }
+    if (scalar instanceof Number) {
+      Optional<BigDecimal> number = asNumber(value);
+      return number.isPresent() && toBigDecimal((Number) scalar).compareTo(number.get()) == 0;
+    }
+    if (scalar instanceof String) {
+      return (value instanceof String || value instanceof BigDecimal)
+          && scalar.equals(value.toString());
+    }
+    return scalar instanceof Boolean && scalar.equals(value);
+  }
+
+  private static boolean contains(List<?> values, @Nullable Object scalar) {
+    return values.stream().anyMatch(value -> jsonPathEquals(scalar, value));
+  }
+
+  /**
+   * Compares a value from the applicant's data to a compared value if both are numbers or both are
+   * strings, and returns empty otherwise.
+   */
+  private static Optional<Integer> compare(@Nullable Object scalar, Object value) {
+    if (scalar instanceof Number && value instanceof BigDecimal) {
+      return Optional.of(toBigDecimal((Number) scalar).compareTo((BigDecimal) value));
+    }
+    if (scalar instanceof String && value instanceof String) {
+      return Optional.of(((String) scalar).compareTo((String) value));
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<BigDecimal> asNumber(Object value) {
+    if (value instanceof BigDecimal) {
+      return Optional.of((BigDecimal) value);
+    }
+    if (value instanceof String) {
+      try {
+        return Optional.of(new BigDecimal((String) value));
+      } catch (NumberFormatException e) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static BigDecimal toBigDecimal(Number number) {
+    return number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString());
+  }
+}
@@ -0,0 +1,41 @@
+package services.applicant.predicate;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import services.Path;
+import services.applicant.RepeatedEntity;
+import services.program.predicate.PredicateExpressionNode;
+import services.question.types.QuestionDefinition;
+
+/**
+ * Compiles the predicates of a program on first use and keeps them for evaluating them again.
+ *
+ * <p>A predicate is compiled separately for each repeated context it is evaluated in, since the
+ * paths of repeated questions include the indices of their repeated entities. Repeated contexts
+ * are identified by {@link RepeatedEntity#contextualizedPath()}.
+ */
+public final class CompiledPredicateCache {
+
+  private final ImmutableList<QuestionDefinition> programQuestions;
+  private final ConcurrentHashMap<
+          PredicateExpressionNode, ConcurrentHashMap<Path, CompiledPredicate>>
+      compiledPredicates = new ConcurrentHashMap<>();
+
+  public CompiledPredicateCache(ImmutableList<QuestionDefinition> programQuestions) {
+    this.programQuestions = programQuestions;
+  }
+
+  /** Returns the expression tree rooted at {@code node} compiled for the repeated context. */
+  public CompiledPredicate get(
+      PredicateExpressionNode node, Optional<RepeatedEntity> repeatedContext) {
+    Path contextPath = repeatedContext.map(RepeatedEntity::contextualizedPath).orElse(Path.empty());
+    return compiledPredicates
+        .computeIfAbsent(node, unused -> new ConcurrentHashMap<>())
+        .computeIfAbsent(
+            contextPath,
+            unused ->
+                CompiledPredicate.compile(
+                    node, new JsonPathPredicateGenerator(programQuestions, repeatedContext)));
+  }
+}
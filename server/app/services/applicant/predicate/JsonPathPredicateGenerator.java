@@ -41,6 +41,22 @@ public final class JsonPathPredicateGenerator {
    */
   public JsonPathPredicate fromLeafNode(LeafOperationExpressionNode node)
       throws InvalidPredicateException {
+    Path path = getTargetPath(node);
+    return JsonPathPredicate.create(
+        String.format(
+            "%s[?(@.%s %s %s)]",
+            path.predicateFormat(),
+            node.scalar().name().toLowerCase(),
+            node.operator().toJsonPathOperator(),
+            node.comparedValue().value()));
+  }
+
+  /**
+   * Returns the path of the question the {@link LeafOperationExpressionNode} applies to, in the
+   * repeated context of the current block. The node's scalar is a property of the value at this
+   * path, or of each element if the value is an array.
+   */
+  Path getTargetPath(LeafOperationExpressionNode node) throws InvalidPredicateException {
     if (!questionsById.containsKey(node.questionId())) {
       // This means a predicate was incorrectly configured - we are depending upon a question that
       // does not appear anywhere in this program.
@@ -69,13 +85,7 @@ public final class JsonPathPredicateGenerator {
       path = path.withoutArrayReference();
     }
 
-    return JsonPathPredicate.create(
-        String.format(
-            "%s[?(@.%s %s %s)]",
-            path.predicateFormat(),
-            node.scalar().name().toLowerCase(),
-            node.operator().toJsonPathOperator(),
-            node.comparedValue().value()));
+    return path;
   }
 
   private Optional<RepeatedEntity> getTargetContext(QuestionDefinition targetQuestion)
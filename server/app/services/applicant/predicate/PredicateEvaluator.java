@@ -1,13 +1,14 @@
 package services.applicant.predicate;
 
 import services.applicant.ApplicantData;
-import services.applicant.exception.InvalidPredicateException;
-import services.program.predicate.AndNode;
-import services.program.predicate.LeafOperationExpressionNode;
-import services.program.predicate.OrNode;
 import services.program.predicate.PredicateExpressionNode;
 
-/** Evaluates complex predicates based on the given {@link ApplicantData}. */
+/**
+ * Evaluates complex predicates based on the given {@link ApplicantData}.
+ *
+ * <p>Each call compiles the predicate again. Use a {@link CompiledPredicateCache} to evaluate the
+ * same predicate for many applicants.
+ */
 public final class PredicateEvaluator {
 
   private final ApplicantData applicantData;
@@ -25,39 +26,6 @@ public final class PredicateEvaluator {
    * to create this evaluator.
    */
   public boolean evaluate(PredicateExpressionNode node) {
-    switch (node.getType()) {
-      case LEAF_OPERATION:
-        return evaluateLeafNode(node.getLeafNode());
-      case AND:
-        return evaluateAndNode(node.getAndNode());
-      case OR:
-        return evaluateOrNode(node.getOrNode());
-      default:
-        return false;
-    }
-  }
-
-  /**
-   * Returns true if and only if there exists a value in {@link ApplicantData} that satisfies the
-   * given leaf node operation. Returns false if the predicate is invalid or the predicate evaluates
-   * to false.
-   */
-  private boolean evaluateLeafNode(LeafOperationExpressionNode node) {
-    try {
-      JsonPathPredicate predicate = predicateGenerator.fromLeafNode(node);
-      return applicantData.evalPredicate(predicate);
-    } catch (InvalidPredicateException e) {
-      return false;
-    }
-  }
-
-  /** Returns true if and only if each of the node's children evaluates to true. */
-  private boolean evaluateAndNode(AndNode node) {
-    return node.children().stream().allMatch(this::evaluate);
-  }
-
-  /** Returns true if and only if one or more of the node's children evaluates to true. */
-  private boolean evaluateOrNode(OrNode node) {
-    return node.children().stream().anyMatch(this::evaluate);
+    return CompiledPredicate.compile(node, predicateGenerator).evaluate(applicantData);
   }
 }
@@ -3,6 +3,9 @@ package services.applications;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.typesafe.config.Config;
 import java.net.URI;
@@ -12,6 +15,7 @@ import models.Account;
 import models.Applicant;
 import models.Application;
 import models.ApplicationEvent;
+import models.OutboxEmail;
 import models.Program;
 import repository.ApplicationEventRepository;
 import repository.ApplicationRepository;
@@ -19,7 +23,6 @@ import services.applicant.ApplicantService;
 import services.application.ApplicationEventDetails;
 import services.application.ApplicationEventDetails.NoteEvent;
 import services.application.ApplicationEventDetails.StatusEvent;
-import services.cloud.aws.SimpleEmail;
 import services.program.ProgramDefinition;
 import services.program.StatusDefinitions.Status;
 import services.program.StatusNotFoundException;
@@ -32,7 +35,6 @@ public final class ProgramAdminApplicationService {
   private final ApplicantService applicantService;
   private final ApplicationRepository applicationRepository;
   private final ApplicationEventRepository eventRepository;
-  private final SimpleEmail emailClient;
   private final String baseUrl;
   private final boolean isStaging;
   private final String stagingApplicantNotificationMailingList;
@@ -43,12 +45,10 @@ public final class ProgramAdminApplicationService {
       ApplicantService applicantService,
       ApplicationRepository applicationRepository,
       ApplicationEventRepository eventRepository,
-      Config configuration,
-      SimpleEmail emailClient) {
+      Config configuration) {
     this.applicantService = checkNotNull(applicantService);
     this.applicationRepository = checkNotNull(applicationRepository);
     this.eventRepository = checkNotNull(eventRepository);
-    this.emailClient = checkNotNull(emailClient);
 
     // TODO(#3386): Inject these values and their downstream uses rather than calculating each time
     // they're needed.
@@ -83,6 +83,28 @@ public final class ProgramAdminApplicationService {
     return Optional.of(application);
   }
 
+  /**
+   * Retrieves the applications with the given IDs that are associated with the given program, in
+   * ascending ID order. IDs of other applications are ignored.
+   */
+  public ImmutableList<Application> getApplications(
+      ImmutableSet<Long> applicationIds, ProgramDefinition program) {
+    if (program.adminName().isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList<Application> applications =
+        applicationRepository.getApplications(applicationIds).toCompletableFuture().join();
+    return applications.stream()
+        .filter(
+            application ->
+                application
+                    .getProgram()
+                    .getProgramDefinition()
+                    .adminName()
+                    .equals(program.adminName()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
   /**
    * Sets the status on the {@code Application}.
    *
@@ -90,21 +112,7 @@ public final class ProgramAdminApplicationService {
    */
   public void setStatus(Application application, StatusEvent newStatusEvent, Account admin)
       throws StatusEmailNotFoundException, StatusNotFoundException, AccountHasNoEmailException {
-    Program program = application.getProgram();
-    Applicant applicant = application.getApplicant();
-    String newStatusText = newStatusEvent.statusText();
-    // The send/sent phrasing is a little weird as the service layer is converting between intent
-    // and reality.
-    boolean sendEmail = newStatusEvent.emailSent();
-
-    Optional<Status> statusDefMaybe =
-        program.getStatusDefinitions().getStatuses().stream()
-            .filter(s -> s.statusText().equals(newStatusText))
-            .findFirst();
-    if (statusDefMaybe.isEmpty()) {
-      throw new StatusNotFoundException(newStatusText, program.id);
-    }
-    Status statusDef = statusDefMaybe.get();
+    Status statusDef = getStatusDefinition(application.getProgram(), newStatusEvent.statusText());
 
     ApplicationEventDetails details =
         ApplicationEventDetails.builder()
@@ -114,31 +122,95 @@ public final class ProgramAdminApplicationService {
     ApplicationEvent event = new ApplicationEvent(application, admin, details);
 
     // Send email if requested and present.
-    if (sendEmail) {
-      if (statusDef.localizedEmailBodyText().isEmpty()) {
-        throw new StatusEmailNotFoundException(newStatusText, program.id);
-      }
-      // Notify an Admin/TI if they applied.
-      Optional<String> adminSubmitterEmail = application.getSubmitterEmail();
-      if (adminSubmitterEmail.isPresent()) {
-        sendAdminSubmitterEmail(
-            program.getProgramDefinition(), applicant, newStatusText, adminSubmitterEmail);
-      }
-      // Notify the applicant.
+    // The send/sent phrasing is a little weird as the service layer is converting between intent
+    // and reality.
+    ImmutableList<OutboxEmail> emails = ImmutableList.of();
+    if (newStatusEvent.emailSent()) {
       Optional<String> applicantEmail =
           applicantService.getEmail(application.getApplicant().id).toCompletableFuture().join();
-      if (applicantEmail.isPresent()) {
-        sendApplicantEmail(program.getProgramDefinition(), applicant, statusDef, applicantEmail);
-      } else {
-        // An email was requested to be sent but the applicant doesn't have one.
-        throw new AccountHasNoEmailException(applicant.getAccount().id);
+      emails = getStatusEmails(application, statusDef, applicantEmail);
+    }
+
+    // The emails are queued with the event, and only sent if it's stored.
+    eventRepository.insertSync(event, emails);
+  }
+
+  /**
+   * Sets the same status on each of the {@code applications}, like {@link #setStatus}, in one
+   * transaction. If an exception is thrown, the status isn't set on any of them.
+   *
+   * <p>The applications are expected to be retrieved with {@link #getApplications(ImmutableSet,
+   * ProgramDefinition)}, which loads their programs and applicants' accounts with them.
+   *
+   * @param admin The Account that instigated the change.
+   */
+  public void setStatuses(
+      ImmutableList<Application> applications, StatusEvent newStatusEvent, Account admin)
+      throws StatusEmailNotFoundException, StatusNotFoundException, AccountHasNoEmailException {
+    ImmutableList.Builder<OutboxEmail> emails = ImmutableList.builder();
+    for (Application application : applications) {
+      Status statusDef =
+          getStatusDefinition(application.getProgram(), newStatusEvent.statusText());
+      if (newStatusEvent.emailSent()) {
+        Optional<String> applicantEmail =
+            Optional.ofNullable(
+                Strings.emptyToNull(application.getApplicant().getAccount().getEmailAddress()));
+        emails.addAll(getStatusEmails(application, statusDef, applicantEmail));
       }
     }
 
-    eventRepository.insertSync(event);
+    ApplicationEventDetails details =
+        ApplicationEventDetails.builder()
+            .setEventType(ApplicationEventDetails.Type.STATUS_CHANGE)
+            .setStatusEvent(newStatusEvent)
+            .build();
+    // The emails are queued with the events, and only sent if they're stored.
+    eventRepository.insertManySync(applications, admin, details, emails.build());
+  }
+
+  private static Status getStatusDefinition(Program program, String statusText)
+      throws StatusNotFoundException {
+    Optional<Status> statusDefMaybe =
+        program.getStatusDefinitions().getStatuses().stream()
+            .filter(s -> s.statusText().equals(statusText))
+            .findFirst();
+    if (statusDefMaybe.isEmpty()) {
+      throw new StatusNotFoundException(statusText, program.id);
+    }
+    return statusDefMaybe.get();
+  }
+
+  /** Returns the emails to send about the application's status changing to {@code statusDef}. */
+  private ImmutableList<OutboxEmail> getStatusEmails(
+      Application application, Status statusDef, Optional<String> applicantEmail)
+      throws StatusEmailNotFoundException, AccountHasNoEmailException {
+    Program program = application.getProgram();
+    Applicant applicant = application.getApplicant();
+    String newStatusText = statusDef.statusText();
+    if (statusDef.localizedEmailBodyText().isEmpty()) {
+      throw new StatusEmailNotFoundException(newStatusText, program.id);
+    }
+
+    ImmutableList.Builder<OutboxEmail> emails = ImmutableList.builder();
+    // Notify an Admin/TI if they applied.
+    Optional<String> adminSubmitterEmail = application.getSubmitterEmail();
+    if (adminSubmitterEmail.isPresent()) {
+      emails.add(
+          getAdminSubmitterEmail(
+              program.getProgramDefinition(), applicant, newStatusText, adminSubmitterEmail));
+    }
+    // Notify the applicant.
+    if (applicantEmail.isPresent()) {
+      emails.add(
+          getApplicantEmail(program.getProgramDefinition(), applicant, statusDef, applicantEmail));
+    } else {
+      // An email was requested to be sent but the applicant doesn't have one.
+      throw new AccountHasNoEmailException(applicant.getAccount().id);
+    }
+    return emails.build();
   }
 
-  private void sendApplicantEmail(
+  private OutboxEmail getApplicantEmail(
       ProgramDefinition programDef,
       Applicant applicant,
       Status statusDef,
@@ -154,13 +226,14 @@ public final class ProgramAdminApplicationService {
         String.format(
             "%s\n\nLog in to CiviForm at %s.",
             statusDef.localizedEmailBodyText().get().getOrDefault(locale), civiformLink);
-    emailClient.send(
-        isStaging ? stagingApplicantNotificationMailingList : applicantEmail.get(),
+    return new OutboxEmail(
+        ImmutableList.of(
+            isStaging ? stagingApplicantNotificationMailingList : applicantEmail.get()),
         String.format(STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programName),
         emailBody);
   }
 
-  private void sendAdminSubmitterEmail(
+  private OutboxEmail getAdminSubmitterEmail(
       ProgramDefinition programDef,
       Applicant applicant,
       String newStatusText,
@@ -183,8 +256,10 @@ public final class ProgramAdminApplicationService {
                 + "Manage your clients at %s.",
             applicant.id, programName, newStatusText, tiDashLink);
 
-    emailClient.send(
-        isStaging ? stagingTiNotificationMailingList : adminSubmitterEmail.get(), subject, body);
+    return new OutboxEmail(
+        ImmutableList.of(isStaging ? stagingTiNotificationMailingList : adminSubmitterEmail.get()),
+        subject,
+        body);
   }
 
   /**
@@ -202,6 +277,21 @@ public final class ProgramAdminApplicationService {
     eventRepository.insertSync(event);
   }
 
+  /**
+   * Sets the same note on each of the {@code applications}, like {@link #setNote}, in one
+   * transaction.
+   *
+   * @param admin The Account that instigated the change.
+   */
+  public void setNotes(ImmutableList<Application> applications, NoteEvent note, Account admin) {
+    ApplicationEventDetails details =
+        ApplicationEventDetails.builder()
+            .setEventType(ApplicationEventDetails.Type.NOTE_CHANGE)
+            .setNoteEvent(note)
+            .build();
+    eventRepository.insertManySync(applications, admin, details, /* emails= */ ImmutableList.of());
+  }
+
   /** Returns the note content for {@code application}. */
   public Optional<String> getNote(Application application) {
     // The most recent note event is the current value for the note.
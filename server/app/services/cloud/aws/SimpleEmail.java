@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.Environment;
 import play.inject.ApplicationLifecycle;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.Body;
 import software.amazon.awssdk.services.ses.model.Content;
@@ -58,26 +59,35 @@ public final class SimpleEmail {
   }
 
   public void send(ImmutableList<String> toAddresses, String subject, String bodyText) {
+    try {
+      deliver(toAddresses, subject, bodyText);
+    } catch (SesException e) {
+      logger.error(e.toString());
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Sends an email like {@link #send}, but lets failures propagate so that the caller can retry.
+   *
+   * @throws SdkException if SES rejects the email or can't be reached.
+   */
+  public void deliver(ImmutableList<String> toAddresses, String subject, String bodyText) {
     if (toAddresses.isEmpty()) {
       return;
     }
 
-    try {
-      Destination destination =
-          Destination.builder().toAddresses(toAddresses.toArray(new String[0])).build();
+    Destination destination =
+        Destination.builder().toAddresses(toAddresses.toArray(new String[0])).build();
 
-      Body body = Body.builder().text(Content.builder().data(bodyText).build()).build();
+    Body body = Body.builder().text(Content.builder().data(bodyText).build()).build();
 
-      Message msg =
-          Message.builder().subject(Content.builder().data(subject).build()).body(body).build();
+    Message msg =
+        Message.builder().subject(Content.builder().data(subject).build()).body(body).build();
 
-      SendEmailRequest emailRequest =
-          SendEmailRequest.builder().destination(destination).message(msg).source(sender).build();
-      client.get().sendEmail(emailRequest);
-    } catch (SesException e) {
-      logger.error(e.toString());
-      e.printStackTrace();
-    }
+    SendEmailRequest emailRequest =
+        SendEmailRequest.builder().destination(destination).message(msg).source(sender).build();
+    client.get().sendEmail(emailRequest);
   }
 
   interface Client {
@@ -46,15 +46,30 @@ public final class CsvExporter implements AutoCloseable {
     this.printer = new CSVPrinter(writer, format);
   }
 
+  /**
+   * Returns the answer to each scalar of the application {@code roApplicantService} is for, in the
+   * default locale.
+   */
+  static ImmutableMap<Path, String> getScalarAnswersInDefaultLocale(
+      ReadOnlyApplicantProgramService roApplicantService) {
+    return roApplicantService.getSummaryData().stream()
+        .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
+        .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
   /** Writes a single {@link Application} record to the CSV. */
   public void exportRecord(
       Application application, ReadOnlyApplicantProgramService roApplicantService)
       throws IOException {
-    ImmutableMap<Path, String> answerMap =
-        roApplicantService.getSummaryData().stream()
-            .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
-            .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    exportRecord(application, getScalarAnswersInDefaultLocale(roApplicantService));
+  }
 
+  /**
+   * Writes a single {@link Application} record to the CSV, given the answer to each of its scalars
+   * in the default locale.
+   */
+  public void exportRecord(Application application, ImmutableMap<Path, String> answerMap)
+      throws IOException {
     for (Column column : columns) {
       switch (column.columnType()) {
         case APPLICANT_ANSWER:
@@ -67,7 +82,7 @@ public final class CsvExporter implements AutoCloseable {
           printer.print(application.id);
           break;
         case LANGUAGE:
-          printer.print(application.getApplicantData().preferredLocale().toLanguageTag());
+          printer.print(application.getPreferredLocale().toLanguageTag());
           break;
         case CREATE_TIME:
           printer.print(application.getCreateTime().toString());
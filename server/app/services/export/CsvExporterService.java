@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.typesafe.config.Config;
 import featureflags.FeatureFlags;
@@ -11,29 +12,33 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import models.Application;
 import models.QuestionTag;
-import play.libs.F;
+import repository.ApplicationRepository;
 import repository.SubmittedApplicationFilter;
 import repository.TimeFilter;
-import services.IdentifierBasedPaginationSpec;
 import services.Path;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantData;
 import services.applicant.ApplicantService;
-import services.applicant.ReadOnlyApplicantProgramService;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Question;
+import services.program.BlockDefinition;
 import services.program.Column;
 import services.program.ColumnType;
 import services.program.CsvExportConfig;
@@ -55,9 +60,13 @@ public final class CsvExporterService {
   private final ProgramService programService;
   private final QuestionService questionService;
   private final ApplicantService applicantService;
+  private final ApplicationRepository applicationRepository;
   private final FeatureFlags featureFlags;
   private final Config config;
 
+  /** The number of applications fetched at a time when writing a CSV incrementally. */
+  @VisibleForTesting static final int EXPORT_PAGE_SIZE = 500;
+
   private static final String HEADER_SPACER_ENUM = " - ";
   private static final String HEADER_SPACER_SCALAR = " ";
 
@@ -72,11 +81,13 @@ public final class CsvExporterService {
       ProgramService programService,
       QuestionService questionService,
       ApplicantService applicantService,
+      ApplicationRepository applicationRepository,
       FeatureFlags featureFlags,
       Config config) {
     this.programService = checkNotNull(programService);
     this.questionService = checkNotNull(questionService);
     this.applicantService = checkNotNull(applicantService);
+    this.applicationRepository = checkNotNull(applicationRepository);
     this.featureFlags = checkNotNull(featureFlags);
     this.config = checkNotNull(config);
   }
@@ -84,34 +95,104 @@ public final class CsvExporterService {
   /** Return a string containing a CSV of all applications at all versions of particular program. */
   public String getProgramAllVersionsCsv(long programId, SubmittedApplicationFilter filters)
       throws ProgramNotFoundException {
+    StringWriter writer = new StringWriter();
+    try {
+      writeProgramAllVersionsCsv(programId, filters, writer);
+    } catch (IOException e) {
+      // Since it's an in-memory writer, this shouldn't happen.  Catch so that callers don't
+      // have to deal with it.
+      throw new RuntimeException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Writes a CSV of all applications at all versions of a particular program to {@code writer},
+   * closing it when done.
+   *
+   * <p>Applications are fetched {@link #EXPORT_PAGE_SIZE} at a time in descending id order, each
+   * page after the last application of the previous one, and each page is written before the next
+   * one is fetched, so memory use is bounded by the page size rather than the number of
+   * applications being exported. The applications are not counted, so each page costs the same.
+   */
+  public void writeProgramAllVersionsCsv(
+      long programId, SubmittedApplicationFilter filters, Writer writer)
+      throws ProgramNotFoundException, IOException {
     ImmutableList<ProgramDefinition> allProgramVersions =
         programService.getAllProgramDefinitionVersions(programId).stream()
             .collect(ImmutableList.toImmutableList());
     CsvExportConfig exportConfig = generateDefaultCsvExportConfig(allProgramVersions);
+    ImmutableMap<Long, ProgramDefinition> programDefinitionsById =
+        allProgramVersions.stream()
+            .collect(ImmutableMap.toImmutableMap(ProgramDefinition::id, Function.identity()));
+
+    try (CsvExporter csvExporter =
+        new CsvExporter(exportConfig.columns(), config.getString("play.http.secret.key"), writer)) {
+      long offsetIdentifier = Long.MAX_VALUE;
+      ImmutableList<Application> page;
+      do {
+        page =
+            programService.getSubmittedProgramApplicationsAllVersionsBefore(
+                programId, offsetIdentifier, EXPORT_PAGE_SIZE, filters);
+        for (Application application : page) {
+          csvExporter.exportRecord(
+              application,
+              getScalarAnswers(
+                  application, () -> programDefinitionsById.get(application.getProgram().id)));
+          offsetIdentifier = application.id;
+        }
+      } while (page.size() == EXPORT_PAGE_SIZE);
+    }
+  }
 
-    ImmutableList<Application> applications =
-        programService
-            .getSubmittedProgramApplicationsAllVersions(
-                programId,
-                F.Either.Left(IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG),
-                filters)
-            .getPageContents();
+  /**
+   * Returns the answer to each scalar of the application in the default locale. These are stored
+   * when an application is submitted, so the program only needs to be evaluated for drafts and for
+   * applications submitted before that.
+   */
+  private ImmutableMap<Path, String> getScalarAnswers(
+      Application application, Supplier<ProgramDefinition> programDefinition) {
+    return application
+        .getExportedAnswers()
+        .map(ExportedAnswers::scalarAnswersInDefaultLocale)
+        .orElseGet(
+            () ->
+                CsvExporter.getScalarAnswersInDefaultLocale(
+                    applicantService.getReadOnlyApplicantProgramService(
+                        application, programDefinition.get())));
+  }
 
-    return exportCsv(exportConfig, applications);
+  private ProgramDefinition getProgramDefinition(long programId) {
+    try {
+      return programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      throw new RuntimeException("Cannot find a program that has applications for it.", e);
+    }
   }
 
+  /**
+   * Produce the default CSV config for the given program versions. The default config includes the
+   * application id, the application submission time, and all possible scalar values from all of
+   * their applications. This means if one application had a question repeated for N repeated
+   * entities, then there would be N columns for each of that question's scalars.
+   *
+   * <p>The columns are derived from the program definitions and the largest number of repeated
+   * entities any application has for each enumerator, so applications don't need to be loaded.
+   */
   private CsvExportConfig generateDefaultCsvExportConfig(
-      ImmutableList<ProgramDefinition> programDefinitions) throws ProgramNotFoundException {
+      ImmutableList<ProgramDefinition> programDefinitions) {
     Map<Path, AnswerData> answerMap = new HashMap<>();
 
     for (ProgramDefinition programDefinition : programDefinitions) {
-      for (Application application :
-          programService.getSubmittedProgramApplications(programDefinition.id())) {
-        applicantService
-            .getReadOnlyApplicantProgramService(application, programDefinition)
-            .getSummaryData()
-            .forEach(data -> answerMap.putIfAbsent(data.contextualizedPath(), data));
+      // A program version nobody has applied to doesn't contribute any answer columns.
+      if (!applicationRepository.hasSubmittedApplications(programDefinition.id())) {
+        continue;
       }
+      applicantService
+          .getReadOnlyApplicantProgramService(
+              buildColumnTemplate(programDefinition), programDefinition)
+          .getSummaryDataOfAllBlocks()
+          .forEach(data -> answerMap.putIfAbsent(data.contextualizedPath(), data));
     }
 
     // Get the list of all answers, sorted by block ID, then question index, and finally
@@ -127,6 +208,60 @@ public final class CsvExporterService {
     return generateDefaultCsvConfig(answers);
   }
 
+  /**
+   * Returns {@link ApplicantData} holding, at each enumerator path of the program, as many unnamed
+   * repeated entities as the submitted application with the most repeated entities there. Its
+   * blocks are then exactly the blocks of all of the program's applications combined.
+   *
+   * <p>Nested enumerators are counted one level at a time, since the paths to count depend on the
+   * number of entities found at the level above.
+   */
+  private ApplicantData buildColumnTemplate(ProgramDefinition programDefinition) {
+    ApplicantData template = new ApplicantData();
+
+    Map<Path, BlockDefinition> enumeratorsToCount = new LinkedHashMap<>();
+    for (BlockDefinition blockDefinition : programDefinition.getNonRepeatedBlockDefinitions()) {
+      if (blockDefinition.isEnumerator()) {
+        enumeratorsToCount.put(
+            ApplicantData.APPLICANT_PATH.join(
+                blockDefinition.getEnumerationQuestionDefinition().getQuestionPathSegment()),
+            blockDefinition);
+      }
+    }
+
+    while (!enumeratorsToCount.isEmpty()) {
+      ImmutableMap<Path, Integer> maxCounts =
+          applicationRepository.getMaxRepeatedEntityCounts(
+              programDefinition.id(), ImmutableList.copyOf(enumeratorsToCount.keySet()));
+      Map<Path, BlockDefinition> nestedEnumeratorsToCount = new LinkedHashMap<>();
+      for (Map.Entry<Path, BlockDefinition> enumerator : enumeratorsToCount.entrySet()) {
+        Path path = enumerator.getKey();
+        int count = maxCounts.get(path);
+        if (count == 0) {
+          continue;
+        }
+        template.putRepeatedEntities(path, ImmutableList.copyOf(Collections.nCopies(count, "")));
+        for (BlockDefinition repeatedBlockDefinition :
+            programDefinition.getBlockDefinitionsForEnumerator(enumerator.getValue().id())) {
+          if (!repeatedBlockDefinition.isEnumerator()) {
+            continue;
+          }
+          for (int i = 0; i < count; i++) {
+            nestedEnumeratorsToCount.put(
+                path.atIndex(i)
+                    .join(
+                        repeatedBlockDefinition
+                            .getEnumerationQuestionDefinition()
+                            .getQuestionPathSegment()),
+                repeatedBlockDefinition);
+          }
+        }
+      }
+      enumeratorsToCount = nestedEnumeratorsToCount;
+    }
+    return template;
+  }
+
   /**
    * Return a string containing a CSV of all applications for a specific program version.
    *
@@ -135,7 +270,10 @@ public final class CsvExporterService {
   public String getProgramCsv(long programId) throws ProgramNotFoundException {
     ImmutableList<Application> applications =
         programService.getSubmittedProgramApplications(programId);
-    return exportCsv(generateDefaultCsvConfig(programId), applications);
+    CsvExportConfig exportConfig =
+        generateDefaultCsvExportConfig(
+            ImmutableList.of(programService.getProgramDefinition(programId)));
+    return exportCsv(exportConfig, applications);
   }
 
   private String exportCsv(CsvExportConfig exportConfig, ImmutableList<Application> applications) {
@@ -150,19 +288,13 @@ public final class CsvExporterService {
         // TODO(#1750): Consider Play's JavaCache over this caching.
         HashMap<Long, ProgramDefinition> programDefinitions = new HashMap<>();
         for (Application application : applications) {
-          Long programId = application.getProgram().id;
-          if (!programDefinitions.containsKey(programId)) {
-            try {
-              programDefinitions.put(programId, programService.getProgramDefinition(programId));
-            } catch (ProgramNotFoundException e) {
-              throw new RuntimeException("Cannot find a program that has applications for it.", e);
-            }
-          }
-          ProgramDefinition programDefinition = programDefinitions.get(programId);
-
-          ReadOnlyApplicantProgramService roApplicantService =
-              applicantService.getReadOnlyApplicantProgramService(application, programDefinition);
-          csvExporter.exportRecord(application, roApplicantService);
+          csvExporter.exportRecord(
+              application,
+              getScalarAnswers(
+                  application,
+                  () ->
+                      programDefinitions.computeIfAbsent(
+                          application.getProgram().id, this::getProgramDefinition)));
         }
       }
     } catch (IOException e) {
@@ -173,46 +305,6 @@ public final class CsvExporterService {
     return inMemoryBytes.toString();
   }
 
-  /**
-   * Produce the default CSV config for a given program. The default config includes the application
-   * id, the application submission time, and all possible scalar values from all of its
-   * applications. This means if one application had a question repeated for N repeated entities,
-   * then there would be N columns for each of that question's scalars.
-   */
-  private CsvExportConfig generateDefaultCsvConfig(long programId) {
-    ImmutableList<Application> applications;
-
-    try {
-      applications = programService.getSubmittedProgramApplications(programId);
-    } catch (ProgramNotFoundException e) {
-      throw new RuntimeException("Cannot find a program we are trying to generate CSVs for.", e);
-    }
-
-    // Create a map from a key <block id, question index> to an answer with every application. It
-    // doesn't matter which answer ends up in the map, as long as every <block id, question index>
-    // is accounted for.
-    Map<String, AnswerData> answerMap = new HashMap<>();
-    for (Application application : applications) {
-      ReadOnlyApplicantProgramService roApplicantService =
-          applicantService
-              .getReadOnlyApplicantProgramService(application)
-              .toCompletableFuture()
-              .join();
-      roApplicantService
-          .getSummaryData()
-          .forEach(data -> answerMap.putIfAbsent(answerDataKey(data), data));
-    }
-
-    // Get the list of all answers, sorted by block ID and question index, and generate the default
-    // csv config.
-    ImmutableList<AnswerData> answers =
-        answerMap.values().stream()
-            .sorted(
-                Comparator.comparing(AnswerData::blockId).thenComparing(AnswerData::questionIndex))
-            .collect(ImmutableList.toImmutableList());
-    return generateDefaultCsvConfig(answers);
-  }
-
   /**
    * Produce the default {@link CsvExportConfig} for a list of {@link AnswerData}s. The default
    * config includes all the questions, the application id, and the application submission time.
@@ -312,14 +404,6 @@ public final class CsvExporterService {
     return builder.toString();
   }
 
-  /**
-   * A useful string that uniquely identifies an answer within an applicant program and is shared
-   * across applicant programs.
-   */
-  private static String answerDataKey(AnswerData answerData) {
-    return String.format("%s-%d", answerData.blockId(), answerData.questionIndex());
-  }
-
   /**
    * A string containing the CSV which maps applicants (opaquely) to the programs they applied to.
    */
@@ -0,0 +1,63 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import services.Path;
+import services.applicant.ReadOnlyApplicantProgramService;
+
+/**
+ * The answers of an application in the form they are exported in, i.e. the CSV value of each scalar
+ * and the JSON answers object.
+ *
+ * <p>A submitted application's answers never change, so they are computed once when it is
+ * submitted and stored on the {@link models.Application}. Exports then don't need to evaluate the
+ * program for every application they include.
+ */
+public final class ExportedAnswers {
+
+  @JsonProperty("scalarAnswersInDefaultLocale")
+  private final LinkedHashMap<String, String> scalarAnswersInDefaultLocale;
+
+  @JsonProperty("jsonAnswers")
+  private final LinkedHashMap<String, Object> jsonAnswers;
+
+  @JsonCreator
+  public ExportedAnswers(
+      @Nullable @JsonProperty("scalarAnswersInDefaultLocale")
+          LinkedHashMap<String, String> scalarAnswersInDefaultLocale,
+      @Nullable @JsonProperty("jsonAnswers") LinkedHashMap<String, Object> jsonAnswers) {
+    this.scalarAnswersInDefaultLocale =
+        scalarAnswersInDefaultLocale == null ? new LinkedHashMap<>() : scalarAnswersInDefaultLocale;
+    this.jsonAnswers = jsonAnswers == null ? new LinkedHashMap<>() : jsonAnswers;
+  }
+
+  /** Computes the exported answers of the application {@code roApplicantProgramService} is for. */
+  public static ExportedAnswers create(ReadOnlyApplicantProgramService roApplicantProgramService) {
+    checkNotNull(roApplicantProgramService);
+    LinkedHashMap<String, String> scalarAnswers = new LinkedHashMap<>();
+    CsvExporter.getScalarAnswersInDefaultLocale(roApplicantProgramService)
+        .forEach((path, answer) -> scalarAnswers.put(path.toString(), answer));
+    return new ExportedAnswers(
+        scalarAnswers, JsonExporter.buildJsonAnswers(roApplicantProgramService));
+  }
+
+  /** Returns the answer to each scalar, in the default locale, as exported to CSV. */
+  public ImmutableMap<Path, String> scalarAnswersInDefaultLocale() {
+    return scalarAnswersInDefaultLocale.entrySet().stream()
+        .collect(
+            ImmutableMap.toImmutableMap(entry -> Path.create(entry.getKey()), Map.Entry::getValue));
+  }
+
+  /**
+   * Returns the top level properties of the answers in the JSON export, e.g. {@code application}.
+   */
+  public ImmutableMap<String, Object> jsonAnswers() {
+    return ImmutableMap.copyOf(jsonAnswers);
+  }
+}
@@ -8,6 +8,7 @@ import featureflags.FeatureFlags;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import javax.inject.Inject;
@@ -79,8 +80,6 @@ public final class JsonExporter {
 
   private CfJsonDocumentContext buildJsonApplication(
       Application application, ProgramDefinition programDefinition) {
-    ReadOnlyApplicantProgramService roApplicantProgramService =
-        applicantService.getReadOnlyApplicantProgramService(application, programDefinition);
     CfJsonDocumentContext jsonApplication = new CfJsonDocumentContext(makeEmptyJsonObject());
 
     jsonApplication.putString(
@@ -89,8 +88,7 @@ public final class JsonExporter {
     jsonApplication.putLong(Path.create("applicant_id"), application.getApplicant().id);
     jsonApplication.putLong(Path.create("application_id"), application.id);
     jsonApplication.putString(
-        Path.create("language"),
-        roApplicantProgramService.getApplicantData().preferredLocale().toLanguageTag());
+        Path.create("language"), application.getPreferredLocale().toLanguageTag());
     jsonApplication.putString(Path.create("create_time"), application.getCreateTime().toString());
     jsonApplication.putString(
         Path.create("submitter_email"), application.getSubmitterEmail().orElse("Applicant"));
@@ -111,6 +109,30 @@ public final class JsonExporter {
               () -> jsonApplication.putNull(statusPath));
     }
 
+    // Answers are stored when an application is submitted. They only need to be computed for
+    // applications submitted before that.
+    Map<String, Object> answers =
+        application
+            .getExportedAnswers()
+            .<Map<String, Object>>map(ExportedAnswers::jsonAnswers)
+            .orElseGet(
+                () ->
+                    buildJsonAnswers(
+                        applicantService.getReadOnlyApplicantProgramService(
+                            application, programDefinition)));
+    answers.forEach((key, value) -> jsonApplication.getDocumentContext().put("$", key, value));
+
+    return jsonApplication;
+  }
+
+  /**
+   * Returns the top level properties of the JSON export's answers to the application {@code
+   * roApplicantProgramService} is for.
+   */
+  static LinkedHashMap<String, Object> buildJsonAnswers(
+      ReadOnlyApplicantProgramService roApplicantProgramService) {
+    CfJsonDocumentContext jsonApplication = new CfJsonDocumentContext(makeEmptyJsonObject());
+
     for (AnswerData answerData : roApplicantProgramService.getSummaryData()) {
       // Answers to enumerator questions should not be included because the path is incompatible
       // with the JSON export schema. This is because enumerators store an identifier value for
@@ -194,14 +216,14 @@ public final class JsonExporter {
       }
     }
 
-    return jsonApplication;
+    return jsonApplication.getDocumentContext().json();
   }
 
-  private DocumentContext makeEmptyJsonArray() {
+  private static DocumentContext makeEmptyJsonArray() {
     return JsonPathProvider.getJsonPath().parse("[]");
   }
 
-  private DocumentContext makeEmptyJsonObject() {
+  private static DocumentContext makeEmptyJsonObject() {
     return JsonPathProvider.getJsonPath().parse("{}");
   }
 }
@@ -9,14 +9,14 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.util.Optional;
 import java.util.function.Function;
+import models.Program;
 import models.Version;
-import repository.VersionRepository;
 
 /**
  * A data class storing the current active and draft programs. For efficient querying of information
- * about current active / draft programs. Lifespan should be measured in milliseconds - seconds at
- * the maximum - within one request serving path - because it does not have any mechanism for a
- * refresh.
+ * about current active / draft programs. It is an immutable snapshot of the versions it was built
+ * from, and is shared across requests until they change, see {@link
+ * ProgramService#getActiveAndDraftPrograms()}.
  */
 public final class ActiveAndDraftPrograms {
 
@@ -26,31 +26,30 @@ public final class ActiveAndDraftPrograms {
       versionedByName;
 
   /**
-   * Queries the existing active and draft versions and builds a snapshotted view of the program
-   * state.
+   * Builds a snapshot of the programs in the given active and draft versions. {@code
+   * loadProgramDefinition} completes the definition of each program, e.g. by syncing its questions,
+   * without querying the database for each program.
    */
-  public static ActiveAndDraftPrograms buildFromCurrentVersions(
-      ProgramService service, VersionRepository repository) {
+  static ActiveAndDraftPrograms build(
+      Version active,
+      Version draft,
+      Function<ProgramDefinition, ProgramDefinition> loadProgramDefinition) {
     return new ActiveAndDraftPrograms(
-        service, repository.getActiveVersion(), repository.getDraftVersion());
+        loadPrograms(checkNotNull(active), loadProgramDefinition),
+        loadPrograms(checkNotNull(draft), loadProgramDefinition));
   }
 
-  private ActiveAndDraftPrograms(ProgramService service, Version active, Version draft) {
-    // Note: Building this lookup has N+1 query behavior since a call to getProgramDefinition does
-    // an additional database lookup in order to sync the set of questions associated with the
-    // program.
-    ImmutableMap<String, ProgramDefinition> activeNameToProgram =
-        checkNotNull(active).getPrograms().stream()
-            .map(program -> getProgramDefinition(checkNotNull(service), program.id))
-            .collect(
-                ImmutableMap.toImmutableMap(ProgramDefinition::adminName, Function.identity()));
-
-    ImmutableMap<String, ProgramDefinition> draftNameToProgram =
-        checkNotNull(draft).getPrograms().stream()
-            .map(program -> getProgramDefinition(checkNotNull(service), program.id))
-            .collect(
-                ImmutableMap.toImmutableMap(ProgramDefinition::adminName, Function.identity()));
+  private static ImmutableMap<String, ProgramDefinition> loadPrograms(
+      Version version, Function<ProgramDefinition, ProgramDefinition> loadProgramDefinition) {
+    return version.getPrograms().stream()
+        .map(Program::getProgramDefinition)
+        .map(loadProgramDefinition)
+        .collect(ImmutableMap.toImmutableMap(ProgramDefinition::adminName, Function.identity()));
+  }
 
+  private ActiveAndDraftPrograms(
+      ImmutableMap<String, ProgramDefinition> activeNameToProgram,
+      ImmutableMap<String, ProgramDefinition> draftNameToProgram) {
     this.activePrograms = activeNameToProgram.values().asList();
     this.draftPrograms = draftNameToProgram.values().asList();
     this.versionedByName =
@@ -88,13 +87,4 @@ public final class ActiveAndDraftPrograms {
   public boolean anyDraft() {
     return draftPrograms.size() > 0;
   }
-
-  private ProgramDefinition getProgramDefinition(ProgramService service, long id) {
-    try {
-      return service.getProgramDefinition(id);
-    } catch (ProgramNotFoundException e) {
-      // This is not possible because we query with existing program ids.
-      throw new RuntimeException(e);
-    }
-  }
 }
@@ -0,0 +1,61 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import models.Program;
+import repository.VersionRepository;
+
+/**
+ * Caches the {@link ProgramDefinition}s of the programs in the active version, as stored, i.e.
+ * without syncing their questions, for listing them to applicants.
+ *
+ * <p>Like {@link ProgramDefinitionCache}, the cached programs are keyed by {@link
+ * VersionRepository#getCurrentVersionsStamp()}, and are reloaded on the first lookup after the
+ * stamp changes.
+ */
+@Singleton
+public final class ActiveVersionProgramsCache {
+
+  private final VersionRepository versionRepository;
+  private final AtomicReference<Entry> entry =
+      new AtomicReference<>(new Entry("", ImmutableMap.of()));
+
+  @Inject
+  public ActiveVersionProgramsCache(VersionRepository versionRepository) {
+    this.versionRepository = checkNotNull(versionRepository);
+  }
+
+  /** Returns the programs in the active version by id, in ascending id order. */
+  public ImmutableMap<Long, ProgramDefinition> getActivePrograms() {
+    String versionsStamp = versionRepository.getCurrentVersionsStamp();
+    Entry current = entry.get();
+    if (current.versionsStamp.equals(versionsStamp)) {
+      return current.programsById;
+    }
+
+    // The stamp is read before the programs are loaded, so that a publish made while loading them
+    // results in a stale key rather than stale programs.
+    ImmutableMap<Long, ProgramDefinition> programsById =
+        versionRepository.getActiveVersion().getPrograms().stream()
+            .map(Program::getProgramDefinition)
+            .sorted(Comparator.comparing(ProgramDefinition::id))
+            .collect(ImmutableMap.toImmutableMap(ProgramDefinition::id, program -> program));
+    entry.set(new Entry(versionsStamp, programsById));
+    return programsById;
+  }
+
+  private static final class Entry {
+    private final String versionsStamp;
+    private final ImmutableMap<Long, ProgramDefinition> programsById;
+
+    private Entry(String versionsStamp, ImmutableMap<Long, ProgramDefinition> programsById) {
+      this.versionsStamp = checkNotNull(versionsStamp);
+      this.programsById = checkNotNull(programsById);
+    }
+  }
+}
@@ -1,8 +1,10 @@
 package services.program;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
@@ -25,6 +27,8 @@ import models.DisplayMode;
 import models.Program;
 import modules.MainModule;
 import services.LocalizedStrings;
+import services.applicant.CompiledBlockGraph;
+import services.applicant.predicate.CompiledPredicateCache;
 import services.question.types.QuestionDefinition;
 import services.question.types.QuestionType;
 
@@ -570,6 +574,26 @@ public abstract class ProgramDefinition {
                     .map(ProgramQuestionDefinition::getQuestionDefinition));
   }
 
+  /**
+   * The compiled visibility predicates of this program's blocks. Predicates are compiled when they
+   * are first evaluated and kept for as long as this program definition is, e.g. while it is in
+   * {@link ProgramDefinitionCache}.
+   */
+  @Memoized
+  public CompiledPredicateCache compiledPredicates() {
+    return new CompiledPredicateCache(streamQuestionDefinitions().collect(toImmutableList()));
+  }
+
+  /**
+   * The order of this program's blocks and of the blocks repeated by its enumerator blocks, from
+   * which the blocks of each applicant are built. It is compiled on first use and kept for as long
+   * as this program definition is.
+   */
+  @Memoized
+  public CompiledBlockGraph compiledBlocks() {
+    return new CompiledBlockGraph(this);
+  }
+
   @AutoValue.Builder
   public abstract static class Builder {
 
@@ -0,0 +1,88 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Singleton;
+import repository.VersionRepository;
+
+/**
+ * Caches fully loaded {@link ProgramDefinition}s, i.e. with their questions synced and their blocks
+ * ordered, for programs in the current active and draft versions, and the {@link
+ * ActiveAndDraftPrograms} built from them.
+ *
+ * <p>Entries are keyed by {@link VersionRepository#getCurrentVersionsStamp()} in addition to the
+ * program id. The whole cache is dropped as soon as a lookup is made with a different stamp, which
+ * happens after a publish or any draft edit on any server.
+ */
+@Singleton
+public final class ProgramDefinitionCache {
+
+  private final AtomicReference<Entries> entries = new AtomicReference<>(new Entries(""));
+
+  /**
+   * Returns the cached program definition with the given id, or empty if it hasn't been cached
+   * since the current versions were last changed.
+   */
+  public Optional<ProgramDefinition> get(String versionsStamp, long programId) {
+    Entries current = entries.get();
+    if (!current.versionsStamp.equals(versionsStamp)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(current.programsById.get(programId));
+  }
+
+  /**
+   * Caches a fully loaded program definition. {@code versionsStamp} must have been read before the
+   * program was loaded, so that an edit made while loading it results in a stale key rather than
+   * stale data.
+   */
+  public void put(String versionsStamp, ProgramDefinition programDefinition) {
+    entries
+        .updateAndGet(
+            current ->
+                current.versionsStamp.equals(versionsStamp) ? current : new Entries(versionsStamp))
+        .programsById
+        .put(programDefinition.id(), programDefinition);
+  }
+
+  /**
+   * Returns the cached {@link ActiveAndDraftPrograms}, or empty if they haven't been cached since
+   * the current versions were last changed.
+   */
+  public Optional<ActiveAndDraftPrograms> getActiveAndDraftPrograms(String versionsStamp) {
+    Entries current = entries.get();
+    if (!current.versionsStamp.equals(versionsStamp)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(current.activeAndDraftPrograms);
+  }
+
+  /**
+   * Caches the {@link ActiveAndDraftPrograms} of the current versions. {@code versionsStamp} must
+   * have been read before the programs were loaded.
+   */
+  public void putActiveAndDraftPrograms(
+      String versionsStamp, ActiveAndDraftPrograms activeAndDraftPrograms) {
+    Entries current =
+        entries.updateAndGet(
+            previous ->
+                previous.versionsStamp.equals(versionsStamp)
+                    ? previous
+                    : new Entries(versionsStamp));
+    current.activeAndDraftPrograms = checkNotNull(activeAndDraftPrograms);
+  }
+
+  private static final class Entries {
+    private final String versionsStamp;
+    private final ConcurrentHashMap<Long, ProgramDefinition> programsById =
+        new ConcurrentHashMap<>();
+    private volatile ActiveAndDraftPrograms activeAndDraftPrograms;
+
+    private Entries(String versionsStamp) {
+      this.versionsStamp = checkNotNull(versionsStamp);
+    }
+  }
+}
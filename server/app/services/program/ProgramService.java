@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import forms.BlockForm;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import models.Application;
@@ -40,7 +41,10 @@ public interface ProgramService {
    */
   ProgramDefinition getProgramDefinition(long id) throws ProgramNotFoundException;
 
-  /** Get the data object about the programs that are in the active or draft version. */
+  /**
+   * Get the data object about the programs that are in the active or draft version. It is built
+   * once each time the current versions change, and is shared until they change again.
+   */
   ActiveAndDraftPrograms getActiveAndDraftPrograms();
 
   /**
@@ -356,6 +360,43 @@ public interface ProgramService {
       SubmittedApplicationFilter filters)
       throws ProgramNotFoundException;
 
+  /**
+   * Get a page of the submitted applications for this program and all other previous and future
+   * versions of it that match the specified filters, using identifier-based pagination.
+   *
+   * <p>Unlike {@link #getSubmittedProgramApplicationsAllVersions}, the matching applications are
+   * not counted for every page. The number of pages is derived from a count that is cached for a
+   * short time, so it may briefly lag behind newly submitted or updated applications.
+   */
+  PaginationResult<Application> getSubmittedProgramApplicationsAllVersionsPage(
+      long programId,
+      IdentifierBasedPaginationSpec<Long> paginationSpec,
+      SubmittedApplicationFilter filters);
+
+  /**
+   * Get up to {@code maxApplications} of the submitted applications for this program and all other
+   * previous and future versions of it that match the specified filters and have an id less than
+   * {@code offsetIdentifier}, in descending id order.
+   *
+   * <p>The matching applications are not counted, so this is suited to walking through all of them,
+   * e.g. for an export, by passing the id of the last application returned until fewer than {@code
+   * maxApplications} are returned.
+   */
+  ImmutableList<Application> getSubmittedProgramApplicationsAllVersionsBefore(
+      long programId,
+      long offsetIdentifier,
+      int maxApplications,
+      SubmittedApplicationFilter filters);
+
+  /**
+   * Returns the offset identifier of the page of submitted applications that precedes the page
+   * specified by {@code paginationSpec}, or empty if the preceding page is the first page.
+   */
+  Optional<Long> getPreviousSubmittedProgramApplicationsAllVersionsPageOffset(
+      long programId,
+      IdentifierBasedPaginationSpec<Long> paginationSpec,
+      SubmittedApplicationFilter filters);
+
   /** Create a new draft starting from the program specified by `id`. */
   ProgramDefinition newDraftOf(long id) throws ProgramNotFoundException;
 
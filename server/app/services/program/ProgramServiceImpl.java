@@ -8,8 +8,10 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
+import com.google.common.math.IntMath;
 import com.google.inject.Inject;
 import forms.BlockForm;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -26,6 +28,8 @@ import models.DisplayMode;
 import models.Program;
 import models.Version;
 import modules.MainModule;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import play.db.ebean.Transactional;
 import play.libs.F;
 import play.libs.concurrent.HttpExecutionContext;
@@ -47,11 +51,17 @@ import services.question.types.QuestionDefinition;
 /** Implementation class for {@link ProgramService} interface. */
 public final class ProgramServiceImpl implements ProgramService {
 
+  // How long the number of applications matching a set of filters is reused for. Counting every
+  // application to a program for each page of the admin application list doesn't scale.
+  private static final int APPLICATION_COUNT_CACHE_EXPIRATION_TIME_SECONDS = 60;
+
   private final ProgramRepository programRepository;
   private final QuestionService questionService;
   private final HttpExecutionContext httpExecutionContext;
   private final UserRepository userRepository;
   private final VersionRepository versionRepository;
+  private final ProgramDefinitionCache programDefinitionCache;
+  private final SyncCacheApi applicationCountCache;
 
   @Inject
   public ProgramServiceImpl(
@@ -59,12 +69,16 @@ public final class ProgramServiceImpl implements ProgramService {
       QuestionService questionService,
       UserRepository userRepository,
       VersionRepository versionRepository,
+      ProgramDefinitionCache programDefinitionCache,
+      @NamedCache("application-counts") SyncCacheApi applicationCountCache,
       HttpExecutionContext ec) {
     this.programRepository = checkNotNull(programRepository);
     this.questionService = checkNotNull(questionService);
     this.httpExecutionContext = checkNotNull(ec);
     this.userRepository = checkNotNull(userRepository);
     this.versionRepository = checkNotNull(versionRepository);
+    this.programDefinitionCache = checkNotNull(programDefinitionCache);
+    this.applicationCountCache = checkNotNull(applicationCountCache);
   }
 
   @Override
@@ -81,11 +95,48 @@ public final class ProgramServiceImpl implements ProgramService {
 
   @Override
   public ActiveAndDraftPrograms getActiveAndDraftPrograms() {
-    return ActiveAndDraftPrograms.buildFromCurrentVersions(this, versionRepository);
+    String versionsStamp = versionRepository.getCurrentVersionsStamp();
+    Optional<ActiveAndDraftPrograms> cachedPrograms =
+        programDefinitionCache.getActiveAndDraftPrograms(versionsStamp);
+    if (cachedPrograms.isPresent()) {
+      return cachedPrograms.get();
+    }
+
+    // The programs of both versions are loaded with one query each, and their questions are synced
+    // in memory from the questions of both versions, rather than looking up each program by id.
+    ReadOnlyQuestionService roQuestionService =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+    ActiveAndDraftPrograms activeAndDraftPrograms =
+        ActiveAndDraftPrograms.build(
+            versionRepository.getActiveVersion(),
+            versionRepository.getDraftVersion(),
+            programDefinition -> {
+              ProgramDefinition loadedProgramDefinition;
+              try {
+                loadedProgramDefinition =
+                    syncProgramDefinitionQuestions(programDefinition, roQuestionService)
+                        .orderBlockDefinitions();
+              } catch (QuestionNotFoundException e) {
+                throw new RuntimeException(
+                    String.format("Question not found for Program %s", programDefinition.id()),
+                    e);
+              }
+              programDefinitionCache.put(versionsStamp, loadedProgramDefinition);
+              return loadedProgramDefinition;
+            });
+    programDefinitionCache.putActiveAndDraftPrograms(versionsStamp, activeAndDraftPrograms);
+    return activeAndDraftPrograms;
   }
 
   @Override
   public CompletionStage<ProgramDefinition> getActiveProgramDefinitionAsync(long id) {
+    String versionsStamp = versionRepository.getCurrentVersionsStamp();
+    Optional<ProgramDefinition> cachedProgramDefinition =
+        programDefinitionCache.get(versionsStamp, id);
+    if (cachedProgramDefinition.isPresent()) {
+      return CompletableFuture.completedStage(cachedProgramDefinition.get());
+    }
+
     return programRepository
         .lookupProgram(id)
         .thenComposeAsync(
@@ -94,22 +145,37 @@ public final class ProgramServiceImpl implements ProgramService {
                 return CompletableFuture.failedFuture(new ProgramNotFoundException(id));
               }
 
-              return syncProgramAssociations(programMaybe.get());
+              return syncProgramAssociations(programMaybe.get(), versionsStamp);
             },
             httpExecutionContext.current());
   }
 
   @Override
   public CompletionStage<ProgramDefinition> getActiveProgramDefinitionAsync(String programSlug) {
+    String versionsStamp = versionRepository.getCurrentVersionsStamp();
     return programRepository
         .getForSlug(programSlug)
-        .thenComposeAsync(this::syncProgramAssociations, httpExecutionContext.current());
+        .thenComposeAsync(
+            program -> syncProgramAssociations(program, versionsStamp),
+            httpExecutionContext.current());
   }
 
-  private CompletionStage<ProgramDefinition> syncProgramAssociations(Program program) {
+  /**
+   * Syncs the program's questions and orders its blocks. Programs in the current active or draft
+   * version are added to the {@link ProgramDefinitionCache} under {@code versionsStamp}, which must
+   * have been read before the program was loaded.
+   */
+  private CompletionStage<ProgramDefinition> syncProgramAssociations(
+      Program program, String versionsStamp) {
     if (isActiveOrDraftProgram(program)) {
       return syncProgramDefinitionQuestions(program.getProgramDefinition())
-          .thenApply(programDefinition -> programDefinition.orderBlockDefinitions());
+          .thenApply(
+              programDefinition -> {
+                ProgramDefinition orderedProgramDefinition =
+                    programDefinition.orderBlockDefinitions();
+                programDefinitionCache.put(versionsStamp, orderedProgramDefinition);
+                return orderedProgramDefinition;
+              });
     }
 
     // Any version that the program is in has all the questions the program has.
@@ -817,6 +883,49 @@ public final class ProgramServiceImpl implements ProgramService {
         programId, paginationSpecEither, filters);
   }
 
+  @Override
+  public ImmutableList<Application> getSubmittedProgramApplicationsAllVersionsBefore(
+      long programId,
+      long offsetIdentifier,
+      int maxApplications,
+      SubmittedApplicationFilter filters) {
+    return programRepository.getApplicationsForAllProgramVersionsBefore(
+        programId, offsetIdentifier, maxApplications, filters);
+  }
+
+  @Override
+  public PaginationResult<Application> getSubmittedProgramApplicationsAllVersionsPage(
+      long programId,
+      IdentifierBasedPaginationSpec<Long> paginationSpec,
+      SubmittedApplicationFilter filters) {
+    int pageSize = paginationSpec.getPageSize();
+    // One more application than fits on the page is loaded to tell whether there is a next page.
+    ImmutableList<Application> applications =
+        programRepository.getApplicationsForAllProgramVersionsBefore(
+            programId,
+            paginationSpec.getCurrentPageOffsetIdentifier(),
+            IntMath.saturatedAdd(pageSize, 1),
+            filters);
+    int applicationCount =
+        applicationCountCache.getOrElseUpdate(
+            String.format("%d:%s", programId, filters),
+            () -> programRepository.countApplicationsForAllProgramVersions(programId, filters),
+            APPLICATION_COUNT_CACHE_EXPIRATION_TIME_SECONDS);
+
+    return new PaginationResult<>(
+        applications.size() > pageSize,
+        IntMath.divide(applicationCount, pageSize, RoundingMode.CEILING),
+        applications.subList(0, Math.min(applications.size(), pageSize)));
+  }
+
+  @Override
+  public Optional<Long> getPreviousSubmittedProgramApplicationsAllVersionsPageOffset(
+      long programId,
+      IdentifierBasedPaginationSpec<Long> paginationSpec,
+      SubmittedApplicationFilter filters) {
+    return programRepository.getPreviousPageOffsetIdentifier(programId, paginationSpec, filters);
+  }
+
   @Override
   public ProgramDefinition newDraftOf(long id) throws ProgramNotFoundException {
     // Note: It's unclear that we actually want to update an existing draft this way, as it would
@@ -847,8 +956,11 @@ public final class ProgramServiceImpl implements ProgramService {
 
   @Override
   public ImmutableList<ProgramDefinition> getAllProgramDefinitionVersions(long programId) {
+    String versionsStamp = versionRepository.getCurrentVersionsStamp();
     return programRepository.getAllProgramVersions(programId).stream()
-        .map(program -> syncProgramAssociations(program).toCompletableFuture().join())
+        .map(
+            program ->
+                syncProgramAssociations(program, versionsStamp).toCompletableFuture().join())
         .collect(ImmutableList.toImmutableList());
   }
 
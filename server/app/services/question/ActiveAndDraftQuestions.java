@@ -23,9 +23,10 @@ import services.question.types.QuestionDefinition;
 
 /**
  * A data class storing the current active and draft questions. For efficient querying of
- * information about current active / draft questions which does not hit the database. Lifespan
- * should be measured in milliseconds - seconds at the maximum - within one request serving path -
- * because it does not have any mechanism for a refresh.
+ * information about current active / draft questions which does not hit the database. It does not
+ * have any mechanism for a refresh, so it should either be discarded at the end of one request
+ * serving path or be held by a cache keyed on the state of the current versions, like {@link
+ * ReadOnlyQuestionServiceCache}.
  */
 public final class ActiveAndDraftQuestions {
 
@@ -35,13 +35,16 @@ public final class QuestionService {
 
   private final QuestionRepository questionRepository;
   private final Provider<VersionRepository> versionRepositoryProvider;
+  private final ReadOnlyQuestionServiceCache readOnlyQuestionServiceCache;
 
   @Inject
   public QuestionService(
       QuestionRepository questionRepository,
-      Provider<VersionRepository> versionRepositoryProvider) {
+      Provider<VersionRepository> versionRepositoryProvider,
+      ReadOnlyQuestionServiceCache readOnlyQuestionServiceCache) {
     this.questionRepository = checkNotNull(questionRepository);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+    this.readOnlyQuestionServiceCache = checkNotNull(readOnlyQuestionServiceCache);
   }
 
   /**
@@ -95,8 +98,12 @@ public final class QuestionService {
     return CompletableFuture.completedStage(readOnlyQuestionService());
   }
 
+  /**
+   * The snapshot is shared across requests and only rebuilt when the current versions change, see
+   * {@link ReadOnlyQuestionServiceCache}.
+   */
   private ReadOnlyQuestionService readOnlyQuestionService() {
-    return new ReadOnlyCurrentQuestionServiceImpl(versionRepositoryProvider.get());
+    return readOnlyQuestionServiceCache.get();
   }
 
   /**
@@ -167,6 +174,7 @@ public final class QuestionService {
       throw new InvalidUpdateException("Not tombstoned.");
     }
     draftVersion.save();
+    readOnlyQuestionServiceCache.invalidate();
   }
 
   /** If this question is not used in any program, archive it. */
@@ -188,6 +196,7 @@ public final class QuestionService {
       throw new InvalidUpdateException("Already tombstoned.");
     }
     draftVersion.save();
+    readOnlyQuestionServiceCache.invalidate();
   }
 
   /** If this is a draft question, remove it from the draft version and update all programs. */
@@ -221,6 +230,7 @@ public final class QuestionService {
       throw new InvalidUpdateException("Did not find question in draft version.");
     }
     question.save();
+    readOnlyQuestionServiceCache.invalidate();
 
     // Note: The above section removed the question from the draft version and saved it, so that the
     // enmasse program update below sees the relevant latest version of the question.  However if
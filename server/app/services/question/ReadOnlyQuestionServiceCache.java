@@ -0,0 +1,65 @@
+package services.question;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import repository.VersionRepository;
+
+/**
+ * Holds an immutable {@link ReadOnlyQuestionService} snapshot of the current active and draft
+ * versions that is shared across requests.
+ *
+ * <p>Building a {@link ReadOnlyCurrentQuestionServiceImpl} loads every question in both versions
+ * along with the programs that reference them. The snapshot is keyed by {@link
+ * VersionRepository#getCurrentVersionsStamp()} and is only rebuilt once that stamp changes, e.g.
+ * when a new version is published, a draft question or program is edited, or a question is
+ * tombstoned.
+ */
+@Singleton
+public final class ReadOnlyQuestionServiceCache {
+
+  private final Provider<VersionRepository> versionRepositoryProvider;
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+  @Inject
+  public ReadOnlyQuestionServiceCache(Provider<VersionRepository> versionRepositoryProvider) {
+    this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+  }
+
+  /**
+   * Returns the {@link ReadOnlyQuestionService} for the current active and draft versions, building
+   * a new one if they have changed since the cached snapshot was built.
+   */
+  public ReadOnlyQuestionService get() {
+    VersionRepository versionRepository = versionRepositoryProvider.get();
+    // The stamp is read before the snapshot is built, so a change made while building results in
+    // a stale key rather than stale data, and the snapshot is rebuilt on the next call.
+    String stamp = versionRepository.getCurrentVersionsStamp();
+    Snapshot current = snapshot.get();
+    if (current != null && current.stamp.equals(stamp)) {
+      return current.readOnlyQuestionService;
+    }
+    ReadOnlyQuestionService readOnlyQuestionService =
+        new ReadOnlyCurrentQuestionServiceImpl(versionRepository);
+    snapshot.set(new Snapshot(stamp, readOnlyQuestionService));
+    return readOnlyQuestionService;
+  }
+
+  /** Drops the cached snapshot so that the next call to {@link #get()} rebuilds it. */
+  public void invalidate() {
+    snapshot.set(null);
+  }
+
+  private static final class Snapshot {
+    private final String stamp;
+    private final ReadOnlyQuestionService readOnlyQuestionService;
+
+    private Snapshot(String stamp, ReadOnlyQuestionService readOnlyQuestionService) {
+      this.stamp = checkNotNull(stamp);
+      this.readOnlyQuestionService = checkNotNull(readOnlyQuestionService);
+    }
+  }
+}
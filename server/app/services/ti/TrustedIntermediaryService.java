@@ -2,12 +2,10 @@ package services.ti;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
 import forms.AddApplicantToTrustedIntermediaryGroupForm;
 import forms.UpdateApplicantDobForm;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Locale;
 import java.util.Optional;
 import javax.inject.Inject;
 import models.Account;
@@ -17,6 +15,7 @@ import play.data.Form;
 import repository.SearchParameters;
 import repository.UserRepository;
 import services.DateConverter;
+import services.PageNumberBasedPaginationSpec;
 import services.applicant.exception.ApplicantNotFoundException;
 
 /**
@@ -117,7 +116,8 @@ public final class TrustedIntermediaryService {
   }
 
   /**
-   * Gets all the TrustedIntermediaryAccount managed by the given TI Group with/without filtering
+   * Gets a page of the TrustedIntermediaryAccounts managed by the given TI Group with/without
+   * filtering. The accounts are sorted by the applicant's name.
    *
    * @param searchParameters - This object contains a nameQuery and/or a dateQuery String. If both
    *     are empty- an unfiltered list of accounts is returned. If nameQuery is present- a match
@@ -125,52 +125,32 @@ public final class TrustedIntermediaryService {
    *     a match between the Account holder's Date of Birth and the dateQuery is performed - the
    *     matched results are collected and sent as an Immutable List.
    * @param tiGroup - this is TrustedIntermediaryGroup for which the list of associated account is
-   *     requested. This is needed to fetch all the accounts from the user repository.
-   * @return a result object containing the ListOfAccounts which may be filtered by the Search
-   *     Parameter and an optional errorMessage which is generated if the filtering has failed.
+   *     requested. This is needed to fetch the accounts from the user repository.
+   * @param paginationSpec - the page of accounts to return.
+   * @return a result object containing the requested page of accounts, which may be filtered by the
+   *     Search Parameter, and an optional errorMessage which is generated if the filtering has
+   *     failed.
    */
   public TrustedIntermediarySearchResult getManagedAccounts(
-      SearchParameters searchParameters, TrustedIntermediaryGroup tiGroup) {
-    ImmutableList<Account> allAccounts = tiGroup.getManagedAccounts();
-    if (searchParameters.nameQuery().isEmpty() && searchParameters.dateQuery().isEmpty()) {
-      return TrustedIntermediarySearchResult.success(allAccounts);
-    }
-    final ImmutableList<Account> searchedResult;
+      SearchParameters searchParameters,
+      TrustedIntermediaryGroup tiGroup,
+      PageNumberBasedPaginationSpec paginationSpec) {
+    Optional<String> nameQuery = searchParameters.nameQuery().filter(query -> !query.isEmpty());
+    Optional<LocalDate> dateQuery;
     try {
-      searchedResult = searchAccounts(searchParameters, allAccounts);
+      dateQuery =
+          searchParameters
+              .dateQuery()
+              .filter(query -> !query.isEmpty())
+              .map(dateConverter::parseIso8601DateToLocalDate);
     } catch (DateTimeParseException e) {
       return TrustedIntermediarySearchResult.fail(
-          allAccounts, "Please enter date in MM/dd/yyyy format");
+          userRepository.searchManagedAccounts(
+              tiGroup.id, Optional.empty(), Optional.empty(), paginationSpec),
+          "Please enter date in MM/dd/yyyy format");
     }
-    return TrustedIntermediarySearchResult.success(searchedResult);
-  }
-
-  private ImmutableList<Account> searchAccounts(
-      SearchParameters searchParameters, ImmutableList<Account> allAccounts) {
-    ;
-    return allAccounts.stream()
-        .filter(
-            account ->
-                ((account.newestApplicant().get().getApplicantData().getDateOfBirth().isPresent()
-                        && searchParameters.dateQuery().isPresent()
-                        && !searchParameters.dateQuery().get().isEmpty()
-                        && account
-                            .newestApplicant()
-                            .get()
-                            .getApplicantData()
-                            .getDateOfBirth()
-                            .get()
-                            .equals(
-                                dateConverter.parseIso8601DateToLocalDate(
-                                    searchParameters.dateQuery().get())))
-                    || (searchParameters.nameQuery().isPresent()
-                        && !searchParameters.nameQuery().get().isEmpty()
-                        && account
-                            .getApplicantName()
-                            .toLowerCase(Locale.ROOT)
-                            .contains(
-                                searchParameters.nameQuery().get().toLowerCase(Locale.ROOT)))))
-        .collect(ImmutableList.toImmutableList());
+    return TrustedIntermediarySearchResult.success(
+        userRepository.searchManagedAccounts(tiGroup.id, nameQuery, dateQuery, paginationSpec));
   }
 
   /**
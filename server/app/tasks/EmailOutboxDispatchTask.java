@@ -0,0 +1,108 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import javax.inject.Inject;
+import models.OutboxEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.EmailOutboxRepository;
+import services.cloud.aws.SimpleEmail;
+
+/**
+ * Sends the emails queued in the {@link EmailOutboxRepository}, in batches of {@link #BATCH_SIZE}
+ * until no more are due.
+ *
+ * <p>A failed send is retried with an exponential backoff, starting at {@link #INITIAL_BACKOFF} and
+ * up to {@link #MAX_BACKOFF}, and is given up on after {@link #MAX_ATTEMPTS} attempts. Emails that
+ * were being sent when a server stopped are retried once {@link #ATTEMPT_TIMEOUT} has passed.
+ *
+ * <p>Emails that were sent or given up on are deleted by {@link #purgeFinishedEmails()} once they
+ * are older than {@link #RETENTION}.
+ *
+ * <p>Errors are logged rather than thrown, since the task is run repeatedly by a scheduler that
+ * stops repeating a task that throws.
+ */
+public final class EmailOutboxDispatchTask implements Runnable {
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatchTask.class);
+
+  @VisibleForTesting static final int BATCH_SIZE = 20;
+  @VisibleForTesting static final int MAX_ATTEMPTS = 8;
+  private static final Duration INITIAL_BACKOFF = Duration.ofMinutes(1);
+  private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+  private static final Duration ATTEMPT_TIMEOUT = Duration.ofMinutes(5);
+  @VisibleForTesting static final Duration RETENTION = Duration.ofDays(7);
+
+  private final EmailOutboxRepository emailOutboxRepository;
+  private final SimpleEmail simpleEmail;
+  private final Clock clock;
+
+  @Inject
+  public EmailOutboxDispatchTask(
+      EmailOutboxRepository emailOutboxRepository, SimpleEmail simpleEmail, Clock clock) {
+    this.emailOutboxRepository = checkNotNull(emailOutboxRepository);
+    this.simpleEmail = checkNotNull(simpleEmail);
+    this.clock = checkNotNull(clock);
+  }
+
+  @Override
+  public void run() {
+    try {
+      ImmutableList<OutboxEmail> batch;
+      do {
+        Instant now = clock.instant();
+        batch = emailOutboxRepository.claimDueEmails(BATCH_SIZE, now, now.plus(ATTEMPT_TIMEOUT));
+        batch.forEach(this::send);
+      } while (batch.size() == BATCH_SIZE);
+    } catch (RuntimeException e) {
+      logger.error("Failed to send queued emails", e);
+    }
+  }
+
+  /** Deletes the emails that were sent or given up on more than {@link #RETENTION} ago. */
+  public void purgeFinishedEmails() {
+    try {
+      int deleted = emailOutboxRepository.deleteFinishedEmails(clock.instant().minus(RETENTION));
+      if (deleted > 0) {
+        logger.info("Deleted {} sent or abandoned emails", deleted);
+      }
+    } catch (RuntimeException e) {
+      logger.error("Failed to delete sent or abandoned emails", e);
+    }
+  }
+
+  private void send(OutboxEmail email) {
+    try {
+      simpleEmail.deliver(email.getToAddresses(), email.getSubject(), email.getBody());
+    } catch (RuntimeException e) {
+      Optional<Instant> retryTime =
+          email.getAttempts() < MAX_ATTEMPTS
+              ? Optional.of(clock.instant().plus(backoff(email.getAttempts())))
+              : Optional.empty();
+      if (retryTime.isEmpty()) {
+        logger.error(
+            "Giving up on sending email {} after {} attempts", email.id, email.getAttempts(), e);
+      } else {
+        logger.warn("Failed to send email {}, retrying at {}", email.id, retryTime.get(), e);
+      }
+      emailOutboxRepository.markFailed(email, e.toString(), retryTime);
+      return;
+    }
+    emailOutboxRepository.markSent(email, clock.instant());
+  }
+
+  /** The time to wait before retrying after the given number of failed attempts. */
+  private static Duration backoff(int attempts) {
+    Duration backoff = INITIAL_BACKOFF;
+    for (int i = 1; i < attempts && backoff.compareTo(MAX_BACKOFF) < 0; i++) {
+      backoff = backoff.multipliedBy(2);
+    }
+    return backoff.compareTo(MAX_BACKOFF) < 0 ? backoff : MAX_BACKOFF;
+  }
+}
@@ -0,0 +1,56 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.UserRepository;
+
+/**
+ * Deletes the guest accounts, and their applicants, of visitors who continued as a guest but never
+ * started an application, once they are older than {@link #RETENTION}. Deletes them in batches of
+ * {@link #BATCH_SIZE} until none are left.
+ *
+ * <p>A visitor whose guest account is deleted while they are still signed in is signed out by
+ * {@link filters.ValidAccountFilter} on their next request.
+ */
+public final class GuestAccountReaperTask implements Runnable {
+  private static final Logger logger = LoggerFactory.getLogger(GuestAccountReaperTask.class);
+
+  @VisibleForTesting static final int BATCH_SIZE = 500;
+  @VisibleForTesting static final Duration RETENTION = Duration.ofDays(30);
+
+  private final UserRepository userRepository;
+  private final Clock clock;
+
+  @Inject
+  public GuestAccountReaperTask(UserRepository userRepository, Clock clock) {
+    this.userRepository = checkNotNull(userRepository);
+    this.clock = checkNotNull(clock);
+  }
+
+  @Override
+  public void run() {
+    // The scheduler stops running a task that throws, so failures are logged and the remaining
+    // accounts are deleted on the next run.
+    Instant createdBefore = clock.instant().minus(RETENTION);
+    int deleted = 0;
+    try {
+      int batch;
+      do {
+        batch = userRepository.deleteUnusedGuestAccounts(createdBefore, BATCH_SIZE);
+        deleted += batch;
+      } while (batch == BATCH_SIZE);
+    } catch (RuntimeException e) {
+      logger.error("Failed to delete unused guest accounts", e);
+    }
+    if (deleted > 0) {
+      logger.info("Deleted {} unused guest accounts", deleted);
+    }
+  }
+}
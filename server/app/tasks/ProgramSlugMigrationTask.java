@@ -0,0 +1,36 @@
+package tasks;
+
+import io.ebean.DB;
+import io.ebean.Database;
+import java.util.List;
+import models.Program;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the slug of programs that were saved before slugs were stored with them. Until then, the
+ * slug of such a program is derived from its name whenever it's loaded. This task is idempotent
+ * and runs at server start.
+ */
+public final class ProgramSlugMigrationTask implements Runnable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProgramSlugMigrationTask.class);
+
+  private final Database database;
+
+  public ProgramSlugMigrationTask() {
+    this.database = DB.getDefault();
+  }
+
+  @Override
+  public void run() {
+    List<Program> programs = database.find(Program.class).where().isNull("slug").findList();
+    for (Program program : programs) {
+      // Sets the slug from the program's name.
+      program.getSlug();
+      program.save();
+    }
+    if (!programs.isEmpty()) {
+      LOGGER.info("ProgramSlugMigrationCompleted: stored slugs of {} programs", programs.size());
+    }
+  }
+}
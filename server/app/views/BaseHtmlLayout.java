@@ -1,6 +1,7 @@
 package views;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static j2html.TagCreator.each;
 import static j2html.TagCreator.meta;
 import static j2html.TagCreator.rawHtml;
 import static j2html.TagCreator.script;
@@ -10,6 +11,7 @@ import com.google.common.collect.ImmutableList;
 import com.typesafe.config.Config;
 import j2html.tags.specialized.ScriptTag;
 import java.net.URI;
+import java.util.Arrays;
 import javax.inject.Inject;
 import play.twirl.api.Content;
 import views.components.ToastMessage;
@@ -74,8 +76,12 @@ public class BaseHtmlLayout {
   public HtmlBundle getBundle(HtmlBundle bundle) {
     // Add basic page metadata.
     bundle.addMetadata(
-        meta().withName("viewport").withContent("width=device-width, initial-scale=1"));
-    bundle.addMetadata(meta().withName("civiform-build-tag").withContent(civiformImageTag));
+        viewUtils.cachedFragment(
+            "base-metadata",
+            () ->
+                each(
+                    meta().withName("viewport").withContent("width=device-width, initial-scale=1"),
+                    meta().withName("civiform-build-tag").withContent(civiformImageTag))));
 
     // Add the warning toast, only for staging
     if (isStaging) {
@@ -90,13 +96,14 @@ public class BaseHtmlLayout {
     // Add default stylesheets.
     bundle.addStylesheets(viewUtils.makeLocalCssTag(TAILWIND_COMPILED_FILENAME));
 
-    // Add Google analytics scripts.
-    bundle.addFooterScripts(getAnalyticsScripts(measurementId).toArray(new ScriptTag[0]));
-
-    // Add default scripts.
-    for (String source : FOOTER_SCRIPTS) {
-      bundle.addFooterScripts(viewUtils.makeLocalJsTag(source));
-    }
+    // Add Google analytics scripts and default scripts.
+    bundle.addFooterScripts(
+        viewUtils.cachedFragment(
+            "base-footer-scripts",
+            () ->
+                each(
+                    each(getAnalyticsScripts(measurementId), script -> script),
+                    each(Arrays.asList(FOOTER_SCRIPTS), viewUtils::makeLocalJsTag))));
     // Add the favicon link
     bundle.setFavicon(civiformFaviconUrl);
 
@@ -108,13 +115,18 @@ public class BaseHtmlLayout {
    * page.
    */
   public Content render(HtmlBundle bundle) {
+    addTitleSuffix(bundle);
+    return bundle.render();
+  }
+
+  /** Adds this layout's suffix to the title of the page in {@code bundle}. */
+  protected void addTitleSuffix(HtmlBundle bundle) {
     String currentTitle = bundle.getTitle();
     if (Strings.isNullOrEmpty(currentTitle)) {
       bundle.setTitle(getTitleSuffix());
     } else {
       bundle.setTitle(String.format("%s — %s", currentTitle, getTitleSuffix()));
     }
-    return bundle.render();
   }
 
   protected String getTitleSuffix() {
@@ -20,6 +20,7 @@ import j2html.tags.specialized.H1Tag;
 import j2html.tags.specialized.InputTag;
 import j2html.tags.specialized.PTag;
 import j2html.tags.specialized.SpanTag;
+import java.util.Optional;
 import java.util.function.Function;
 import org.apache.commons.lang3.RandomStringUtils;
 import play.i18n.Messages;
@@ -111,12 +112,24 @@ public abstract class BaseHtmlView {
 
   protected DivTag renderPaginationDiv(
       int page, int pageCount, Function<Integer, Call> linkForPage) {
+    return renderPaginationDiv(
+        page,
+        pageCount,
+        page <= 1 ? Optional.empty() : Optional.of(linkForPage.apply(page - 1)),
+        pageCount > page ? Optional.of(linkForPage.apply(page + 1)) : Optional.empty());
+  }
+
+  /**
+   * Renders pagination controls with links to the given previous and next pages, for pages that
+   * can't be linked to by their page number alone.
+   */
+  protected DivTag renderPaginationDiv(
+      int page, int pageCount, Optional<Call> previousPage, Optional<Call> nextPage) {
     DivTag div = div();
-    if (page <= 1) {
+    if (previousPage.isEmpty()) {
       div.with(new LinkElement().setText("∅").asButtonNoHref());
     } else {
-      div.with(
-          new LinkElement().setText("←").setHref(linkForPage.apply(page - 1).url()).asButton());
+      div.with(new LinkElement().setText("←").setHref(previousPage.get().url()).asButton());
     }
     String paginationText =
         pageCount > 0 ? String.format("Page %d of %d", page, pageCount) : "No results";
@@ -124,9 +137,8 @@ public abstract class BaseHtmlView {
         div(paginationText)
             .withClasses(
                 Styles.LEADING_3, Styles.FLOAT_LEFT, Styles.INLINE_BLOCK, Styles.P_2, Styles.M_4));
-    if (pageCount > page) {
-      div.with(
-          new LinkElement().setText("→").setHref(linkForPage.apply(page + 1).url()).asButton());
+    if (nextPage.isPresent()) {
+      div.with(new LinkElement().setText("→").setHref(nextPage.get().url()).asButton());
     } else {
       div.with(new LinkElement().setText("∅").asButtonNoHref());
     }
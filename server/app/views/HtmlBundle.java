@@ -9,10 +9,18 @@ import static j2html.TagCreator.header;
 import static j2html.TagCreator.html;
 import static j2html.TagCreator.link;
 import static j2html.TagCreator.main;
+import static j2html.TagCreator.rawHtml;
 import static j2html.TagCreator.title;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import j2html.tags.DomContent;
 import j2html.tags.Tag;
+import j2html.tags.UnescapedText;
 import j2html.tags.specialized.BodyTag;
 import j2html.tags.specialized.DivTag;
 import j2html.tags.specialized.FooterTag;
@@ -26,7 +34,9 @@ import j2html.tags.specialized.ScriptTag;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.twirl.api.Content;
@@ -37,22 +47,26 @@ import views.style.BaseStyles;
 /** The HtmlBundle class stores all of the data necessary for rendering a page. */
 public final class HtmlBundle {
   private static final Logger logger = LoggerFactory.getLogger(HtmlBundle.class);
+  // Streamed items are sent in groups so that long lists aren't sent as many tiny chunks.
+  private static final int STREAMED_ITEMS_PER_CHUNK = 25;
 
   private String pageTitle;
   private String language = "en";
   private Optional<String> faviconURL = Optional.empty();
 
   private ArrayList<String> bodyStyles = new ArrayList<>();
-  private ArrayList<Tag> footerContent = new ArrayList<>();
-  private ArrayList<ScriptTag> footerScripts = new ArrayList<>();
+  private ArrayList<DomContent> footerContent = new ArrayList<>();
+  private ArrayList<DomContent> footerScripts = new ArrayList<>();
   private ArrayList<String> footerStyles = new ArrayList<>();
   private ArrayList<ScriptTag> headScripts = new ArrayList<>();
-  private ArrayList<Tag> headerContent = new ArrayList<>();
+  private ArrayList<DomContent> headerContent = new ArrayList<>();
   private ArrayList<String> headerStyles = new ArrayList<>();
   private ArrayList<Tag> mainContent = new ArrayList<>();
   private ArrayList<String> mainStyles = new ArrayList<>();
-  private ArrayList<MetaTag> metadata = new ArrayList<>();
+  private ArrayList<DomContent> metadata = new ArrayList<>();
   private ArrayList<Modal> modals = new ArrayList<>();
+  private ArrayList<DomContent> streamedModals = new ArrayList<>();
+  private ArrayList<Iterable<? extends DomContent>> streamedContent = new ArrayList<>();
   private ArrayList<LinkTag> stylesheets = new ArrayList<>();
   private ArrayList<ToastMessage> toastMessages = new ArrayList<>();
 
@@ -66,11 +80,23 @@ public final class HtmlBundle {
     return this;
   }
 
+  /** Adds footer content rendered ahead of time, see {@link HtmlFragmentCache}. */
+  public HtmlBundle addFooterContent(UnescapedText renderedContent) {
+    footerContent.add(renderedContent);
+    return this;
+  }
+
   public HtmlBundle addFooterScripts(ScriptTag... sources) {
     footerScripts.addAll(Arrays.asList(sources));
     return this;
   }
 
+  /** Adds footer scripts rendered ahead of time, see {@link HtmlFragmentCache}. */
+  public HtmlBundle addFooterScripts(UnescapedText renderedScripts) {
+    footerScripts.add(renderedScripts);
+    return this;
+  }
+
   public HtmlBundle addFooterStyles(String... styles) {
     footerStyles.addAll(Arrays.asList(styles));
     return this;
@@ -86,6 +112,12 @@ public final class HtmlBundle {
     return this;
   }
 
+  /** Adds header content rendered ahead of time, see {@link HtmlFragmentCache}. */
+  public HtmlBundle addHeaderContent(UnescapedText renderedContent) {
+    headerContent.add(renderedContent);
+    return this;
+  }
+
   public HtmlBundle addHeaderStyles(String... styles) {
     headerStyles.addAll(Arrays.asList(styles));
     return this;
@@ -106,6 +138,12 @@ public final class HtmlBundle {
     return this;
   }
 
+  /** Adds metadata rendered ahead of time, see {@link HtmlFragmentCache}. */
+  public HtmlBundle addMetadata(UnescapedText renderedMetadata) {
+    metadata.add(renderedMetadata);
+    return this;
+  }
+
   public HtmlBundle addStylesheets(LinkTag... sources) {
     stylesheets.addAll(Arrays.asList(sources));
     return this;
@@ -125,6 +163,28 @@ public final class HtmlBundle {
     return this;
   }
 
+  /**
+   * Adds modals that are only iterated once the page content before them has been rendered, see
+   * {@link #streamedContent(Iterable)}. This lets a page add the modals of rows that are streamed.
+   */
+  public HtmlBundle addStreamedModals(Iterable<Modal> modalTags) {
+    streamedModals.add(streamedContent(Iterables.transform(modalTags, Modal::getContainerTag)));
+    return this;
+  }
+
+  /**
+   * Returns a placeholder for {@code items} to add anywhere in the page, such as the rows of a long
+   * list.
+   *
+   * <p>When the page is sent with {@link #renderStreamed()}, the items are only iterated and
+   * rendered once the page content before them has been sent, so they should be a lazy view of the
+   * data, e.g. from {@link Iterables#transform}, rather than a list of tags built up front.
+   */
+  public DomContent streamedContent(Iterable<? extends DomContent> items) {
+    streamedContent.add(items);
+    return rawHtml(streamedContentPlaceholder(streamedContent.size() - 1));
+  }
+
   private HtmlTag getContent() {
     return html(renderHead(), renderBody()).withLang(language);
   }
@@ -238,23 +298,101 @@ public final class HtmlBundle {
               "Multiple (%d) modals found containing display on load.", displayOnLoadModalCount));
     }
     modals.forEach(modal -> modalContainer.with(modal.getContainerTag()));
+    modalContainer.with(streamedModals);
     return modalContainer;
   }
 
   public Content render() {
-    return new HtmlBundleContent(getContent());
+    return new HtmlBundleContent(renderPageParts());
+  }
+
+  /**
+   * Renders the page as a stream that sends everything before the first streamed content right
+   * away, and then renders the streamed items as they are sent. See {@link
+   * #streamedContent(Iterable)}.
+   */
+  public Source<ByteString, ?> renderStreamed() {
+    PageParts page = renderPageParts();
+    Source<ByteString, NotUsed> source = Source.single(ByteString.fromString(page.parts.get(0)));
+    for (int i = 0; i < page.items.size(); i++) {
+      Iterable<? extends DomContent> items = page.items.get(i);
+      // The items are only iterated once they are reached, so that they can depend on the items
+      // before them, e.g. modals added while rendering rows.
+      Source<ByteString, ?> renderedItems =
+          Source.lazySource(() -> Source.from(items).map(DomContent::render))
+              .grouped(STREAMED_ITEMS_PER_CHUNK)
+              .map(rendered -> ByteString.fromString(String.join("", rendered)));
+      source =
+          source
+              .concat(renderedItems)
+              .concat(Source.single(ByteString.fromString(page.parts.get(i + 1))));
+    }
+    return source;
+  }
+
+  private static String streamedContentPlaceholder(int index) {
+    // Text content is escaped, so it can't contain a comment that matches the placeholder.
+    return String.format("<!--streamed-content-%d-->", index);
+  }
+
+  /** Serializes the page and splits it at the placeholders of its streamed content. */
+  private PageParts renderPageParts() {
+    String page = document(getContent());
+    ImmutableList<Integer> indicesInPageOrder =
+        IntStream.range(0, streamedContent.size())
+            .boxed()
+            .sorted(Comparator.comparing(index -> page.indexOf(streamedContentPlaceholder(index))))
+            .collect(ImmutableList.toImmutableList());
+
+    ImmutableList.Builder<String> parts = ImmutableList.builder();
+    ImmutableList.Builder<Iterable<? extends DomContent>> items = ImmutableList.builder();
+    int partStart = 0;
+    for (int index : indicesInPageOrder) {
+      String placeholder = streamedContentPlaceholder(index);
+      int placeholderStart = page.indexOf(placeholder, partStart);
+      if (placeholderStart < 0) {
+        throw new IllegalStateException("Streamed content was not added to the page.");
+      }
+      parts.add(page.substring(partStart, placeholderStart));
+      items.add(streamedContent.get(index));
+      partStart = placeholderStart + placeholder.length();
+    }
+    parts.add(page.substring(partStart));
+    return new PageParts(parts.build(), items.build());
+  }
+
+  /** The serialized page, split around the streamed items that are rendered between its parts. */
+  private static final class PageParts {
+    private final ImmutableList<String> parts;
+    private final ImmutableList<Iterable<? extends DomContent>> items;
+
+    private PageParts(
+        ImmutableList<String> parts, ImmutableList<Iterable<? extends DomContent>> items) {
+      this.parts = parts;
+      this.items = items;
+    }
   }
 
   private static class HtmlBundleContent implements Content {
-    HtmlTag bundleContent;
+    PageParts page;
+    // Layouts inspect the body before it's sent, so it's only serialized once.
+    String body;
 
-    public HtmlBundleContent(HtmlTag bundleContent) {
-      this.bundleContent = bundleContent;
+    public HtmlBundleContent(PageParts page) {
+      this.page = page;
     }
 
     @Override
     public String body() {
-      return document(bundleContent);
+      if (body == null) {
+        StringBuilder builder = new StringBuilder(page.parts.get(0));
+        for (int i = 0; i < page.items.size(); i++) {
+          page.items.get(i).forEach(item -> builder.append(item.render()));
+          builder.append(page.parts.get(i + 1));
+        }
+        body = builder.toString();
+      }
+      return body;
     }
 
     @Override
@@ -0,0 +1,34 @@
+package views;
+
+import static j2html.TagCreator.rawHtml;
+
+import j2html.tags.DomContent;
+import j2html.tags.UnescapedText;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.inject.Singleton;
+
+/**
+ * Caches the HTML of page fragments that are the same for every request with the same key, such as
+ * the scripts every page loads or the admin navigation bar for an admin type, so that they are
+ * built and serialized once rather than for every page.
+ *
+ * <p>A key must identify everything its fragment depends on, e.g. the locale of translated text or
+ * the role of the user. Fragments that depend on the request itself, such as ones containing a
+ * CSRF token or the user's name, must not be cached.
+ *
+ * <p>Asset URLs in fragments contain the assets' digests, which don't change while the application
+ * is running, so they are not part of the keys.
+ */
+@Singleton
+public final class HtmlFragmentCache {
+  private final ConcurrentHashMap<String, UnescapedText> fragments = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the rendered HTML of the fragment with the given key, which is rendered with {@code
+   * fragment} the first time the key is used.
+   */
+  public UnescapedText get(String key, Supplier<? extends DomContent> fragment) {
+    return fragments.computeIfAbsent(key, unused -> rawHtml(fragment.get().render()));
+  }
+}
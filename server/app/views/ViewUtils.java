@@ -10,6 +10,8 @@ import static j2html.TagCreator.span;
 
 import com.google.common.base.Joiner;
 import controllers.AssetsFinder;
+import j2html.tags.DomContent;
+import j2html.tags.UnescapedText;
 import j2html.tags.specialized.ButtonTag;
 import j2html.tags.specialized.ImgTag;
 import j2html.tags.specialized.LinkTag;
@@ -17,6 +19,7 @@ import j2html.tags.specialized.PTag;
 import j2html.tags.specialized.ScriptTag;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import services.DateConverter;
 import views.components.Icons;
@@ -29,11 +32,22 @@ import views.style.Styles;
 public final class ViewUtils {
   private final AssetsFinder assetsFinder;
   private final DateConverter dateConverter;
+  private final HtmlFragmentCache htmlFragmentCache;
 
   @Inject
-  ViewUtils(AssetsFinder assetsFinder, DateConverter dateConverter) {
+  ViewUtils(
+      AssetsFinder assetsFinder, DateConverter dateConverter, HtmlFragmentCache htmlFragmentCache) {
     this.assetsFinder = checkNotNull(assetsFinder);
     this.dateConverter = checkNotNull(dateConverter);
+    this.htmlFragmentCache = checkNotNull(htmlFragmentCache);
+  }
+
+  /**
+   * Returns the HTML of a fragment that is the same for every request with the given key, rendering
+   * it with {@code fragment} only the first time. See {@link HtmlFragmentCache}.
+   */
+  public UnescapedText cachedFragment(String key, Supplier<? extends DomContent> fragment) {
+    return htmlFragmentCache.get(key, fragment);
   }
 
   /**
@@ -2,14 +2,18 @@ package views.admin;
 
 import static j2html.TagCreator.a;
 import static j2html.TagCreator.div;
+import static j2html.TagCreator.each;
 import static j2html.TagCreator.nav;
 import static j2html.TagCreator.span;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.typesafe.config.Config;
 import controllers.admin.routes;
 import j2html.tags.specialized.ATag;
 import j2html.tags.specialized.DivTag;
 import j2html.tags.specialized.NavTag;
+import java.util.Arrays;
 import play.twirl.api.Content;
 import views.BaseHtmlLayout;
 import views.HtmlBundle;
@@ -62,16 +66,30 @@ public final class AdminLayout extends BaseHtmlLayout {
     return render(bundle, /* isCentered = */ false);
   }
 
+  /**
+   * Like {@link #renderCentered(HtmlBundle)}, but sends the page as it's rendered, see {@link
+   * HtmlBundle#renderStreamed()}.
+   */
+  public Source<ByteString, ?> renderCenteredStreamed(HtmlBundle bundle) {
+    addAdminContent(bundle, /* isCentered = */ true);
+    addTitleSuffix(bundle);
+    return bundle.renderStreamed();
+  }
+
   private Content render(HtmlBundle bundle, boolean isCentered) {
+    addAdminContent(bundle, isCentered);
+    return super.render(bundle);
+  }
+
+  private void addAdminContent(HtmlBundle bundle, boolean isCentered) {
     bundle.addMainStyles(
         AdminStyles.MAIN, isCentered ? AdminStyles.MAIN_CENTERED : AdminStyles.MAIN_FULL);
     bundle.addBodyStyles(AdminStyles.BODY);
 
-    for (String source : FOOTER_SCRIPTS) {
-      bundle.addFooterScripts(viewUtils.makeLocalJsTag(source));
-    }
-
-    return super.render(bundle);
+    bundle.addFooterScripts(
+        viewUtils.cachedFragment(
+            "admin-footer-scripts",
+            () -> each(Arrays.asList(FOOTER_SCRIPTS), viewUtils::makeLocalJsTag)));
   }
 
   @Override
@@ -81,7 +99,12 @@ public final class AdminLayout extends BaseHtmlLayout {
 
   @Override
   public HtmlBundle getBundle(HtmlBundle bundle) {
-    return super.getBundle(bundle).addHeaderContent(renderNavBar());
+    // The navigation bar only depends on the admin type and the active page.
+    return super.getBundle(bundle)
+        .addHeaderContent(
+            viewUtils.cachedFragment(
+                String.format("admin-nav-bar:%s:%s", primaryAdminType, activeNavPage),
+                this::renderNavBar));
   }
 
   private NavTag renderNavBar() {
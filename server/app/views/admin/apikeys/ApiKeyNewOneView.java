@@ -124,6 +124,21 @@ public final class ApiKeyNewOneView extends BaseHtmlView {
               .getCheckboxTag());
     }
 
+    formTag.with(
+        p(
+            "Select the programs this key grants write access to, such as setting the statuses"
+                + " and notes of applications."));
+
+    for (String name : programNames.stream().sorted().collect(ImmutableList.toImmutableList())) {
+      formTag.with(
+          FieldWithLabel.checkbox()
+              .setFieldName(programWriteGrantFieldName(name))
+              .setLabelText(name)
+              .setId(MainModule.SLUGIFIER.slugify(name) + "-write")
+              .setValue("true")
+              .getCheckboxTag());
+    }
+
     DivTag contentDiv =
         div()
             .withClasses(Styles.PX_20)
@@ -142,6 +157,10 @@ public final class ApiKeyNewOneView extends BaseHtmlView {
     return "grant-program-read[" + MainModule.SLUGIFIER.slugify(name) + "]";
   }
 
+  private String programWriteGrantFieldName(String name) {
+    return "grant-program-write[" + MainModule.SLUGIFIER.slugify(name) + "]";
+  }
+
   private FieldWithLabel setStateIfPresent(
       FieldWithLabel field, Optional<DynamicForm> maybeForm, String key) {
     if (!maybeForm.isPresent()) {
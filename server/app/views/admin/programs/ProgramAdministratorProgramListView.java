@@ -97,6 +97,7 @@ public final class ProgramAdministratorProgramListView extends BaseHtmlView {
                 activeProgram.id(),
                 /* search= */ Optional.empty(),
                 /* page= */ Optional.empty(),
+                /* cursor= */ Optional.empty(),
                 /* fromDate= */ Optional.empty(),
                 /* untilDate= */ Optional.empty(),
                 /* applicationStatus= */ Optional.empty(),
@@ -3,7 +3,6 @@ package views.admin.programs;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static j2html.TagCreator.br;
 import static j2html.TagCreator.div;
-import static j2html.TagCreator.each;
 import static j2html.TagCreator.fieldset;
 import static j2html.TagCreator.form;
 import static j2html.TagCreator.h1;
@@ -12,9 +11,15 @@ import static j2html.TagCreator.input;
 import static j2html.TagCreator.legend;
 import static j2html.TagCreator.p;
 import static j2html.TagCreator.span;
+import static views.admin.programs.ProgramApplicationView.NEW_STATUS;
+import static views.admin.programs.ProgramApplicationView.NOTE;
+import static views.admin.programs.ProgramApplicationView.SEND_EMAIL;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import controllers.admin.routes;
 import j2html.TagCreator;
@@ -27,11 +32,10 @@ import java.util.Optional;
 import models.Application;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.mvc.Call;
 import play.mvc.Http;
-import play.twirl.api.Content;
 import repository.SubmittedApplicationFilter;
 import services.DateConverter;
-import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
 import services.UrlUtils;
 import services.program.ProgramDefinition;
@@ -59,6 +63,11 @@ public final class ProgramApplicationListView extends BaseHtmlView {
   private static final String SEARCH_PARAM = "search";
   private static final String APPLICATION_STATUS_PARAM = "applicationStatus";
   private static final String IGNORE_FILTERS_PARAM = "ignoreFilters";
+  private static final String BULK_UPDATE_FORM_ID = "bulk-update-applications-form";
+  private static final String REDIRECT_URI_PARAM = "redirectUri";
+
+  /** The name of the checkboxes selecting applications to update together. */
+  public static final String APPLICATION_IDS = "applicationIds";
 
   private final AdminLayout layout;
   private final ApplicantUtils applicantUtils;
@@ -75,45 +84,59 @@ public final class ProgramApplicationListView extends BaseHtmlView {
     this.dateConverter = checkNotNull(dateConverter);
   }
 
-  public Content render(
+  public Source<ByteString, ?> render(
       Http.Request request,
       ProgramDefinition program,
       ImmutableList<String> allPossibleProgramApplicationStatuses,
-      PageNumberBasedPaginationSpec paginationSpec,
+      int page,
+      Optional<Long> previousPageCursor,
       PaginationResult<Application> paginatedApplications,
       RenderFilterParams filterParams,
       Optional<String> selectedApplicationUri) {
 
+    Optional<Call> previousPage =
+        page > 1
+            ? Optional.of(pageLink(program, filterParams, page - 1, previousPageCursor))
+            : Optional.empty();
+    Optional<Call> nextPage =
+        paginatedApplications.hasMorePages()
+            ? Optional.of(
+                pageLink(
+                    program,
+                    filterParams,
+                    page + 1,
+                    Optional.of(Iterables.getLast(paginatedApplications.getPageContents()).id)))
+            : Optional.empty();
+    // The number of pages comes from a count that is cached for a short time, so it may not
+    // account for the latest applications yet.
+    int pageCount =
+        paginatedApplications.getPageContents().isEmpty()
+            ? paginatedApplications.getNumPages()
+            : Math.max(page, paginatedApplications.getNumPages());
+
+    boolean displayStatus = allPossibleProgramApplicationStatuses.size() > 0;
+    HtmlBundle htmlBundle = layout.getBundle();
     Modal downloadModal = renderDownloadApplicationsModal(program, filterParams);
     DivTag applicationListDiv =
         div()
             .with(
                 h1(program.adminName()).withClasses(Styles.MY_4),
-                renderPaginationDiv(
-                        paginationSpec.getCurrentPage(),
-                        paginatedApplications.getNumPages(),
-                        pageNumber ->
-                            routes.AdminApplicationController.index(
-                                program.id(),
-                                filterParams.search(),
-                                Optional.of(pageNumber),
-                                filterParams.fromDate(),
-                                filterParams.untilDate(),
-                                filterParams.selectedApplicationStatus(),
-                                /* selectedApplicationUri= */ Optional.empty()))
+                renderPaginationDiv(page, pageCount, previousPage, nextPage)
                     .withClasses(Styles.MB_2),
                 br(),
                 renderSearchForm(
                     program,
                     allPossibleProgramApplicationStatuses,
                     downloadModal.getButton(),
-                    filterParams),
-                each(
-                    paginatedApplications.getPageContents(),
-                    application ->
-                        renderApplicationListItem(
-                            application,
-                            /* displayStatus= */ allPossibleProgramApplicationStatuses.size() > 0)))
+                    filterParams))
+            .condWith(
+                allPossibleProgramApplicationStatuses.size() > 0,
+                renderBulkUpdateForm(request, program, allPossibleProgramApplicationStatuses))
+            .with(
+                htmlBundle.streamedContent(
+                    Iterables.transform(
+                        paginatedApplications.getPageContents(),
+                        application -> renderApplicationListItem(application, displayStatus))))
             .withClasses(
                 Styles.MT_6,
                 StyleUtils.responsiveLarge(Styles.MT_12),
@@ -132,14 +155,12 @@ public final class ProgramApplicationListView extends BaseHtmlView {
                     .withSrc(UrlUtils.checkIsRelativeUrl(selectedApplicationUri.orElse("")))
                     .withClasses(Styles.W_FULL, Styles.H_FULL));
 
-    HtmlBundle htmlBundle =
-        layout
-            .getBundle()
-            .setTitle(program.adminName() + " - Applications")
-            .addFooterScripts(layout.viewUtils.makeLocalJsTag("admin_applications"))
-            .addModals(downloadModal)
-            .addMainStyles(Styles.FLEX)
-            .addMainContent(makeCsrfTokenInputTag(request), applicationListDiv, applicationShowDiv);
+    htmlBundle
+        .setTitle(program.adminName() + " - Applications")
+        .addFooterScripts(layout.viewUtils.makeLocalJsTag("admin_applications"))
+        .addModals(downloadModal)
+        .addMainStyles(Styles.FLEX)
+        .addMainContent(makeCsrfTokenInputTag(request), applicationListDiv, applicationShowDiv);
     Optional<String> maybeSuccessMessage = request.flash().get("success");
     if (maybeSuccessMessage.isPresent()) {
       htmlBundle.addToastMessages(ToastMessage.success(maybeSuccessMessage.get()));
@@ -148,7 +169,23 @@ public final class ProgramApplicationListView extends BaseHtmlView {
     if (maybeErrorMessage.isPresent()) {
       htmlBundle.addToastMessages(ToastMessage.error(maybeErrorMessage.get()));
     }
-    return layout.renderCentered(htmlBundle);
+    return layout.renderCenteredStreamed(htmlBundle);
+  }
+
+  private Call pageLink(
+      ProgramDefinition program,
+      RenderFilterParams filterParams,
+      int page,
+      Optional<Long> cursor) {
+    return routes.AdminApplicationController.index(
+        program.id(),
+        filterParams.search(),
+        Optional.of(page),
+        cursor,
+        filterParams.fromDate(),
+        filterParams.untilDate(),
+        filterParams.selectedApplicationStatus(),
+        /* selectedApplicationUri= */ Optional.empty());
   }
 
   private FormTag renderSearchForm(
@@ -164,6 +201,7 @@ public final class ProgramApplicationListView extends BaseHtmlView {
                     program.id(),
                     /* search = */ Optional.empty(),
                     /* page= */ Optional.empty(),
+                    /* cursor= */ Optional.empty(),
                     /* fromDate= */ Optional.empty(),
                     /* untilDate= */ Optional.empty(),
                     /* applicationStatus= */ Optional.empty(),
@@ -245,6 +283,64 @@ public final class ProgramApplicationListView extends BaseHtmlView {
                         .withType("submit")));
   }
 
+  /**
+   * Renders a form for setting the status or note of the applications selected with the checkboxes
+   * on their cards, which are associated with the form by its id.
+   */
+  private FormTag renderBulkUpdateForm(
+      Http.Request request,
+      ProgramDefinition program,
+      ImmutableList<String> allPossibleProgramApplicationStatuses) {
+    return form()
+        .withId(BULK_UPDATE_FORM_ID)
+        .withMethod("POST")
+        .withClasses(Styles.MB_8)
+        .with(
+            makeCsrfTokenInputTag(request),
+            input().withName(REDIRECT_URI_PARAM).isHidden().withValue(request.uri()),
+            fieldset()
+                .with(
+                    legend("Update selected applications")
+                        .withClasses(Styles.ML_1, Styles.TEXT_GRAY_600),
+                    new SelectWithLabel()
+                        .setFieldName(NEW_STATUS)
+                        .setLabelText("Status")
+                        .setOptions(
+                            allPossibleProgramApplicationStatuses.stream()
+                                .map(
+                                    status ->
+                                        SelectWithLabel.OptionValue.builder()
+                                            .setLabel(status)
+                                            .setValue(status)
+                                            .build())
+                                .collect(ImmutableList.toImmutableList()))
+                        .getSelectTag(),
+                    FieldWithLabel.checkbox()
+                        .setFieldName(SEND_EMAIL)
+                        .setLabelText("Notify applicants of the new status by email")
+                        .setValue("on")
+                        .getCheckboxTag(),
+                    FieldWithLabel.textArea()
+                        .setFieldName(NOTE)
+                        .setLabelText("Note")
+                        .setFormId(BULK_UPDATE_FORM_ID)
+                        .getTextareaTag()),
+            div()
+                .withClasses(Styles.FLEX, Styles.MT_2, Styles.SPACE_X_2)
+                .with(
+                    div().withClass(Styles.FLEX_GROW),
+                    TagCreator.button("Set status")
+                        .withClass(AdminStyles.SECONDARY_BUTTON_STYLES)
+                        .withFormaction(
+                            routes.AdminApplicationController.updateStatuses(program.id()).url())
+                        .withType("submit"),
+                    TagCreator.button("Set note")
+                        .withClass(AdminStyles.SECONDARY_BUTTON_STYLES)
+                        .withFormaction(
+                            routes.AdminApplicationController.updateNotes(program.id()).url())
+                        .withType("submit")));
+  }
+
   private Modal renderDownloadApplicationsModal(
       ProgramDefinition program, RenderFilterParams filterParams) {
     String modalId = "download-program-applications-modal";
@@ -338,6 +434,15 @@ public final class ProgramApplicationListView extends BaseHtmlView {
         div()
             .withClasses(
                 Styles.BORDER, Styles.BORDER_GRAY_300, Styles.BG_WHITE, Styles.ROUNDED, Styles.P_4)
+            .condWith(
+                displayStatus,
+                input()
+                    .withType("checkbox")
+                    .withName(APPLICATION_IDS + "[]")
+                    .withValue(Long.toString(application.id))
+                    .attr("form", BULK_UPDATE_FORM_ID)
+                    .attr("aria-label", "Select " + applicantNameWithApplicationId)
+                    .withClasses(Styles.FLOAT_RIGHT))
             .with(
                 p(applicantNameWithApplicationId)
                     .withClasses(
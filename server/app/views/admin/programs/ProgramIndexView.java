@@ -12,8 +12,11 @@ import static j2html.TagCreator.p;
 import static j2html.TagCreator.span;
 import static j2html.TagCreator.ul;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import auth.CiviFormProfile;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.typesafe.config.Config;
@@ -27,7 +30,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import play.mvc.Http;
-import play.twirl.api.Content;
 import services.TranslationLocales;
 import services.program.ActiveAndDraftPrograms;
 import services.program.ProgramDefinition;
@@ -70,7 +72,7 @@ public final class ProgramIndexView extends BaseHtmlView {
     this.featureFlags = checkNotNull(featureFlags);
   }
 
-  public Content render(
+  public Source<ByteString, ?> render(
       ActiveAndDraftPrograms programs,
       ActiveAndDraftQuestions questions,
       Http.Request request,
@@ -83,6 +85,18 @@ public final class ProgramIndexView extends BaseHtmlView {
     Optional<Modal> maybePublishModal = maybeRenderPublishModal(programs, questions, request);
 
     Modal demographicsCsvModal = renderDemographicsCsvModal();
+    HtmlBundle htmlBundle = layout.getBundle();
+    ImmutableList<ProgramCardFactory.ProgramCardData> cards =
+        programs.getProgramNames().stream()
+            .map(
+                name ->
+                    this.buildProgramCardData(
+                        programs.getActiveProgramDefinition(name),
+                        programs.getDraftProgramDefinition(name),
+                        request,
+                        profile))
+            .sorted(ProgramCardFactory.lastModifiedTimeThenNameComparator())
+            .collect(ImmutableList.toImmutableList());
     DivTag contentDiv =
         div()
             .withClasses(Styles.PX_4)
@@ -105,25 +119,14 @@ public final class ProgramIndexView extends BaseHtmlView {
                 div()
                     .withClass(Styles.MT_6)
                     .with(
-                        each(
-                            programs.getProgramNames().stream()
-                                .map(
-                                    name ->
-                                        this.buildProgramCardData(
-                                            programs.getActiveProgramDefinition(name),
-                                            programs.getDraftProgramDefinition(name),
-                                            request,
-                                            profile))
-                                .sorted(ProgramCardFactory.lastModifiedTimeThenNameComparator())
-                                .map(programCardFactory::renderCard))));
+                        htmlBundle.streamedContent(
+                            Iterables.transform(cards, programCardFactory::renderCard))));
 
-    HtmlBundle htmlBundle =
-        layout
-            .getBundle()
-            .setTitle(pageTitle)
-            .addMainContent(contentDiv)
-            .addModals(demographicsCsvModal)
-            .addFooterScripts(layout.viewUtils.makeLocalJsTag("admin_programs"));
+    htmlBundle
+        .setTitle(pageTitle)
+        .addMainContent(contentDiv)
+        .addModals(demographicsCsvModal)
+        .addFooterScripts(layout.viewUtils.makeLocalJsTag("admin_programs"));
     maybePublishModal.ifPresent(htmlBundle::addModals);
 
     Http.Flash flash = request.flash();
@@ -133,7 +136,7 @@ public final class ProgramIndexView extends BaseHtmlView {
       htmlBundle.addToastMessages(ToastMessage.success(flash.get("success").get()).setDuration(-1));
     }
 
-    return layout.renderCentered(htmlBundle);
+    return layout.renderCenteredStreamed(htmlBundle);
   }
 
   private Modal renderDemographicsCsvModal() {
@@ -416,6 +419,7 @@ public final class ProgramIndexView extends BaseHtmlView {
                   activeProgram.id(),
                   /* search= */ Optional.empty(),
                   /* page= */ Optional.empty(),
+                  /* cursor= */ Optional.empty(),
                   /* fromDate= */ Optional.empty(),
                   /* untilDate= */ Optional.empty(),
                   /* applicationStatus= */ Optional.empty(),
@@ -11,9 +11,12 @@ import static j2html.TagCreator.p;
 import static j2html.TagCreator.span;
 import static j2html.TagCreator.ul;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import j2html.tags.DomContent;
@@ -21,6 +24,7 @@ import j2html.tags.specialized.ButtonTag;
 import j2html.tags.specialized.DivTag;
 import j2html.tags.specialized.PTag;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Optional;
@@ -28,7 +32,6 @@ import java.util.Set;
 import java.util.function.Function;
 import org.apache.commons.lang3.tuple.Pair;
 import play.mvc.Http;
-import play.twirl.api.Content;
 import services.TranslationLocales;
 import services.program.ProgramDefinition;
 import services.question.ActiveAndDraftQuestions;
@@ -69,11 +72,11 @@ public final class QuestionsListView extends BaseHtmlView {
   }
 
   /** Renders a page with a list view of all questions. */
-  public Content render(ActiveAndDraftQuestions activeAndDraftQuestions, Http.Request request) {
+  public Source<ByteString, ?> render(
+      ActiveAndDraftQuestions activeAndDraftQuestions, Http.Request request) {
     String title = "All Questions";
 
-    Pair<DivTag, ImmutableList<Modal>> questionRowsAndModals =
-        renderAllQuestionRows(activeAndDraftQuestions, request);
+    HtmlBundle htmlBundle = layout.getBundle();
 
     DivTag contentDiv =
         div()
@@ -91,14 +94,12 @@ public final class QuestionsListView extends BaseHtmlView {
                     .with(
                         div().withClass(Styles.FLEX_GROW),
                         p("Sorting by most recently updated").withClass(Styles.TEXT_SM)))
-            .with(div().withClass(Styles.MT_6).with(questionRowsAndModals.getLeft()))
+            .with(
+                div()
+                    .withClass(Styles.MT_6)
+                    .with(renderAllQuestionRows(activeAndDraftQuestions, request, htmlBundle)))
             .with(renderSummary(activeAndDraftQuestions));
-    HtmlBundle htmlBundle =
-        layout
-            .getBundle()
-            .setTitle(title)
-            .addModals(questionRowsAndModals.getRight())
-            .addMainContent(contentDiv);
+    htmlBundle.setTitle(title).addMainContent(contentDiv);
 
     Http.Flash flash = request.flash();
     if (flash.get("success").isPresent()) {
@@ -109,7 +110,7 @@ public final class QuestionsListView extends BaseHtmlView {
           ToastMessage.error(flash.get("error").get()).setDismissible(false));
     }
 
-    return layout.renderCentered(htmlBundle);
+    return layout.renderCenteredStreamed(htmlBundle);
   }
 
   private DivTag renderSummary(ActiveAndDraftQuestions activeAndDraftQuestions) {
@@ -124,10 +125,14 @@ public final class QuestionsListView extends BaseHtmlView {
     return cardData.draftQuestion().orElseGet(cardData.activeQuestion()::get);
   }
 
-  private Pair<DivTag, ImmutableList<Modal>> renderAllQuestionRows(
-      ActiveAndDraftQuestions activeAndDraftQuestions, Http.Request request) {
-    ImmutableList.Builder<DomContent> rows = ImmutableList.builder();
-    ImmutableList.Builder<Modal> modals = ImmutableList.builder();
+  /**
+   * Renders the question rows as streamed content of {@code htmlBundle}, so that each row is only
+   * built as the page is sent. The rows' modals are added to the bundle as the rows are rendered.
+   */
+  private DivTag renderAllQuestionRows(
+      ActiveAndDraftQuestions activeAndDraftQuestions,
+      Http.Request request,
+      HtmlBundle htmlBundle) {
     ImmutableList<QuestionCardData> cards =
         activeAndDraftQuestions.getQuestionNames().stream()
             .map(
@@ -147,13 +152,21 @@ public final class QuestionsListView extends BaseHtmlView {
                             getDisplayQuestion(card).getQuestionText().getDefault().toLowerCase()))
             .collect(ImmutableList.toImmutableList());
 
-    for (QuestionCardData card : cards) {
-      Pair<DivTag, ImmutableList<Modal>> rowAndModals =
-          renderQuestionCard(card, activeAndDraftQuestions, request);
-      rows.add(rowAndModals.getLeft());
-      modals.addAll(rowAndModals.getRight());
-    }
-    return Pair.of(div().with(rows.build()), modals.build());
+    // The modal container comes after the rows, so the modals are only read once every row has
+    // been rendered.
+    ArrayList<Modal> modals = new ArrayList<>();
+    htmlBundle.addStreamedModals(modals);
+    return div()
+        .with(
+            htmlBundle.streamedContent(
+                Iterables.transform(
+                    cards,
+                    card -> {
+                      Pair<DivTag, ImmutableList<Modal>> rowAndModals =
+                          renderQuestionCard(card, activeAndDraftQuestions, request);
+                      modals.addAll(rowAndModals.getRight());
+                      return rowAndModals.getLeft();
+                    })));
   }
 
   @AutoValue
@@ -18,12 +18,12 @@ import controllers.routes;
 import io.jsonwebtoken.lang.Strings;
 import j2html.TagCreator;
 import j2html.tags.ContainerTag;
+import j2html.tags.UnescapedText;
 import j2html.tags.specialized.ATag;
 import j2html.tags.specialized.DivTag;
 import j2html.tags.specialized.H1Tag;
 import j2html.tags.specialized.InputTag;
 import j2html.tags.specialized.NavTag;
-import j2html.tags.specialized.SelectTag;
 import java.util.Locale;
 import java.util.Optional;
 import javax.inject.Inject;
@@ -66,22 +66,26 @@ public class ApplicantLayout extends BaseHtmlLayout {
   }
 
   private Content renderWithSupportFooter(HtmlBundle bundle, Messages messages) {
-    DivTag supportLink =
-        div()
-            .with(
-                text(messages.at(MessageKey.FOOTER_SUPPORT_LINK_DESCRIPTION.getKeyName())),
-                text(" "),
-                a(supportEmail)
-                    .withHref("mailto:" + supportEmail)
-                    .withTarget("_blank")
-                    .withClasses(Styles.TEXT_BLUE_800))
-            .withClasses(Styles.MX_AUTO, Styles.MAX_W_SCREEN_SM, Styles.W_5_6);
-
-    bundle.addFooterContent(supportLink);
+    bundle.addFooterContent(
+        viewUtils.cachedFragment(
+            "applicant-support-footer:" + messages.lang().code(),
+            () -> renderSupportLink(messages)));
 
     return render(bundle);
   }
 
+  private DivTag renderSupportLink(Messages messages) {
+    return div()
+        .with(
+            text(messages.at(MessageKey.FOOTER_SUPPORT_LINK_DESCRIPTION.getKeyName())),
+            text(" "),
+            a(supportEmail)
+                .withHref("mailto:" + supportEmail)
+                .withTarget("_blank")
+                .withClasses(Styles.TEXT_BLUE_800))
+        .withClasses(Styles.MX_AUTO, Styles.MAX_W_SCREEN_SM, Styles.W_5_6);
+  }
+
   @Override
   public Content render(HtmlBundle bundle) {
     bundle.addBodyStyles(ApplicantStyles.BODY);
@@ -118,7 +122,7 @@ public class ApplicantLayout extends BaseHtmlLayout {
             Styles.P_4,
             Styles.GRID,
             Styles.GRID_COLS_3)
-        .with(branding())
+        .with(viewUtils.cachedFragment("applicant-branding", this::branding))
         .with(maybeRenderTiButton(profile, displayUserName))
         .with(
             div(
@@ -146,11 +150,17 @@ public class ApplicantLayout extends BaseHtmlLayout {
         InputTag redirectInput =
             input().isHidden().withValue(request.uri()).withName("redirectLink");
         String preferredLanguage = languageSelector.getPreferredLangage(request).code();
-        SelectTag languageDropdown =
-            languageSelector
-                .renderDropdown(preferredLanguage)
-                .attr("onchange", "this.form.submit()")
-                .attr("aria-label", messages.at(MessageKey.LANGUAGE_LABEL_SR.getKeyName()));
+        UnescapedText languageDropdown =
+            viewUtils.cachedFragment(
+                String.format(
+                    "applicant-language-dropdown:%s:%s",
+                    preferredLanguage, messages.lang().code()),
+                () ->
+                    languageSelector
+                        .renderDropdown(preferredLanguage)
+                        .attr("onchange", "this.form.submit()")
+                        .attr(
+                            "aria-label", messages.at(MessageKey.LANGUAGE_LABEL_SR.getKeyName())));
         languageForm =
             form()
                 .withAction(updateLanguageAction)
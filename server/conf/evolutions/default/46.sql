@@ -0,0 +1,51 @@
+# --- Add a stamp that changes whenever versions, questions, programs or their version associations
+# --- change. Servers compare it against the stamp their caches of the current versions were built
+# --- with, so an edit or publish on one server invalidates the caches on all of them.
+# --- The stamp is drawn from a sequence so that a value from a rolled back transaction is never
+# --- reused for different data.
+
+# --- !Ups
+
+CREATE SEQUENCE IF NOT EXISTS version_stamp_seq;
+
+CREATE TABLE IF NOT EXISTS version_stamp (
+  id INT PRIMARY KEY CHECK (id = 1),
+  stamp BIGINT NOT NULL
+);
+
+INSERT INTO version_stamp (id, stamp) VALUES (1, nextval('version_stamp_seq'))
+  ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_version_stamp() RETURNS TRIGGER AS $$
+  BEGIN
+    UPDATE version_stamp SET stamp = nextval('version_stamp_seq') WHERE id = 1;;
+    RETURN NULL;; -- result is ignored for statement level triggers
+  END;;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER versions_version_stamp
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_version_stamp();
+CREATE TRIGGER versions_questions_version_stamp
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions_questions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_version_stamp();
+CREATE TRIGGER versions_programs_version_stamp
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions_programs
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_version_stamp();
+CREATE TRIGGER questions_version_stamp
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON questions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_version_stamp();
+CREATE TRIGGER programs_version_stamp
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON programs
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_version_stamp();
+
+# --- !Downs
+
+DROP TRIGGER IF EXISTS programs_version_stamp ON programs;
+DROP TRIGGER IF EXISTS questions_version_stamp ON questions;
+DROP TRIGGER IF EXISTS versions_programs_version_stamp ON versions_programs;
+DROP TRIGGER IF EXISTS versions_questions_version_stamp ON versions_questions;
+DROP TRIGGER IF EXISTS versions_version_stamp ON versions;
+DROP FUNCTION IF EXISTS bump_version_stamp;
+DROP TABLE IF EXISTS version_stamp;
+DROP SEQUENCE IF EXISTS version_stamp_seq;
@@ -0,0 +1,9 @@
+# --- Store the answers of submitted applications in the form they are exported in.
+
+# --- !Ups
+
+alter table applications add column if not exists exported_answers jsonb;
+
+# --- !Downs
+
+alter table applications drop column if exists exported_answers;
@@ -0,0 +1,49 @@
+# --- Add a generated column with the applicant's name to applications and applicants, so that
+# --- searches by name can use a trigram index instead of parsing the JSON of every row.
+# --- Applicant data is written as a JSON string inside the jsonb column, so the name is read with
+# --- (object #>> '{}')::jsonb, which also works for data stored as a JSON object. The column holds
+# --- the name as "first last", "last first" and "last, first" on separate lines so that a single
+# --- ILIKE matches any of the three forms. It is null if either name is missing.
+# ---
+# --- Adding a stored generated column rewrites the whole table, and does so under an ACCESS
+# --- EXCLUSIVE lock, so applications and applicants can neither be read nor written until each
+# --- rewrite finishes. Building the indexes afterwards blocks writes to each table too. Evolutions
+# --- run at startup, so on a deployment with many applications this delays the server coming up
+# --- by however long the rewrites take, and the upgrade should be scheduled for a quiet period.
+
+# --- !Ups
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS applicant_name_search text
+    GENERATED ALWAYS AS (
+      ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}') || ' '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || E'\n'
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || ' '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}') || E'\n'
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || ', '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS index_applications_applicant_name_search
+    ON applications USING gin (applicant_name_search gin_trgm_ops);
+
+ALTER TABLE applicants ADD COLUMN IF NOT EXISTS applicant_name_search text
+    GENERATED ALWAYS AS (
+      ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}') || ' '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || E'\n'
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || ' '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}') || E'\n'
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,last_name}') || ', '
+          || ((object #>> '{}')::jsonb #>> '{applicant,name,first_name}')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS index_applicants_applicant_name_search
+    ON applicants USING gin (applicant_name_search gin_trgm_ops);
+
+# --- !Downs
+
+DROP INDEX IF EXISTS index_applicants_applicant_name_search;
+ALTER TABLE applicants DROP COLUMN IF EXISTS applicant_name_search;
+DROP INDEX IF EXISTS index_applications_applicant_name_search;
+ALTER TABLE applications DROP COLUMN IF EXISTS applicant_name_search;
@@ -0,0 +1,26 @@
+# --- Add an outbox of emails to send. Emails are queued in the same transaction as the event they
+# --- are about, e.g. an application being submitted, and sent by a background task, which retries
+# --- failed sends with a backoff.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+  id BIGSERIAL PRIMARY KEY NOT NULL,
+  to_addresses VARCHAR[] NOT NULL,
+  subject VARCHAR NOT NULL,
+  body VARCHAR NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_time TIMESTAMP,
+  last_error VARCHAR,
+  create_time TIMESTAMP NOT NULL,
+  sent_time TIMESTAMP
+);
+
+-- Emails that are still to be sent, in the order they are sent in.
+CREATE INDEX IF NOT EXISTS index_email_outbox_by_next_attempt_time
+    ON email_outbox (next_attempt_time, id) WHERE sent_time IS NULL;
+
+# --- !Downs
+
+DROP INDEX IF EXISTS index_email_outbox_by_next_attempt_time;
+DROP TABLE IF EXISTS email_outbox;
@@ -0,0 +1,28 @@
+# --- Add indexes for the ways applications are looked up:
+# ---   - by program and stage, newest first, for the admin list of submitted applications, which
+# ---     matches programs by name to include all versions of the program;
+# ---   - by applicant, for the applicant's list of applications, drafts and submissions;
+# ---   - by submit time, for the API export of applications;
+# ---   - by program and status, for the admin status filter.
+# --- The indexes aren't partial on the lifecycle stage, as the stages are bound as parameters and
+# --- a generic plan can't use a partial index that depends on them.
+# --- ApplicationQueryPlanTest checks that these queries don't scan the whole applications table.
+
+# --- !Ups
+
+CREATE INDEX IF NOT EXISTS index_programs_by_name ON programs (name);
+CREATE INDEX IF NOT EXISTS index_applications_by_program_stage_id
+    ON applications (program_id, lifecycle_stage, id);
+CREATE INDEX IF NOT EXISTS index_applications_by_applicant_program
+    ON applications (applicant_id, program_id);
+CREATE INDEX IF NOT EXISTS index_applications_by_submit_time ON applications (submit_time);
+CREATE INDEX IF NOT EXISTS index_applications_by_program_status
+    ON applications (program_id, latest_status);
+
+# --- !Downs
+
+DROP INDEX IF EXISTS index_applications_by_program_status;
+DROP INDEX IF EXISTS index_applications_by_submit_time;
+DROP INDEX IF EXISTS index_applications_by_applicant_program;
+DROP INDEX IF EXISTS index_applications_by_program_stage_id;
+DROP INDEX IF EXISTS index_programs_by_name;
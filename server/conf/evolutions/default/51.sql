@@ -0,0 +1,27 @@
+# --- Add a generated column with the applicant's date of birth, so that trusted intermediaries can
+# --- search their clients in the database instead of parsing the JSON of every client. The date of
+# --- birth is stored in the applicant data as milliseconds since the epoch at the start of the day
+# --- in UTC, and the column holds that value. It is null if the applicant data has no number there.
+# --- Also index the columns that a trusted intermediary's clients and their applicants are found by.
+
+# --- !Ups
+
+ALTER TABLE applicants ADD COLUMN IF NOT EXISTS applicant_date_of_birth bigint
+    GENERATED ALWAYS AS (
+      CASE WHEN jsonb_typeof((object #>> '{}')::jsonb #> '{applicant,applicant_date_of_birth}')
+          = 'number'
+        THEN ((object #>> '{}')::jsonb #>> '{applicant,applicant_date_of_birth}')::numeric::bigint
+      END
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS index_applicants_by_date_of_birth
+    ON applicants (applicant_date_of_birth);
+CREATE INDEX IF NOT EXISTS index_applicants_by_account ON applicants (account_id);
+CREATE INDEX IF NOT EXISTS index_accounts_by_managed_by_group ON accounts (managed_by_group_id);
+
+# --- !Downs
+
+DROP INDEX IF EXISTS index_accounts_by_managed_by_group;
+DROP INDEX IF EXISTS index_applicants_by_account;
+DROP INDEX IF EXISTS index_applicants_by_date_of_birth;
+ALTER TABLE applicants DROP COLUMN IF EXISTS applicant_date_of_birth;
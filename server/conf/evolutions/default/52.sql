@@ -0,0 +1,41 @@
+# --- Set the latest_status column once per statement that inserts or updates application events,
+# --- rather than once per event, so that setting the status of many applications in one
+# --- statement updates them in one pass.
+# --- Transition tables: https://www.postgresql.org/docs/current/trigger-definition.html
+
+# --- !Ups
+
+-- A function that sets the "latest_status" column on the applications referenced by the status
+-- change events inserted or updated by a statement.
+-- Note: The "new_events" transition table holds the application event records inserted / updated
+-- by the statement.
+CREATE OR REPLACE FUNCTION process_latest_status_on_application_events_change() RETURNS TRIGGER AS $$
+  BEGIN
+    UPDATE applications
+      SET latest_status = retrieve_latest_application_status(applications.id)
+    WHERE id IN (
+      SELECT application_id
+        FROM new_events
+        WHERE (details->>'event_type') = 'STATUS_CHANGE');;
+    RETURN NULL;; -- result is ignored for triggers that execute after a statement
+  END;;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS application_event_change ON application_events;
+-- A trigger with a transition table can only be for one kind of event.
+CREATE TRIGGER application_events_insert
+    AFTER INSERT ON application_events
+    REFERENCING NEW TABLE AS new_events
+    FOR EACH STATEMENT EXECUTE FUNCTION process_latest_status_on_application_events_change();
+CREATE TRIGGER application_events_update
+    AFTER UPDATE ON application_events
+    REFERENCING NEW TABLE AS new_events
+    FOR EACH STATEMENT EXECUTE FUNCTION process_latest_status_on_application_events_change();
+
+# --- !Downs
+
+DROP TRIGGER IF EXISTS application_events_update ON application_events;
+DROP TRIGGER IF EXISTS application_events_insert ON application_events;
+DROP FUNCTION IF EXISTS process_latest_status_on_application_events_change;
+CREATE TRIGGER application_event_change AFTER INSERT OR UPDATE ON application_events
+    FOR EACH ROW EXECUTE FUNCTION process_latest_status_on_application_event_change();
@@ -65,6 +65,48 @@ public class CiviFormProfileTest extends ResetPostgres {
     profile.checkAuthorization(two.id).join();
   }
 
+  @Test
+  public void checkAuthorization_passesForApplicantAddedAfterAccountWasCached() {
+    Account account = resourceCreator.insertAccount();
+    // Caches the account.
+    profileFactory.wrap(account).getEmailAddress().join();
+    Applicant applicant = resourceCreator.insertApplicant();
+    applicant.setAccount(account);
+    applicant.save();
+
+    CiviFormProfile profile = profileFactory.wrap(account);
+
+    profile.checkAuthorization(applicant.id).join();
+  }
+
+  @Test
+  public void getAccount_isLookedUpOncePerProfile() {
+    CiviFormProfileData data = profileFactory.createNewApplicant();
+    CiviFormProfile profile = profileFactory.wrapProfileData(data);
+
+    assertThat(profile.getAccount().join()).isSameAs(profile.getAccount().join());
+    assertThat(profile.getApplicant().join()).isSameAs(profile.getApplicant().join());
+  }
+
+  @Test
+  public void getAccount_isNotSharedBetweenProfiles() {
+    Account account = resourceCreator.insertAccount();
+
+    assertThat(profileFactory.wrap(account).getAccount().join())
+        .isNotSameAs(profileFactory.wrap(account).getAccount().join());
+  }
+
+  @Test
+  public void setEmailAddress_invalidatesCachedAccount() {
+    Account account = resourceCreator.insertAccount();
+    profileFactory.wrap(account).getEmailAddress().join();
+
+    profileFactory.wrap(account).setEmailAddress("new@example.com").join();
+
+    assertThat(profileFactory.wrap(account).getEmailAddress().join())
+        .isEqualTo("new@example.com");
+  }
+
   @Test
   public void checkAuthorization_fails() {
     CiviFormProfileData data = profileFactory.createNewApplicant();
@@ -3,6 +3,9 @@ package controllers.admin;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static play.api.test.CSRFTokenHelper.addCSRFToken;
 import static play.mvc.Http.Status.BAD_REQUEST;
 import static play.mvc.Http.Status.NOT_FOUND;
@@ -20,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.inject.util.Providers;
 import controllers.admin.AdminApplicationControllerTest.ProfileUtilsNoOpTester.ProfileTester;
 import featureflags.FeatureFlags;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -35,9 +39,12 @@ import models.LifecycleStage;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.pac4j.core.context.session.SessionStore;
+import play.cache.SyncCacheApi;
 import play.data.FormFactory;
 import play.i18n.MessagesApi;
+import play.inject.BindingKey;
 import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Http.Request;
@@ -50,10 +57,12 @@ import services.LocalizedStrings;
 import services.applicant.ApplicantService;
 import services.application.ApplicationEventDetails;
 import services.application.ApplicationEventDetails.StatusEvent;
+import services.applications.AccountHasNoEmailException;
 import services.applications.ProgramAdminApplicationService;
 import services.export.CsvExporterService;
 import services.export.JsonExporter;
 import services.export.PdfExporter;
+import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
 import services.program.ProgramService;
 import services.program.StatusDefinitions;
@@ -118,6 +127,7 @@ public class AdminApplicationControllerTest extends ResetPostgres {
             programId,
             /* search= */ Optional.empty(),
             /* page= */ Optional.of(1), // Needed to skip redirect.
+            /* cursor= */ Optional.empty(),
             /* fromDate= */ Optional.empty(),
             /* untilDate= */ Optional.empty(),
             /* applicationStatus= */ Optional.empty(),
@@ -142,6 +152,7 @@ public class AdminApplicationControllerTest extends ResetPostgres {
             program.id,
             /* search= */ Optional.empty(),
             /* page= */ Optional.of(1), // Needed to skip redirect.
+            /* cursor= */ Optional.empty(),
             /* fromDate= */ Optional.empty(),
             /* untilDate= */ Optional.empty(),
             /* applicationStatus= */ Optional.empty(),
@@ -149,6 +160,60 @@ public class AdminApplicationControllerTest extends ResetPostgres {
     assertThat(result.status()).isEqualTo(OK);
   }
 
+  @Test
+  public void index_laterPageWithoutCursor_redirectsToFirstPage() throws Exception {
+    controller = makeNoOpProfileController(/* adminAccount= */ Optional.empty());
+    Program program = ProgramBuilder.newActiveProgram().build();
+    Request request = addCSRFToken(Helpers.fakeRequest()).build();
+    Result result =
+        controller.index(
+            request,
+            program.id,
+            /* search= */ Optional.empty(),
+            /* page= */ Optional.of(3),
+            /* cursor= */ Optional.empty(),
+            /* fromDate= */ Optional.empty(),
+            /* untilDate= */ Optional.empty(),
+            /* applicationStatus= */ Optional.empty(),
+            /* selectedApplicationUri= */ Optional.empty());
+    assertThat(result.status()).isEqualTo(SEE_OTHER);
+    assertThat(result.redirectLocation())
+        .contains(
+            routes.AdminApplicationController.index(
+                    program.id,
+                    /* search= */ Optional.empty(),
+                    /* page= */ Optional.of(1),
+                    /* cursor= */ Optional.empty(),
+                    /* fromDate= */ Optional.empty(),
+                    /* untilDate= */ Optional.empty(),
+                    /* applicationStatus= */ Optional.empty(),
+                    /* selectedApplicationUri= */ Optional.empty())
+                .url());
+  }
+
+  @Test
+  public void index_withCursor() throws Exception {
+    controller = makeNoOpProfileController(/* adminAccount= */ Optional.empty());
+    Program program = ProgramBuilder.newActiveProgram().build();
+    Applicant applicant = resourceCreator.insertApplicantWithAccount();
+    Application application =
+        Application.create(applicant, program, LifecycleStage.ACTIVE).setSubmitTimeToNow();
+    Request request = addCSRFToken(Helpers.fakeRequest()).build();
+    Result result =
+        controller.index(
+            request,
+            program.id,
+            /* search= */ Optional.empty(),
+            /* page= */ Optional.of(2),
+            /* cursor= */ Optional.of(application.id + 1),
+            /* fromDate= */ Optional.empty(),
+            /* untilDate= */ Optional.empty(),
+            /* applicationStatus= */ Optional.empty(),
+            /* selectedApplicationUri= */ Optional.empty());
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(contentAsString(result, mat)).contains("Page 2 of 2");
+  }
+
   @Test
   public void updateStatus_flagDisabled() throws Exception {
     Program program = ProgramBuilder.newActiveProgram("test name", "test description").build();
@@ -610,14 +675,245 @@ public class AdminApplicationControllerTest extends ResetPostgres {
     assertThat(gotEvent.getDetails().noteEvent().get().note()).isEqualTo(noteText);
   }
 
+  @Test
+  public void updateStatuses_succeeds() throws Exception {
+    // Setup
+    Account adminAccount = resourceCreator.insertAccount();
+    controller = makeNoOpProfileController(Optional.of(adminAccount));
+    Program program =
+        ProgramBuilder.newActiveProgram("test name", "test description")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .build();
+    Application applicationOne =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), program, LifecycleStage.ACTIVE);
+    Application applicationTwo =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), program, LifecycleStage.ACTIVE);
+
+    Request request =
+        addCSRFToken(
+                Helpers.fakeRequest()
+                    .bodyForm(
+                        Map.of(
+                            "redirectUri",
+                            "/",
+                            "applicationIds[0]",
+                            applicationOne.id.toString(),
+                            "applicationIds[1]",
+                            applicationTwo.id.toString(),
+                            "newStatus",
+                            APPROVED_STATUS.statusText())))
+            .build();
+
+    // Execute
+    Result result = controller.updateStatuses(request, program.id);
+
+    // Evaluate
+    assertThat(result.status()).isEqualTo(SEE_OTHER);
+    for (Application application : ImmutableList.of(applicationOne, applicationTwo)) {
+      application.refresh();
+      assertThat(application.getApplicationEvents()).hasSize(1);
+      ApplicationEvent gotEvent = application.getApplicationEvents().get(0);
+      assertThat(gotEvent.getDetails().statusEvent().get().statusText())
+          .isEqualTo(APPROVED_STATUS.statusText());
+      assertThat(gotEvent.getDetails().statusEvent().get().emailSent()).isFalse();
+      assertThat(gotEvent.getCreator()).isEqualTo(adminAccount);
+    }
+  }
+
+  @Test
+  public void updateStatuses_applicationOfOtherProgram_fails() throws Exception {
+    // Setup
+    Account adminAccount = resourceCreator.insertAccount();
+    controller = makeNoOpProfileController(Optional.of(adminAccount));
+    Program program =
+        ProgramBuilder.newActiveProgram("test name", "test description")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .build();
+    Program otherProgram =
+        ProgramBuilder.newActiveProgram("other name", "other description")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .build();
+    Application application =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), program, LifecycleStage.ACTIVE);
+    Application otherApplication =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), otherProgram, LifecycleStage.ACTIVE);
+
+    Request request =
+        addCSRFToken(
+                Helpers.fakeRequest()
+                    .bodyForm(
+                        Map.of(
+                            "redirectUri",
+                            "/",
+                            "applicationIds[0]",
+                            application.id.toString(),
+                            "applicationIds[1]",
+                            otherApplication.id.toString(),
+                            "newStatus",
+                            APPROVED_STATUS.statusText())))
+            .build();
+
+    // Execute
+    Result result = controller.updateStatuses(request, program.id);
+
+    // Evaluate
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+    application.refresh();
+    assertThat(application.getApplicationEvents()).isEmpty();
+    otherApplication.refresh();
+    assertThat(otherApplication.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateStatuses_applicantWithoutEmail_setsNoStatus() throws Exception {
+    // Setup
+    Account adminAccount = resourceCreator.insertAccount();
+    controller = makeNoOpProfileController(Optional.of(adminAccount));
+    Program program =
+        ProgramBuilder.newActiveProgram("test name", "test description")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .build();
+    Application applicationWithEmail =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(Optional.of("user@example.com")),
+            program,
+            LifecycleStage.ACTIVE);
+    Application applicationWithoutEmail =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), program, LifecycleStage.ACTIVE);
+
+    Request request =
+        addCSRFToken(
+                Helpers.fakeRequest()
+                    .bodyForm(
+                        Map.of(
+                            "redirectUri",
+                            "/",
+                            "applicationIds[0]",
+                            applicationWithEmail.id.toString(),
+                            "applicationIds[1]",
+                            applicationWithoutEmail.id.toString(),
+                            "newStatus",
+                            APPROVED_STATUS.statusText(),
+                            "sendEmail",
+                            "on")))
+            .build();
+
+    // Execute
+    assertThatThrownBy(() -> controller.updateStatuses(request, program.id))
+        .isInstanceOf(AccountHasNoEmailException.class);
+
+    // Evaluate
+    applicationWithEmail.refresh();
+    assertThat(applicationWithEmail.getApplicationEvents()).isEmpty();
+    applicationWithoutEmail.refresh();
+    assertThat(applicationWithoutEmail.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateNotes_applicationOfOtherProgram_fails() throws Exception {
+    // Setup
+    Account adminAccount = resourceCreator.insertAccount();
+    controller = makeNoOpProfileController(Optional.of(adminAccount));
+    Program program = ProgramBuilder.newActiveProgram("test name", "test description").build();
+    Program otherProgram =
+        ProgramBuilder.newActiveProgram("other name", "other description").build();
+    Application application =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), program, LifecycleStage.ACTIVE);
+    Application otherApplication =
+        Application.create(
+            resourceCreator.insertApplicantWithAccount(), otherProgram, LifecycleStage.ACTIVE);
+
+    Request request =
+        addCSRFToken(
+                Helpers.fakeRequest()
+                    .bodyForm(
+                        Map.of(
+                            "redirectUri",
+                            "/",
+                            "applicationIds[0]",
+                            application.id.toString(),
+                            "applicationIds[1]",
+                            otherApplication.id.toString(),
+                            "note",
+                            "Called the applicant.")))
+            .build();
+
+    // Execute
+    Result result = controller.updateNotes(request, program.id);
+
+    // Evaluate
+    assertThat(result.status()).isEqualTo(NOT_FOUND);
+    application.refresh();
+    assertThat(application.getApplicationEvents()).isEmpty();
+    otherApplication.refresh();
+    assertThat(otherApplication.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void downloadAll_streamsCsv() throws Exception {
+    ProgramDefinition program = ProgramBuilder.newActiveProgram("test program").buildDefinition();
+    Request request = addCSRFToken(Helpers.fakeRequest()).build();
+
+    Result result =
+        makeNoOpProfileController(/* adminAccount= */ Optional.empty())
+            .downloadAll(
+                request,
+                program.id(),
+                /* search= */ Optional.empty(),
+                /* fromDate= */ Optional.empty(),
+                /* untilDate= */ Optional.empty(),
+                /* applicationStatus= */ Optional.empty(),
+                /* ignoreFilters= */ Optional.empty());
+
+    assertThat(result.status()).isEqualTo(OK);
+    assertThat(contentAsString(result, mat)).contains("Applicant ID");
+  }
+
+  @Test
+  public void downloadAll_exportFailure_failsResponse() throws Exception {
+    ProgramDefinition program = ProgramBuilder.newActiveProgram("test program").buildDefinition();
+    CsvExporterService failingExporterService = Mockito.mock(CsvExporterService.class);
+    doThrow(new IOException("Export failed"))
+        .when(failingExporterService)
+        .writeProgramAllVersionsCsv(anyLong(), any(), any());
+    Request request = addCSRFToken(Helpers.fakeRequest()).build();
+
+    Result result =
+        makeNoOpProfileController(/* adminAccount= */ Optional.empty(), failingExporterService)
+            .downloadAll(
+                request,
+                program.id(),
+                /* search= */ Optional.empty(),
+                /* fromDate= */ Optional.empty(),
+                /* untilDate= */ Optional.empty(),
+                /* applicationStatus= */ Optional.empty(),
+                /* ignoreFilters= */ Optional.empty());
+
+    // The headers are sent before the export starts, but the body fails rather than ending early.
+    assertThat(result.status()).isEqualTo(OK);
+    assertThatThrownBy(() -> contentAsString(result, mat)).hasRootCauseMessage("Export failed");
+  }
+
   // Returns a controller with a faked ProfileUtils to bypass acl checks.
   AdminApplicationController makeNoOpProfileController(Optional<Account> adminAccount) {
+    return makeNoOpProfileController(adminAccount, instanceOf(CsvExporterService.class));
+  }
+
+  AdminApplicationController makeNoOpProfileController(
+      Optional<Account> adminAccount, CsvExporterService csvExporterService) {
     ProfileTester profileTester =
         new ProfileTester(
             instanceOf(DatabaseExecutionContext.class),
             instanceOf(HttpExecutionContext.class),
             instanceOf(CiviFormProfileData.class),
             instanceOf(FeatureFlags.class),
+            instanceOf(new BindingKey<>(SyncCacheApi.class).qualifiedWith("accounts").asScala()),
             adminAccount);
     ProfileUtils profileUtilsNoOpTester =
         new ProfileUtilsNoOpTester(
@@ -625,7 +921,7 @@ public class AdminApplicationControllerTest extends ResetPostgres {
     return new AdminApplicationController(
         instanceOf(ProgramService.class),
         instanceOf(ApplicantService.class),
-        instanceOf(CsvExporterService.class),
+        csvExporterService,
         instanceOf(FormFactory.class),
         instanceOf(JsonExporter.class),
         instanceOf(PdfExporter.class),
@@ -636,7 +932,8 @@ public class AdminApplicationControllerTest extends ResetPostgres {
         instanceOf(MessagesApi.class),
         instanceOf(DateConverter.class),
         Providers.of(LocalDateTime.now(ZoneId.systemDefault())),
-        instanceOf(FeatureFlags.class));
+        instanceOf(FeatureFlags.class),
+        instanceOf(DatabaseExecutionContext.class));
   }
 
   // A test version of ProfileUtils that disable functionality that is hard
@@ -666,8 +963,9 @@ public class AdminApplicationControllerTest extends ResetPostgres {
           HttpExecutionContext httpContext,
           CiviFormProfileData profileData,
           FeatureFlags featureFlags,
+          SyncCacheApi accountCache,
           Optional<Account> adminAccount) {
-        super(dbContext, httpContext, profileData, featureFlags);
+        super(dbContext, httpContext, profileData, featureFlags, accountCache);
         this.adminAccount = adminAccount;
       }
 
@@ -51,7 +51,7 @@ public class AdminProgramControllerTest extends ResetPostgres {
     assertThat(result.status()).isEqualTo(OK);
     assertThat(result.contentType()).hasValue("text/html");
     assertThat(result.charset()).hasValue("utf-8");
-    assertThat(contentAsString(result)).contains("Programs");
+    assertThat(contentAsString(result, mat)).contains("Programs");
   }
 
   @Test
@@ -63,8 +63,8 @@ public class AdminProgramControllerTest extends ResetPostgres {
     Result result = controller.index(request);
 
     assertThat(result.status()).isEqualTo(OK);
-    assertThat(contentAsString(result)).contains("one");
-    assertThat(contentAsString(result)).contains("two");
+    assertThat(contentAsString(result, mat)).contains("one");
+    assertThat(contentAsString(result, mat)).contains("two");
   }
 
   @Test
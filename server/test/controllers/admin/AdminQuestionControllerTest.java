@@ -240,8 +240,8 @@ public class AdminQuestionControllerTest extends ResetPostgres {
     assertThat(result.charset()).hasValue("utf-8");
     // We include the trailing "<" to ensure we don't partially match
     // 200 rather than 2.
-    assertThat(contentAsString(result)).contains("Total Questions: 2<");
-    assertThat(contentAsString(result)).contains("All Questions");
+    assertThat(contentAsString(result, mat)).contains("Total Questions: 2<");
+    assertThat(contentAsString(result, mat)).contains("All Questions");
 
     // Now add a new draft question and ensure that it is included in the total.
     QuestionDefinition newDraftQuestion =
@@ -257,8 +257,8 @@ public class AdminQuestionControllerTest extends ResetPostgres {
     assertThat(result.charset()).hasValue("utf-8");
     // We include the trailing "<" to ensure we don't partially match
     // 300 rather than 3.
-    assertThat(contentAsString(result)).contains("Total Questions: 3<");
-    assertThat(contentAsString(result)).contains("All Questions");
+    assertThat(contentAsString(result, mat)).contains("Total Questions: 3<");
+    assertThat(contentAsString(result, mat)).contains("All Questions");
   }
 
   @Test
@@ -268,8 +268,8 @@ public class AdminQuestionControllerTest extends ResetPostgres {
     assertThat(result.status()).isEqualTo(OK);
     assertThat(result.contentType()).hasValue("text/html");
     assertThat(result.charset()).hasValue("utf-8");
-    assertThat(contentAsString(result)).contains("Total Questions: 0");
-    assertThat(contentAsString(result)).contains("All Questions");
+    assertThat(contentAsString(result, mat)).contains("Total Questions: 0");
+    assertThat(contentAsString(result, mat)).contains("All Questions");
   }
 
   @Test
@@ -279,7 +279,7 @@ public class AdminQuestionControllerTest extends ResetPostgres {
     assertThat(result.status()).isEqualTo(OK);
     assertThat(result.contentType()).hasValue("text/html");
     assertThat(result.charset()).hasValue("utf-8");
-    assertThat(contentAsString(result)).contains("has message");
+    assertThat(contentAsString(result, mat)).contains("has message");
   }
 
   @Test
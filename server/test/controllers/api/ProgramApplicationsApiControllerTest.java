@@ -9,20 +9,34 @@ import static play.test.Helpers.route;
 
 import auth.ApiKeyGrants;
 import auth.UnauthorizedApiRequestException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.jayway.jsonpath.DocumentContext;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Optional;
+import models.Account;
 import models.ApiKey;
+import models.Applicant;
 import models.Application;
+import models.ApplicationEvent;
+import models.LifecycleStage;
 import models.Program;
 import org.apache.http.HttpStatus;
 import org.junit.Before;
 import org.junit.Test;
+import play.libs.Json;
 import play.mvc.Http;
 import play.mvc.Result;
+import services.LocalizedStrings;
 import services.applicant.JsonPathProvider;
+import services.applications.AccountHasNoEmailException;
 import services.export.AbstractExporterTest;
+import services.program.StatusDefinitions;
+import support.ProgramBuilder;
 
 public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
 
@@ -150,6 +164,199 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
         .hasMessage("API key key-id does not have access to test-program");
   }
 
+  @Test
+  public void updateStatuses_readOnlyKey_unauthorized() {
+    insertApiKeyCreator();
+    Program program = insertProgramWithStatuses();
+    apiKey.getGrants().grantProgramPermission(program.getSlug(), ApiKeyGrants.Permission.READ);
+    apiKey.save();
+    Application application = insertApplication(program, Optional.empty());
+
+    assertThatThrownBy(() -> doUpdateStatusesRequest(program, /* sendEmail= */ false, application))
+        .isInstanceOf(UnauthorizedApiRequestException.class);
+    application.refresh();
+    assertThat(application.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateStatuses_applicationOfOtherProgram_badRequest() {
+    insertApiKeyCreator();
+    Program program = insertProgramWithStatuses();
+    apiKey.getGrants().grantProgramPermission(program.getSlug(), ApiKeyGrants.Permission.WRITE);
+    apiKey.save();
+    Application application = insertApplication(program, Optional.empty());
+
+    assertThatThrownBy(
+            () ->
+                doUpdateStatusesRequest(
+                    program, /* sendEmail= */ false, application, januaryApplication))
+        .satisfies(
+            e ->
+                assertThat(Throwables.getRootCause(e))
+                    .isInstanceOf(BadApiRequestException.class));
+    application.refresh();
+    assertThat(application.getApplicationEvents()).isEmpty();
+    januaryApplication.refresh();
+    assertThat(januaryApplication.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateStatuses_applicantWithoutEmail_setsNoStatus() {
+    insertApiKeyCreator();
+    Program program = insertProgramWithStatuses();
+    apiKey.getGrants().grantProgramPermission(program.getSlug(), ApiKeyGrants.Permission.WRITE);
+    apiKey.save();
+    Application applicationWithEmail =
+        insertApplication(program, Optional.of("applicant@example.com"));
+    Application applicationWithoutEmail = insertApplication(program, Optional.empty());
+
+    assertThatThrownBy(
+            () ->
+                doUpdateStatusesRequest(
+                    program,
+                    /* sendEmail= */ true,
+                    applicationWithEmail,
+                    applicationWithoutEmail))
+        .satisfies(
+            e ->
+                assertThat(Throwables.getRootCause(e))
+                    .isInstanceOf(AccountHasNoEmailException.class));
+    applicationWithEmail.refresh();
+    assertThat(applicationWithEmail.getApplicationEvents()).isEmpty();
+    applicationWithoutEmail.refresh();
+    assertThat(applicationWithoutEmail.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateStatuses_success_attributedToKeyCreator() {
+    Account creator = insertApiKeyCreator();
+    Program program = insertProgramWithStatuses();
+    apiKey.getGrants().grantProgramPermission(program.getSlug(), ApiKeyGrants.Permission.WRITE);
+    apiKey.save();
+    Application applicationOne = insertApplication(program, Optional.empty());
+    Application applicationTwo = insertApplication(program, Optional.empty());
+
+    Result result =
+        doUpdateStatusesRequest(program, /* sendEmail= */ false, applicationOne, applicationTwo);
+    assertThat(result.status()).isEqualTo(HttpStatus.SC_OK);
+
+    for (Application application : ImmutableList.of(applicationOne, applicationTwo)) {
+      application.refresh();
+      assertThat(application.getApplicationEvents()).hasSize(1);
+      ApplicationEvent event = application.getApplicationEvents().get(0);
+      assertThat(event.getDetails().statusEvent().get().statusText()).isEqualTo("Approved");
+      assertThat(event.getCreator()).isEqualTo(creator);
+    }
+  }
+
+  @Test
+  public void updateNotes_readOnlyKey_unauthorized() {
+    insertApiKeyCreator();
+
+    assertThatThrownBy(
+            () -> doUpdateNotesRequest(fakeProgramWithEnumerator.getSlug(), januaryApplication))
+        .isInstanceOf(UnauthorizedApiRequestException.class);
+    januaryApplication.refresh();
+    assertThat(januaryApplication.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateNotes_applicationOfOtherProgram_badRequest() {
+    insertApiKeyCreator();
+    Program program = insertProgramWithStatuses();
+    apiKey.getGrants().grantProgramPermission(program.getSlug(), ApiKeyGrants.Permission.WRITE);
+    apiKey.save();
+    Application application = insertApplication(program, Optional.empty());
+
+    assertThatThrownBy(
+            () -> doUpdateNotesRequest(program.getSlug(), application, januaryApplication))
+        .satisfies(
+            e ->
+                assertThat(Throwables.getRootCause(e))
+                    .isInstanceOf(BadApiRequestException.class));
+    application.refresh();
+    assertThat(application.getApplicationEvents()).isEmpty();
+    januaryApplication.refresh();
+    assertThat(januaryApplication.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void updateNotes_success_attributedToKeyCreator() {
+    Account creator = insertApiKeyCreator();
+    apiKey
+        .getGrants()
+        .grantProgramPermission(
+            fakeProgramWithEnumerator.getSlug(), ApiKeyGrants.Permission.WRITE);
+    apiKey.save();
+
+    Result result = doUpdateNotesRequest(fakeProgramWithEnumerator.getSlug(), januaryApplication);
+    assertThat(result.status()).isEqualTo(HttpStatus.SC_OK);
+
+    januaryApplication.refresh();
+    assertThat(januaryApplication.getApplicationEvents()).hasSize(1);
+    ApplicationEvent event = januaryApplication.getApplicationEvents().get(0);
+    assertThat(event.getDetails().noteEvent().get().note()).isEqualTo("Called the applicant.");
+    assertThat(event.getCreator()).isEqualTo(creator);
+  }
+
+  /** The account that created {@link #apiKey}, which status and note events are attributed to. */
+  private Account insertApiKeyCreator() {
+    Account account = resourceCreator.insertAccount();
+    account.setAuthorityId(apiKey.getCreatedBy());
+    account.save();
+    return account;
+  }
+
+  private Program insertProgramWithStatuses() {
+    return ProgramBuilder.newActiveProgram("status-program")
+        .withStatusDefinitions(
+            new StatusDefinitions(
+                ImmutableList.of(
+                    StatusDefinitions.Status.builder()
+                        .setStatusText("Approved")
+                        .setLocalizedStatusText(LocalizedStrings.withDefaultValue("Approved"))
+                        .setLocalizedEmailBodyText(
+                            Optional.of(LocalizedStrings.withDefaultValue("Approved email body")))
+                        .build())))
+        .build();
+  }
+
+  private Application insertApplication(Program program, Optional<String> applicantEmail) {
+    Applicant applicant = resourceCreator.insertApplicantWithAccount(applicantEmail);
+    return Application.create(applicant, program, LifecycleStage.ACTIVE);
+  }
+
+  private Result doUpdateStatusesRequest(
+      Program program, boolean sendEmail, Application... applications) {
+    ObjectNode body = Json.newObject();
+    Arrays.stream(applications).forEach(a -> body.withArray("applicationIds").add(a.id));
+    body.put("status", "Approved");
+    body.put("sendEmail", sendEmail);
+    return doPostRequest(
+        controllers.api.routes.ProgramApplicationsApiController.updateStatuses(program.getSlug())
+            .url(),
+        body);
+  }
+
+  private Result doUpdateNotesRequest(String programSlug, Application... applications) {
+    ObjectNode body = Json.newObject();
+    Arrays.stream(applications).forEach(a -> body.withArray("applicationIds").add(a.id));
+    body.put("note", "Called the applicant.");
+    return doPostRequest(
+        controllers.api.routes.ProgramApplicationsApiController.updateNotes(programSlug).url(),
+        body);
+  }
+
+  private Result doPostRequest(String requestUrl, JsonNode body) {
+    return route(
+        app,
+        fakeRequest("POST", requestUrl)
+            .bodyJson(body)
+            .remoteAddress("1.1.1.1")
+            .header("Authorization", "Basic " + serializedApiKey)
+            .header(Http.HeaderNames.HOST, "localhost:" + testServerPort()));
+  }
+
   private Result doRequest(String requestUrl) {
     return route(
         app,
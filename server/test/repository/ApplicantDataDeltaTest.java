@@ -0,0 +1,50 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import org.junit.Test;
+
+public class ApplicantDataDeltaTest {
+
+  @Test
+  public void between_equivalentDocuments_isEmpty() {
+    ApplicantDataDelta delta =
+        ApplicantDataDelta.between(
+            "{\"applicant\":{\"name\":{\"first\":\"Alice\"},\"dob\":1}}",
+            "{ \"applicant\": { \"dob\": 1, \"name\": { \"first\": \"Alice\" } } }");
+
+    assertThat(delta.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void between_describesChangedQuestionsAsAWhole() {
+    ApplicantDataDelta delta =
+        ApplicantDataDelta.between(
+            "{\"applicant\":{\"name\":{\"first\":\"Alice\",\"last\":\"Doe\"},\"dob\":1}}",
+            "{\"applicant\":{\"name\":{\"first\":\"Alicia\",\"last\":\"Doe\"},\"dob\":1}}");
+
+    assertThat(delta.changes())
+        .containsExactly(
+            ApplicantDataDelta.Change.create(
+                ImmutableList.of("applicant", "name"),
+                Optional.of("{\"first\":\"Alicia\",\"last\":\"Doe\"}")));
+  }
+
+  @Test
+  public void between_describesAddedAndRemovedProperties() {
+    ApplicantDataDelta delta =
+        ApplicantDataDelta.between(
+            "{\"applicant\":{\"name\":{\"first\":\"Alice\"}}}",
+            "{\"applicant\":{\"dob\":1},\"other\":[]}");
+
+    assertThat(delta.changes())
+        .containsExactlyInAnyOrder(
+            ApplicantDataDelta.Change.create(
+                ImmutableList.of("applicant", "name"), Optional.empty()),
+            ApplicantDataDelta.Change.create(
+                ImmutableList.of("applicant", "dob"), Optional.of("1")),
+            ApplicantDataDelta.Change.create(ImmutableList.of("other"), Optional.of("[]")));
+  }
+}
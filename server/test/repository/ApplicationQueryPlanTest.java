@@ -0,0 +1,260 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.Query;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import models.Application;
+import models.LifecycleStage;
+import models.Models;
+import models.Version;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.ProgramBuilder;
+
+/**
+ * Checks that the queries used to look up applications don't scan the whole applications table
+ * once it holds a realistic number of applications, so that a change that drops or bypasses one of
+ * the indexes from evolution 50 is caught here rather than in production.
+ *
+ * <p>Each test runs the query of the repository method it names, and explains the SQL Ebean
+ * generated for it. The generic plan is explained, which is the plan a prepared statement settles
+ * on once it has been executed a few times, and doesn't depend on the parameter values.
+ *
+ * <p>The tables are seeded once for all tests, which only read them, and analyzed so the planner
+ * makes the choices it would make with the same data in production.
+ */
+public class ApplicationQueryPlanTest extends ResetPostgres {
+  private static final int PROGRAM_COUNT = 200;
+  private static final int APPLICANT_COUNT = 25000;
+
+  private static long programId;
+  private static long applicantId;
+  private static int preparedStatementCount;
+
+  private ApplicationRepository applicationRepository;
+  private ProgramRepository programRepository;
+
+  @BeforeClass
+  public static void seedApplications() {
+    Database database = DB.getDefault();
+    Models.truncate(database);
+    new Version(LifecycleStage.ACTIVE).save();
+
+    // Each program has an obsolete and an active version, which share a name. They are copies of
+    // a program saved by Ebean, so that the tests can load them.
+    long templateProgramId = ProgramBuilder.newActiveProgram("template").build().id;
+    database
+        .sqlUpdate(
+            "INSERT INTO programs (name, description, external_link, display_mode, localized_name,"
+                + " localized_description, block_definitions, status_definitions, create_time,"
+                + " last_modified_time)"
+                + " SELECT 'program ' || (i % :programCount), description, external_link,"
+                + " display_mode, localized_name, localized_description, block_definitions,"
+                + " status_definitions, create_time, last_modified_time"
+                + " FROM programs CROSS JOIN generate_series(0, 2 * :programCount - 1) AS i"
+                + " WHERE programs.id = :templateProgramId")
+        .setParameter("programCount", PROGRAM_COUNT)
+        .setParameter("templateProgramId", templateProgramId)
+        .execute();
+    database
+        .sqlUpdate(
+            "INSERT INTO applicants (object) SELECT to_jsonb(CAST(json_build_object('applicant',"
+                + " json_build_object('name', json_build_object('first_name', 'First' || i,"
+                + " 'last_name', 'Last' || i), 'notes', repeat('x', 500))) AS text))"
+                + " FROM generate_series(1, :applicantCount) AS i")
+        .setParameter("applicantCount", APPLICANT_COUNT)
+        .execute();
+    // Each applicant has applications to two programs, interleaved so that a program's applications
+    // are spread over the table. One in four is a draft, and the others were submitted a minute
+    // apart.
+    database
+        .sqlUpdate(
+            "INSERT INTO applications (applicant_id, program_id, object, lifecycle_stage,"
+                + " submit_time, submitter_email)"
+                + " SELECT a.id, p.id, a.object,"
+                + " CASE WHEN a.n % 4 = 0 THEN 'draft' ELSE 'active' END,"
+                + " CASE WHEN a.n % 4 = 0 THEN NULL"
+                + " ELSE CAST(now() AS timestamp) - a.n * interval '1 minute' END,"
+                + " CASE WHEN a.n % 10 = 0 THEN 'ti' || a.n || '@example.com' END"
+                + " FROM (SELECT id, object, row_number() OVER (ORDER BY id) AS n"
+                + " FROM applicants) a"
+                + " JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS i FROM programs"
+                + " WHERE id <> :templateProgramId) p"
+                + " ON p.i IN (a.n % (2 * :programCount), (a.n * 7 + 1) % (2 * :programCount))"
+                + " ORDER BY a.n, p.i")
+        .setParameter("programCount", PROGRAM_COUNT)
+        .setParameter("templateProgramId", templateProgramId)
+        .execute();
+    database.sqlUpdate("ANALYZE programs").execute();
+    database.sqlUpdate("ANALYZE applicants").execute();
+    database.sqlUpdate("ANALYZE applications").execute();
+
+    programId = database.sqlQuery("SELECT MAX(id) AS id FROM programs").findOne().getLong("id");
+    applicantId =
+        database
+            .sqlQuery("SELECT MIN(applicant_id) AS id FROM applications")
+            .findOne()
+            .getLong("id");
+  }
+
+  /** The seeded tables are kept for all tests rather than reset before each one. */
+  @Override
+  @Before
+  public void resetTables() {}
+
+  @Before
+  public void setUp() {
+    applicationRepository = instanceOf(ApplicationRepository.class);
+    programRepository = instanceOf(ProgramRepository.class);
+  }
+
+  /** {@link ProgramRepository#getApplicationsForAllProgramVersionsBefore}. */
+  @Test
+  public void submittedApplicationsPage_usesIndex() {
+    Query<Application> query =
+        programRepository.applicationsForAllProgramVersionsBeforeQuery(
+            programId, Long.MAX_VALUE, 10, SubmittedApplicationFilter.EMPTY);
+    query.findList();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ProgramRepository#countApplicationsForAllProgramVersions}. */
+  @Test
+  public void submittedApplicationsCount_usesIndex() {
+    Query<Application> query =
+        programRepository
+            .submittedApplicationsQuery(programId, SubmittedApplicationFilter.EMPTY)
+            .query();
+    query.findCount();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ProgramRepository#getApplicationsForAllProgramVersionsBefore} with a search. */
+  @Test
+  public void submittedApplicationsSearch_usesIndex() {
+    Query<Application> query =
+        programRepository.applicationsForAllProgramVersionsBeforeQuery(
+            programId,
+            Long.MAX_VALUE,
+            10,
+            SubmittedApplicationFilter.builder()
+                .setSubmitTimeFilter(TimeFilter.EMPTY)
+                .setSearchNameFragment(Optional.of("last12"))
+                .build());
+    query.findList();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ProgramRepository#getApplicationsForAllProgramVersionsBefore} with a status. */
+  @Test
+  public void submittedApplicationsStatusFilter_usesIndex() {
+    Query<Application> query =
+        programRepository.applicationsForAllProgramVersionsBeforeQuery(
+            programId,
+            Long.MAX_VALUE,
+            10,
+            SubmittedApplicationFilter.builder()
+                .setSubmitTimeFilter(TimeFilter.EMPTY)
+                .setApplicationStatus(Optional.of("Approved"))
+                .build());
+    query.findList();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ApplicationRepository#getApplicationsForApplicant}. */
+  @Test
+  public void applicationsForApplicant_usesIndex() {
+    Query<Application> query =
+        applicationRepository.applicationsForApplicantQuery(
+            applicantId, ImmutableSet.of(LifecycleStage.DRAFT, LifecycleStage.ACTIVE));
+    query.findSet();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ApplicationRepository#submitApplication}. */
+  @Test
+  public void applicationsForApplicantAndProgramName_usesIndex() {
+    Query<Application> query =
+        applicationRepository.applicationsToProgramQuery(applicantId, "program 1");
+    query.findList();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ApplicationRepository#createOrUpdateDraft}. */
+  @Test
+  public void draftApplication_usesIndex() {
+    Query<Application> query = applicationRepository.draftApplicationQuery(applicantId, programId);
+    query.findOneOrEmpty();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  /** {@link ApplicationRepository#getApplications(TimeFilter)}. */
+  @Test
+  public void applicationsSubmittedInTimeRange_usesIndex() {
+    Instant now = Instant.now();
+    Query<Application> query =
+        applicationRepository.submittedApplicationsQuery(
+            TimeFilter.builder()
+                .setFromTime(Optional.of(now.minus(Duration.ofHours(2))))
+                .setUntilTime(Optional.of(now.minus(Duration.ofHours(1))))
+                .build());
+    query.findList();
+
+    assertDoesNotScanApplications(query.getGeneratedSql());
+  }
+
+  private void assertDoesNotScanApplications(String generatedSql) {
+    // Ebean binds parameters with "?", which PREPARE takes as $1, $2, and so on.
+    StringBuilder sql = new StringBuilder();
+    int parameterCount = 0;
+    for (char c : generatedSql.toCharArray()) {
+      if (c == '?') {
+        sql.append('$').append(++parameterCount);
+      } else {
+        sql.append(c);
+      }
+    }
+    // Prepared statements outlive the transaction, so each gets its own name.
+    String statementName = "query_plan_test_" + ++preparedStatementCount;
+    String parameters = String.join(", ", Collections.nCopies(parameterCount, "NULL"));
+    String execute =
+        parameterCount == 0 ? statementName : String.format("%s(%s)", statementName, parameters);
+
+    Database database = DB.getDefault();
+    String plan;
+    try (Transaction transaction = database.beginTransaction()) {
+      database.sqlUpdate("SET LOCAL plan_cache_mode = force_generic_plan").execute();
+      database.sqlUpdate("PREPARE " + statementName + " AS " + sql).execute();
+      plan =
+          database.sqlQuery("EXPLAIN EXECUTE " + execute).findList().stream()
+              .map(ApplicationQueryPlanTest::firstColumn)
+              .collect(Collectors.joining("\n"));
+      database.sqlUpdate("DEALLOCATE " + statementName).execute();
+      transaction.rollback();
+    }
+
+    assertThat(plan).as("Plan for %s", sql).doesNotContain("Seq Scan on applications");
+  }
+
+  private static String firstColumn(SqlRow row) {
+    return String.valueOf(row.values().iterator().next());
+  }
+}
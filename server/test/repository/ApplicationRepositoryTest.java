@@ -2,9 +2,12 @@ package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import io.ebean.DB;
 import java.time.Instant;
 import java.util.Optional;
 import models.Applicant;
@@ -104,6 +107,64 @@ public class ApplicationRepositoryTest extends ResetPostgres {
     assertThat(appDraft2.getSubmitTime()).isNull();
   }
 
+  @Test
+  public void updateApplicantDataAndCreateDraftIfMissing_createsOneDraftAndSubmitsLatestData() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createProgram("Program");
+
+    repo.updateApplicantDataAndCreateDraftIfMissing(applicant, program.id)
+        .toCompletableFuture()
+        .join();
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Bob");
+    repo.updateApplicantDataAndCreateDraftIfMissing(applicant, program.id)
+        .toCompletableFuture()
+        .join();
+
+    assertThat(
+            DB.find(Applicant.class, applicant.id)
+                .getApplicantData()
+                .readString(Path.create("$.applicant.name")))
+        .contains("Bob");
+    ImmutableList<Application> drafts =
+        ImmutableList.copyOf(
+            DB.find(Application.class)
+                .where()
+                .eq("applicant.id", applicant.id)
+                .eq("lifecycle_stage", LifecycleStage.DRAFT)
+                .findList());
+    assertThat(drafts).hasSize(1);
+    assertThat(drafts.get(0).getApplicantData().readString(Path.create("$.applicant.name")))
+        .contains("Bob");
+
+    Application submitted =
+        repo.submitApplication(applicant, program, Optional.empty()).toCompletableFuture().join();
+    assertThat(submitted.id).isEqualTo(drafts.get(0).id);
+    assertThat(submitted.getApplicantData().readString(Path.create("$.applicant.name")))
+        .contains("Bob");
+  }
+
+  @Test
+  public void createDraftIfMissing_copiesSavedApplicantData() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createProgram("Program");
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Unsaved");
+
+    repo.createDraftIfMissing(applicant, program.id).toCompletableFuture().join();
+    repo.createDraftIfMissing(applicant, program.id).toCompletableFuture().join();
+
+    ImmutableList<Application> drafts =
+        ImmutableList.copyOf(
+            DB.find(Application.class)
+                .where()
+                .eq("applicant.id", applicant.id)
+                .eq("lifecycle_stage", LifecycleStage.DRAFT)
+                .findList());
+    assertThat(drafts).hasSize(1);
+    assertThat(drafts.get(0).getApplicantData().readString(Path.create("$.applicant.name")))
+        .contains("Alice");
+    assertThat(drafts.get(0).getCreateTime()).isNotNull();
+  }
+
   @Test
   public void submitApplication_twoDraftsThrowsException() {
     Applicant applicant = saveApplicant("Alice");
@@ -148,6 +209,60 @@ public class ApplicationRepositoryTest extends ResetPostgres {
         .isEqualTo(LifecycleStage.ACTIVE);
   }
 
+  @Test
+  public void hasSubmittedApplications() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createProgram("Program");
+
+    repo.createOrUpdateDraft(applicant, program).toCompletableFuture().join();
+    assertThat(repo.hasSubmittedApplications(program.id)).isFalse();
+
+    repo.submitApplication(applicant, program, Optional.empty()).toCompletableFuture().join();
+    assertThat(repo.hasSubmittedApplications(program.id)).isTrue();
+  }
+
+  @Test
+  public void getMaxRepeatedEntityCounts() {
+    Program program = createProgram("Program");
+    Path householdMembers = Path.create("applicant.household_members[]");
+    Path firstMemberJobs = householdMembers.atIndex(0).join("jobs[]");
+    Path secondMemberJobs = householdMembers.atIndex(1).join("jobs[]");
+    Path pets = Path.create("applicant.pets[]");
+
+    Applicant alice = saveApplicant("Alice");
+    alice
+        .getApplicantData()
+        .putRepeatedEntities(householdMembers, ImmutableList.of("Anne", "Bailey"));
+    alice.getApplicantData().putRepeatedEntities(secondMemberJobs, ImmutableList.of("Chef"));
+    alice.save();
+    repo.submitApplication(alice, program, Optional.empty()).toCompletableFuture().join();
+
+    Applicant bob = saveApplicant("Bob");
+    bob.getApplicantData().putRepeatedEntities(householdMembers, ImmutableList.of("James"));
+    bob.getApplicantData()
+        .putRepeatedEntities(firstMemberJobs, ImmutableList.of("Baker", "Driver", "Nurse"));
+    bob.save();
+    repo.submitApplication(bob, program, Optional.empty()).toCompletableFuture().join();
+
+    // Draft applications aren't counted.
+    Applicant carol = saveApplicant("Carol");
+    carol
+        .getApplicantData()
+        .putRepeatedEntities(householdMembers, ImmutableList.of("A", "B", "C", "D"));
+    carol.save();
+    repo.createOrUpdateDraft(carol, program).toCompletableFuture().join();
+
+    assertThat(
+            repo.getMaxRepeatedEntityCounts(
+                program.id,
+                ImmutableList.of(householdMembers, firstMemberJobs, secondMemberJobs, pets)))
+        .containsExactly(
+            entry(householdMembers, 2),
+            entry(firstMemberJobs, 3),
+            entry(secondMemberJobs, 1),
+            entry(pets, 0));
+  }
+
   private Application createSubmittedAppAtInstant(Program program, Instant submitTime) {
     // Use a distinct applicant for each application since it's not possible to create multiple
     // submitted applications for the same program for a given applicant.
@@ -309,6 +424,48 @@ public class ApplicationRepositoryTest extends ResetPostgres {
     assertThat(result).isEmpty();
   }
 
+  @Test
+  public void getLatestApplicationSummaries() {
+    Applicant applicant = saveApplicant("Applicant");
+    Program programV1 = createProgram("Program");
+    Program programV2 = createProgram("Program");
+    Program otherProgram = createProgram("Other");
+    Instant now = Instant.now();
+
+    Application earlierSubmission = Application.create(applicant, programV1, LifecycleStage.ACTIVE);
+    earlierSubmission.setSubmitTimeForTest(now.minusSeconds(60)).save();
+    Application laterSubmission = Application.create(applicant, programV2, LifecycleStage.ACTIVE);
+    laterSubmission.setSubmitTimeForTest(now).save();
+    Application earlierDraft = Application.create(applicant, programV2, LifecycleStage.DRAFT);
+    earlierDraft.setCreateTimeForTest(now.minusSeconds(60)).save();
+    Application laterDraft = Application.create(applicant, programV2, LifecycleStage.DRAFT);
+    laterDraft.setCreateTimeForTest(now).save();
+    Application.create(applicant, programV1, LifecycleStage.OBSOLETE);
+    Application otherDraft = Application.create(applicant, otherProgram, LifecycleStage.DRAFT);
+    Application.create(saveApplicant("Other"), otherProgram, LifecycleStage.ACTIVE);
+
+    ImmutableList<ApplicationSummary> result =
+        repo.getLatestApplicationSummaries(applicant.id).toCompletableFuture().join();
+
+    assertThat(result)
+        .extracting(
+            ApplicationSummary::applicationId,
+            ApplicationSummary::programId,
+            ApplicationSummary::programName,
+            ApplicationSummary::lifecycleStage,
+            ApplicationSummary::applicationsWithStageCount)
+        .containsExactlyInAnyOrder(
+            tuple(otherDraft.id, otherProgram.id, "Other", LifecycleStage.DRAFT, 1),
+            tuple(laterDraft.id, programV2.id, "Program", LifecycleStage.DRAFT, 2),
+            tuple(laterSubmission.id, programV2.id, "Program", LifecycleStage.ACTIVE, 2));
+    assertThat(
+            result.stream()
+                .filter(summary -> summary.lifecycleStage().equals(LifecycleStage.ACTIVE))
+                .findAny()
+                .flatMap(ApplicationSummary::submitTime))
+        .isPresent();
+  }
+
   private Applicant saveApplicant(String name) {
     Applicant applicant = new Applicant();
     applicant.getApplicantData().putString(Path.create("$.applicant.name"), name);
@@ -1,6 +1,7 @@
 package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -138,6 +139,43 @@ public class ProgramRepositoryTest extends ResetPostgres {
     assertThat(found.getProgramDefinition().adminDescription()).isEqualTo("Description");
   }
 
+  @Test
+  public void getForSlug_withOldSchema_doesNotStoreSlug() {
+    DB.sqlUpdate(
+            "insert into programs (name, description, block_definitions,"
+                + " legacy_localized_name, legacy_localized_description) values ('Old Schema"
+                + " Entry', 'Description', '[]', '{\"en_us\": \"a\"}', '{\"en_us\":"
+                + " \"b\"}');")
+        .execute();
+    DB.sqlUpdate(
+            "insert into versions_programs (versions_id, programs_id) values ("
+                + "(select id from versions where lifecycle_stage = 'active'),"
+                + "(select id from programs where name = 'Old Schema Entry'));")
+        .execute();
+
+    repo.getForSlug("old-schema-entry").toCompletableFuture().join();
+
+    assertThat(
+            DB.sqlQuery("select slug from programs where name = 'Old Schema Entry'")
+                .findOne()
+                .getString("slug"))
+        .isNull();
+  }
+
+  @Test
+  public void getForSlug_findsProgramPublishedAfterEarlierLookup() {
+    Program first = resourceCreator.insertActiveProgram("First Program");
+    assertThat(repo.getForSlug("first-program").toCompletableFuture().join()).isEqualTo(first);
+    Program second = resourceCreator.insertDraftProgram("Second Program");
+    assertThatThrownBy(() -> repo.getForSlug("second-program").toCompletableFuture().join())
+        .hasCauseInstanceOf(RuntimeException.class)
+        .hasRootCauseInstanceOf(ProgramNotFoundException.class);
+
+    resourceCreator.publishNewSynchronizedVersion();
+
+    assertThat(repo.getForSlug("second-program").toCompletableFuture().join()).isEqualTo(second);
+  }
+
   @Test
   public void getForSlug_findsCorrectProgram() {
     Program program = resourceCreator.insertActiveProgram("Something With A Name");
@@ -520,6 +558,47 @@ public class ProgramRepositoryTest extends ResetPostgres {
         .isEqualTo(ImmutableList.of(applicationTwo.id));
   }
 
+  @Test
+  public void getApplicationsForAllProgramVersionsBefore_pagesThroughApplicationsWithoutCount() {
+    Program program = resourceCreator.insertActiveProgram("test program");
+    ImmutableList.Builder<Long> applicationIds = ImmutableList.builder();
+    for (int i = 0; i < 5; i++) {
+      Applicant applicant = resourceCreator.insertApplicantWithAccount();
+      applicationIds.add(resourceCreator.insertActiveApplication(applicant, program).id);
+    }
+    ImmutableList<Long> ids = applicationIds.build().reverse();
+
+    ImmutableList<Application> firstPage =
+        repo.getApplicationsForAllProgramVersionsBefore(
+            program.id, Long.MAX_VALUE, /* maxRows= */ 2, SubmittedApplicationFilter.EMPTY);
+    ImmutableList<Application> secondPage =
+        repo.getApplicationsForAllProgramVersionsBefore(
+            program.id, ids.get(1), /* maxRows= */ 2, SubmittedApplicationFilter.EMPTY);
+    ImmutableList<Application> thirdPage =
+        repo.getApplicationsForAllProgramVersionsBefore(
+            program.id, ids.get(3), /* maxRows= */ 2, SubmittedApplicationFilter.EMPTY);
+
+    assertThat(firstPage.stream().map(a -> a.id)).containsExactly(ids.get(0), ids.get(1));
+    assertThat(secondPage.stream().map(a -> a.id)).containsExactly(ids.get(2), ids.get(3));
+    assertThat(thirdPage.stream().map(a -> a.id)).containsExactly(ids.get(4));
+    assertThat(
+            repo.getPreviousPageOffsetIdentifier(
+                program.id,
+                new IdentifierBasedPaginationSpec<>(2, ids.get(3)),
+                SubmittedApplicationFilter.EMPTY))
+        .contains(ids.get(1));
+    assertThat(
+            repo.getPreviousPageOffsetIdentifier(
+                program.id,
+                new IdentifierBasedPaginationSpec<>(2, ids.get(1)),
+                SubmittedApplicationFilter.EMPTY))
+        .isEmpty();
+    assertThat(
+            repo.countApplicationsForAllProgramVersions(
+                program.id, SubmittedApplicationFilter.EMPTY))
+        .isEqualTo(5);
+  }
+
   @Test
   public void getApplicationsForAllProgramVersions_multipleVersions_pageNumberBasedPagination() {
     Applicant applicantOne =
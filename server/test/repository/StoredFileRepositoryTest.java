@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import auth.StoredFileAcls;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import io.ebean.Database;
 import java.util.List;
@@ -45,6 +46,32 @@ public class StoredFileRepositoryTest extends ResetPostgres {
     assertThat(file.getAcls().getProgramReadAcls()).containsOnly("program-one");
   }
 
+  @Test
+  public void addProgramToReaders_updatesAllFilesOnce() {
+    file.getAcls()
+        .addProgramToReaders(ProgramBuilder.newDraftProgram("program-one").buildDefinition());
+    file.save();
+    StoredFile fileTwo = new StoredFile().setName("file-two");
+    fileTwo.save();
+    StoredFile otherFile = new StoredFile().setName("other-file");
+    otherFile.save();
+
+    repo.addProgramToReaders(
+            ImmutableList.of(file.getName(), fileTwo.getName()),
+            ProgramBuilder.newDraftProgram("program-two").buildDefinition())
+        .toCompletableFuture()
+        .join();
+    repo.addProgramToReaders(
+            ImmutableList.of(fileTwo.getName()),
+            ProgramBuilder.newDraftProgram("program-two").buildDefinition())
+        .toCompletableFuture()
+        .join();
+
+    assertThat(getProgramReadAcls(file)).containsOnly("program-one", "program-two");
+    assertThat(getProgramReadAcls(fileTwo)).containsOnly("program-two");
+    assertThat(getProgramReadAcls(otherFile)).isEmpty();
+  }
+
   @Test
   public void lookupFiles() {
     file.save();
@@ -86,4 +113,13 @@ public class StoredFileRepositoryTest extends ResetPostgres {
     assertThat(result.getName()).isEqualTo(fileName);
     assertThat(result.getAcls()).isInstanceOf(StoredFileAcls.class);
   }
+
+  private ImmutableSet<String> getProgramReadAcls(StoredFile storedFile) {
+    return repo.lookupFile(storedFile.id)
+        .toCompletableFuture()
+        .join()
+        .get()
+        .getAcls()
+        .getProgramReadAcls();
+  }
 }
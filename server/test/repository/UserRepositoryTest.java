@@ -104,6 +104,51 @@ public class UserRepositoryTest extends ResetPostgres {
     assertThat(a.getApplicantData().readString(Path.create(path))).hasValue("1/1/2021");
   }
 
+  @Test
+  public void updateApplicantData_onlyOverwritesChangedProperties() {
+    Applicant applicant = saveApplicant("Alice");
+    Applicant concurrentlyLoaded = repo.lookupApplicantSync(applicant.id).get();
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Alicia");
+    concurrentlyLoaded
+        .getApplicantData()
+        .putString(Path.create("$.applicant.applicant_date_of_birth"), "1/1/2021");
+
+    repo.updateApplicantData(applicant).toCompletableFuture().join();
+    repo.updateApplicantData(concurrentlyLoaded).toCompletableFuture().join();
+
+    Applicant found = repo.lookupApplicantSync(applicant.id).get();
+    assertThat(found.getApplicantData().readString(Path.create("$.applicant.name")))
+        .hasValue("Alicia");
+    assertThat(
+            found
+                .getApplicantData()
+                .readString(Path.create("$.applicant.applicant_date_of_birth")))
+        .hasValue("1/1/2021");
+  }
+
+  @Test
+  public void updateApplicantData_removesDeletedProperties() {
+    Applicant applicant = saveApplicant("Alice");
+    applicant.getApplicantData().getDocumentContext().delete("$.applicant.name");
+
+    repo.updateApplicantData(applicant).toCompletableFuture().join();
+
+    Applicant found = repo.lookupApplicantSync(applicant.id).get();
+    assertThat(found.getApplicantData().hasPath(Path.create("$.applicant.name"))).isFalse();
+  }
+
+  @Test
+  public void updateApplicantData_savesNewApplicant() {
+    Applicant applicant = new Applicant();
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Alice");
+
+    repo.updateApplicantData(applicant).toCompletableFuture().join();
+
+    Applicant found = repo.lookupApplicantSync(applicant.id).get();
+    assertThat(found.getApplicantData().readString(Path.create("$.applicant.name")))
+        .hasValue("Alice");
+  }
+
   @Test
   public void lookupApplicantSync_returnsEmptyOptionalWhenApplicantNotFound() {
     Optional<Applicant> found = repo.lookupApplicantSync(1L);
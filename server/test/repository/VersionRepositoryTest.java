@@ -408,4 +408,46 @@ public class VersionRepositoryTest extends ResetPostgres {
                 .questionId())
         .isEqualTo(newOne.id);
   }
+
+  @Test
+  public void getCurrentVersionsStamp_unchangedWithoutEdits() {
+    resourceCreator.insertActiveProgram("program");
+
+    assertThat(versionRepository.getCurrentVersionsStamp())
+        .isEqualTo(versionRepository.getCurrentVersionsStamp());
+  }
+
+  @Test
+  public void getCurrentVersionsStamp_changesWhenQuestionAddedToVersion() {
+    String before = versionRepository.getCurrentVersionsStamp();
+
+    // Add the question directly to the version, bypassing the repositories.
+    Question question = resourceCreator.insertQuestion("new-question");
+    question.addVersion(versionRepository.getActiveVersion()).save();
+
+    assertThat(versionRepository.getCurrentVersionsStamp()).isNotEqualTo(before);
+  }
+
+  @Test
+  public void getCurrentVersionsStamp_changesOnTombstone() {
+    Question question = resourceCreator.insertQuestion("question");
+    question.addVersion(versionRepository.getDraftVersion()).save();
+    String before = versionRepository.getCurrentVersionsStamp();
+
+    Version draft = versionRepository.getDraftVersion();
+    draft.addTombstoneForQuestion(question);
+    draft.save();
+
+    assertThat(versionRepository.getCurrentVersionsStamp()).isNotEqualTo(before);
+  }
+
+  @Test
+  public void getCurrentVersionsStamp_changesOnPublish() {
+    resourceCreator.insertDraftProgram("program");
+    String before = versionRepository.getCurrentVersionsStamp();
+
+    versionRepository.publishNewSynchronizedVersion();
+
+    assertThat(versionRepository.getCurrentVersionsStamp()).isNotEqualTo(before);
+  }
 }
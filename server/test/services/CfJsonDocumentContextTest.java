@@ -72,6 +72,19 @@ public class CfJsonDocumentContextTest {
     assertThat(data.hasPath(path)).isTrue();
   }
 
+  @Test
+  public void hasPath_distinguishesMissingFromNullValues() {
+    CfJsonDocumentContext data =
+        new CfJsonDocumentContext(
+            "{\"applicant\":{\"nothing\":null,\"text\":\"value\",\"children\":[{}]}}");
+
+    assertThat(data.hasPath(Path.create("applicant.nothing"))).isTrue();
+    assertThat(data.hasPath(Path.create("applicant.missing"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.text.missing"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.children[1]"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.text[0]"))).isFalse();
+  }
+
   @Test
   public void hasPath_returnsTrueForExistingPath() {
     CfJsonDocumentContext data = new CfJsonDocumentContext();
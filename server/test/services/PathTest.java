@@ -2,6 +2,7 @@ package services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.Test;
 import services.applicant.question.Scalar;
 
@@ -213,4 +214,17 @@ public class PathTest {
 
     assertThat(path.startsWith(other)).isFalse();
   }
+
+  @Test
+  public void accessors_splitsKeysAndArrayIndices() {
+    Path path = Path.create("applicant.children[2].favorite_color.text");
+
+    assertThat(path.accessors())
+        .contains(ImmutableList.of("applicant", "children", 2, "favorite_color", "text"));
+  }
+
+  @Test
+  public void accessors_emptyForPathsThatNeedJsonPath() {
+    assertThat(Path.create("applicant.children[].name").accessors()).isEmpty();
+  }
 }
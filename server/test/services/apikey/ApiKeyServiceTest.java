@@ -150,6 +150,26 @@ public class ApiKeyServiceTest extends ResetPostgres {
     assertThat(apiKey.getGrants().hasProgramPermission("test-program", Permission.READ)).isTrue();
   }
 
+  @Test
+  public void createApiKey_grantsWritePermission() {
+    resourceCreator.insertActiveProgram("test program");
+
+    DynamicForm form =
+        buildForm(
+            ImmutableMap.of(
+                "keyName", "test key",
+                "expiration", "2020-01-30",
+                "subnet", "0.0.0.1/32",
+                "grant-program-write[test-program]", "true"));
+
+    ApiKeyCreationResult apiKeyCreationResult = apiKeyService.createApiKey(form, adminProfile);
+
+    assertThat(apiKeyCreationResult.isSuccessful()).isTrue();
+    ApiKey apiKey = apiKeyCreationResult.getApiKey();
+    assertThat(apiKey.getGrants().hasProgramPermission("test-program", Permission.WRITE)).isTrue();
+    assertThat(apiKey.getGrants().hasProgramPermission("test-program", Permission.READ)).isFalse();
+  }
+
   @Test
   public void createApiKey_missingKeyName_reportsError() {
     DynamicForm form =
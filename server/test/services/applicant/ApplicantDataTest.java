@@ -79,4 +79,32 @@ public class ApplicantDataTest {
     ApplicantData applicantData = new ApplicantData();
     assertThat(applicantData.getDateOfBirth()).isEqualTo(Optional.empty());
   }
+
+  @Test
+  public void lockedCopy_isLockedWithFailedUpdates() {
+    ApplicantData data = new ApplicantData();
+    Path path = Path.create("applicant.name");
+    data.putString(path, "Alice");
+
+    ApplicantData copy = data.lockedCopy(ImmutableMap.of(path, "invalid_value"));
+
+    assertThat(copy.readString(path)).hasValue("Alice");
+    assertThat(copy.hasPreferredLocale()).isTrue();
+    assertThat(copy.getFailedUpdates()).isEqualTo(ImmutableMap.of(path, "invalid_value"));
+    assertThatThrownBy(() -> copy.putString(path, "Bob")).isInstanceOf(RuntimeException.class);
+  }
+
+  @Test
+  public void lockedCopy_isUnaffectedByLaterChangesToOriginal() {
+    ApplicantData data = new ApplicantData();
+    Path path = Path.create("applicant.name");
+    data.putString(path, "Alice");
+    ApplicantData copy = data.lockedCopy(ImmutableMap.of());
+
+    data.putString(path, "Bob");
+    data.getDocumentContext().delete("applicant");
+
+    assertThat(copy.readString(path)).hasValue("Alice");
+    assertThat(data.hasPath(path)).isFalse();
+  }
 }
@@ -18,6 +18,7 @@ import models.Application;
 import models.ApplicationEvent;
 import models.DisplayMode;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import models.Program;
 import models.Question;
 import models.StoredFile;
@@ -25,6 +26,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import repository.ApplicationRepository;
+import repository.EmailOutboxRepository;
 import repository.ResetPostgres;
 import repository.UserRepository;
 import repository.VersionRepository;
@@ -709,6 +711,55 @@ public class ApplicantServiceTest extends ResetPostgres {
     assertThat(application.getApplicantData().asJsonString()).contains("Alice", "Doe");
   }
 
+  @Test
+  public void submitApplication_storesExportedAnswers() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccount());
+    applicant.save();
+    Path namePath = Path.create("applicant.name");
+    ImmutableMap<String, String> updates =
+        ImmutableMap.<String, String>builder()
+            .put(namePath.join(Scalar.FIRST_NAME).toString(), "Alice")
+            .put(namePath.join(Scalar.LAST_NAME).toString(), "Doe")
+            .build();
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), "1", updates)
+        .toCompletableFuture()
+        .join();
+
+    Application application =
+        subject
+            .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+            .toCompletableFuture()
+            .join();
+
+    application.refresh();
+    assertThat(application.getExportedAnswers()).isPresent();
+    assertThat(application.getExportedAnswers().get().scalarAnswersInDefaultLocale())
+        .containsEntry(namePath.join(Scalar.FIRST_NAME), "Alice")
+        .containsEntry(namePath.join(Scalar.LAST_NAME), "Doe");
+  }
+
+  @Test
+  public void submitApplication_queuesNotificationEmails() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccountWithEmail("applicant@example.com"));
+    applicant.save();
+
+    Application application =
+        subject
+            .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+            .toCompletableFuture()
+            .join();
+
+    ImmutableList<OutboxEmail> emails = instanceOf(EmailOutboxRepository.class).getUnsentEmails();
+    assertThat(emails).hasSize(2);
+    assertThat(emails.get(0).getToAddresses()).containsExactly("test@example.com");
+    assertThat(emails.get(0).getBody()).contains("the application ID is " + application.id);
+    assertThat(emails.get(1).getToAddresses()).containsExactly("applicant@example.com");
+    assertThat(emails.get(1).getBody()).contains("application ID is " + application.id);
+  }
+
   @Test
   public void submitApplication_addsProgramToStoredFileAcls() {
     Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
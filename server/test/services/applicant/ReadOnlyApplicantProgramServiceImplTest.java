@@ -173,6 +173,19 @@ public class ReadOnlyApplicantProgramServiceImplTest extends ResetPostgres {
     assertThat(firstIncompleteExcludingStatic.isPresent()).isFalse();
   }
 
+  @Test
+  public void getInProgressBlocks_sharesBlocksWithAllActiveBlocks() {
+    ReadOnlyApplicantProgramService subject =
+        new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition, FAKE_BASE_URL);
+
+    ImmutableList<Block> allBlocks = subject.getAllActiveBlocks();
+    ImmutableList<Block> inProgressBlocks = subject.getInProgressBlocks();
+
+    assertThat(inProgressBlocks).isNotEmpty();
+    assertThat(inProgressBlocks.get(0)).isSameAs(allBlocks.get(0));
+    assertThat(programDefinition.compiledBlocks()).isSameAs(programDefinition.compiledBlocks());
+  }
+
   @Test
   public void getAllBlocks_doesNotIncludeBlocksThatAreHidden() {
     PredicateDefinition predicate =
@@ -1005,6 +1018,38 @@ public class ReadOnlyApplicantProgramServiceImplTest extends ResetPostgres {
     assertThat(result.get(2).answerText()).isEqualTo("");
   }
 
+  @Test
+  public void getSummaryDataOfAllBlocks_includesBlocksThatAreHidden() {
+    PredicateDefinition predicate =
+        PredicateDefinition.create(
+            PredicateExpressionNode.create(
+                LeafOperationExpressionNode.create(
+                    colorQuestion.getId(),
+                    Scalar.TEXT,
+                    Operator.EQUAL_TO,
+                    PredicateValue.of("blue"))),
+            PredicateAction.HIDE_BLOCK);
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram()
+            .withBlock() // Previous block with color question
+            .withRequiredQuestionDefinition(colorQuestion)
+            .withBlock() // Block with predicate
+            .withPredicate(predicate)
+            .withRequiredQuestionDefinition(addressQuestion)
+            .buildDefinition();
+
+    // Answer predicate question so that the block should be hidden
+    answerColorQuestion(program.id(), "blue");
+
+    ReadOnlyApplicantProgramService subject =
+        new ReadOnlyApplicantProgramServiceImpl(applicantData, program, FAKE_BASE_URL);
+
+    assertThat(subject.getSummaryData()).hasSize(1);
+    ImmutableList<AnswerData> result = subject.getSummaryDataOfAllBlocks();
+    assertThat(result).hasSize(2);
+    assertThat(result.get(1).questionDefinition()).isEqualTo(addressQuestion);
+  }
+
   @Test
   public void getBlockIndex() {
     ReadOnlyApplicantProgramService subject =
@@ -0,0 +1,154 @@
+package services.applicant.predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.Test;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.types.QuestionDefinition;
+import support.TestQuestionBank;
+
+public class CompiledPredicateTest {
+
+  private final TestQuestionBank questionBank = new TestQuestionBank(false);
+  private final QuestionDefinition numberQuestion =
+      questionBank.applicantJugglingNumber().getQuestionDefinition();
+  private final QuestionDefinition checkboxQuestion =
+      questionBank.applicantKitchenTools().getQuestionDefinition();
+  private final JsonPathPredicateGenerator generator =
+      new JsonPathPredicateGenerator(
+          ImmutableList.of(numberQuestion, checkboxQuestion), Optional.empty());
+
+  private final Path numberPath =
+      new ApplicantQuestion(numberQuestion, new ApplicantData(), Optional.empty())
+          .createNumberQuestion()
+          .getNumberPath();
+  private final Path selectionPath =
+      new ApplicantQuestion(checkboxQuestion, new ApplicantData(), Optional.empty())
+          .createMultiSelectQuestion()
+          .getSelectionPath();
+
+  @Test
+  public void evaluate_numberOperators_matchJsonPathFilters() {
+    ImmutableList<Consumer<ApplicantData>> answers =
+        ImmutableList.of(
+            data -> {},
+            data -> data.putNull(numberPath),
+            data -> data.putLong(numberPath, 4),
+            data -> data.putLong(numberPath, 5),
+            data -> data.putLong(numberPath, 6),
+            data -> data.putString(numberPath, "5"));
+
+    for (Operator operator :
+        ImmutableList.of(
+            Operator.EQUAL_TO,
+            Operator.NOT_EQUAL_TO,
+            Operator.GREATER_THAN,
+            Operator.GREATER_THAN_OR_EQUAL_TO,
+            Operator.LESS_THAN,
+            Operator.LESS_THAN_OR_EQUAL_TO)) {
+      assertMatchesJsonPath(
+          LeafOperationExpressionNode.create(
+              numberQuestion.getId(), Scalar.NUMBER, operator, PredicateValue.of(5)),
+          answers);
+    }
+    for (Operator operator : ImmutableList.of(Operator.IN, Operator.NOT_IN)) {
+      assertMatchesJsonPath(
+          LeafOperationExpressionNode.create(
+              numberQuestion.getId(),
+              Scalar.NUMBER,
+              operator,
+              PredicateValue.listOfLongs(ImmutableList.of(1L, 5L))),
+          answers);
+    }
+  }
+
+  @Test
+  public void evaluate_listOperators_matchJsonPathFilters() {
+    ImmutableList<Consumer<ApplicantData>> answers =
+        ImmutableList.of(
+            data -> {},
+            data -> data.putArray(selectionPath, ImmutableList.of()),
+            data -> data.putArray(selectionPath, ImmutableList.of("toaster")),
+            data -> data.putArray(selectionPath, ImmutableList.of("toaster", "pepper grinder")),
+            data -> data.putArray(selectionPath, ImmutableList.of("spatula")),
+            data -> data.putArray(selectionPath, ImmutableList.of(1L, 2L)));
+
+    for (Operator operator :
+        ImmutableList.of(Operator.ANY_OF, Operator.NONE_OF, Operator.SUBSET_OF)) {
+      assertMatchesJsonPath(
+          LeafOperationExpressionNode.create(
+              checkboxQuestion.getId(),
+              Scalar.SELECTIONS,
+              operator,
+              PredicateValue.listOfStrings(ImmutableList.of("toaster", "pepper grinder", "1"))),
+          answers);
+    }
+  }
+
+  @Test
+  public void evaluate_invalidPredicate_isFalse() {
+    CompiledPredicate predicate =
+        CompiledPredicate.compile(
+            PredicateExpressionNode.create(
+                LeafOperationExpressionNode.create(
+                    numberQuestion.getId() + 1000,
+                    Scalar.NUMBER,
+                    Operator.NOT_EQUAL_TO,
+                    PredicateValue.of(5))),
+            generator);
+
+    assertThat(predicate.evaluate(new ApplicantData())).isFalse();
+  }
+
+  @Test
+  public void compiledPredicateCache_reusesCompiledPredicates() {
+    CompiledPredicateCache cache =
+        new CompiledPredicateCache(ImmutableList.of(numberQuestion, checkboxQuestion));
+    PredicateExpressionNode node =
+        PredicateExpressionNode.create(
+            LeafOperationExpressionNode.create(
+                numberQuestion.getId(), Scalar.NUMBER, Operator.EQUAL_TO, PredicateValue.of(5)));
+
+    CompiledPredicate predicate = cache.get(node, Optional.empty());
+
+    assertThat(cache.get(node, Optional.empty())).isSameAs(predicate);
+    ApplicantData applicantData = new ApplicantData();
+    applicantData.putLong(numberPath, 5);
+    assertThat(predicate.evaluate(applicantData)).isTrue();
+  }
+
+  /**
+   * Asserts that the compiled leaf node evaluates to the same result as its JsonPath filter, for
+   * each of the answers.
+   */
+  private void assertMatchesJsonPath(
+      LeafOperationExpressionNode node, ImmutableList<Consumer<ApplicantData>> answers) {
+    CompiledPredicate compiled =
+        CompiledPredicate.compile(PredicateExpressionNode.create(node), generator);
+    for (int i = 0; i < answers.size(); i++) {
+      ApplicantData applicantData = new ApplicantData();
+      answers.get(i).accept(applicantData);
+      boolean expected;
+      try {
+        expected = applicantData.evalPredicate(generator.fromLeafNode(node));
+      } catch (Exception e) {
+        // JsonPath fails for some operands the compiled predicate treats as not matching.
+        expected = false;
+      }
+
+      assertThat(compiled.evaluate(applicantData))
+          .as("%s with answer %d: %s", node, i, applicantData.asJsonString())
+          .isEqualTo(expected);
+    }
+  }
+}
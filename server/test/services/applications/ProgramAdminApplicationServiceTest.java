@@ -2,14 +2,10 @@ package services.applications;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.anyString;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.typesafe.config.Config;
 import java.time.Instant;
 import java.util.Locale;
@@ -21,19 +17,19 @@ import models.Applicant;
 import models.Application;
 import models.ApplicationEvent;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.Mockito;
 import repository.ApplicationEventRepository;
 import repository.ApplicationRepository;
+import repository.EmailOutboxRepository;
 import repository.ResetPostgres;
 import services.LocalizedStrings;
 import services.applicant.ApplicantService;
 import services.application.ApplicationEventDetails;
 import services.application.ApplicationEventDetails.NoteEvent;
 import services.application.ApplicationEventDetails.StatusEvent;
-import services.cloud.aws.SimpleEmail;
 import services.program.ProgramDefinition;
 import services.program.StatusDefinitions;
 import services.program.StatusNotFoundException;
@@ -170,15 +166,13 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
   public void setStatus_sendsEmail() throws Exception {
     Instant start = Instant.now();
     String userEmail = "user@email.com";
-    SimpleEmail simpleEmail = Mockito.mock(SimpleEmail.class);
     String programDisplayName = "Some Program";
     service =
         new ProgramAdminApplicationService(
             instanceOf(ApplicantService.class),
             instanceOf(ApplicationRepository.class),
             instanceOf(ApplicationEventRepository.class),
-            instanceOf(Config.class),
-            simpleEmail);
+            instanceOf(Config.class));
 
     ProgramDefinition program =
         ProgramBuilder.newActiveProgramWithDisplayName("some-program", programDisplayName)
@@ -198,12 +192,13 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
 
     service.setStatus(application, event, account);
 
-    verify(simpleEmail, times(1))
-        .send(
-            eq(userEmail),
-            eq(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName)),
-            Mockito.contains(
-                STATUS_WITH_ONLY_ENGLISH_EMAIL.localizedEmailBodyText().get().getDefault()));
+    ImmutableList<OutboxEmail> emails = instanceOf(EmailOutboxRepository.class).getUnsentEmails();
+    assertThat(emails).hasSize(1);
+    assertThat(emails.get(0).getToAddresses()).containsExactly(userEmail);
+    assertThat(emails.get(0).getSubject())
+        .isEqualTo(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName));
+    assertThat(emails.get(0).getBody())
+        .contains(STATUS_WITH_ONLY_ENGLISH_EMAIL.localizedEmailBodyText().get().getDefault());
 
     application.refresh();
     assertThat(application.getApplicationEvents()).hasSize(1);
@@ -222,14 +217,12 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
     Locale userLocale = Locale.FRENCH;
     String userEmail = "user@email.com";
     String programDisplayName = "Some Program";
-    SimpleEmail simpleEmail = Mockito.mock(SimpleEmail.class);
     service =
         new ProgramAdminApplicationService(
             instanceOf(ApplicantService.class),
             instanceOf(ApplicationRepository.class),
             instanceOf(ApplicationEventRepository.class),
-            instanceOf(Config.class),
-            simpleEmail);
+            instanceOf(Config.class));
 
     ProgramDefinition program =
         ProgramBuilder.newActiveProgramWithDisplayName("some-program", programDisplayName)
@@ -252,27 +245,26 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
 
     service.setStatus(application, event, account);
 
-    verify(simpleEmail, times(1))
-        .send(
-            eq(userEmail),
-            eq(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName)),
-            Mockito.contains(
-                STATUS_WITH_MULTI_LANGUAGE_EMAIL.localizedEmailBodyText().get().getDefault()));
+    ImmutableList<OutboxEmail> emails = instanceOf(EmailOutboxRepository.class).getUnsentEmails();
+    assertThat(emails).hasSize(1);
+    assertThat(emails.get(0).getToAddresses()).containsExactly(userEmail);
+    assertThat(emails.get(0).getSubject())
+        .isEqualTo(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName));
+    assertThat(emails.get(0).getBody())
+        .contains(STATUS_WITH_MULTI_LANGUAGE_EMAIL.localizedEmailBodyText().get().getDefault());
   }
 
   @Test
   public void setStatus_tiApplicant_sendsEmail() throws Exception {
     String userEmail = "user@email.com";
     String tiEmail = "ti@email.com";
-    SimpleEmail simpleEmail = Mockito.mock(SimpleEmail.class);
     String programDisplayName = "Some Program";
     service =
         new ProgramAdminApplicationService(
             instanceOf(ApplicantService.class),
             instanceOf(ApplicationRepository.class),
             instanceOf(ApplicationEventRepository.class),
-            instanceOf(Config.class),
-            simpleEmail);
+            instanceOf(Config.class));
 
     ProgramDefinition program =
         ProgramBuilder.newActiveProgramWithDisplayName("some-program", programDisplayName)
@@ -293,17 +285,17 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
 
     service.setStatus(application, event, account);
 
-    verify(simpleEmail, times(1))
-        .send(
-            eq(tiEmail),
-            Mockito.contains("An update on the application for program"),
-            Mockito.contains("has changed to " + STATUS_WITH_ONLY_ENGLISH_EMAIL.statusText()));
-    verify(simpleEmail, times(1))
-        .send(
-            eq(userEmail),
-            eq(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName)),
-            Mockito.contains(
-                STATUS_WITH_ONLY_ENGLISH_EMAIL.localizedEmailBodyText().get().getDefault()));
+    ImmutableList<OutboxEmail> emails = instanceOf(EmailOutboxRepository.class).getUnsentEmails();
+    assertThat(emails).hasSize(2);
+    assertThat(emails.get(0).getToAddresses()).containsExactly(tiEmail);
+    assertThat(emails.get(0).getSubject()).contains("An update on the application for program");
+    assertThat(emails.get(0).getBody())
+        .contains("has changed to " + STATUS_WITH_ONLY_ENGLISH_EMAIL.statusText());
+    assertThat(emails.get(1).getToAddresses()).containsExactly(userEmail);
+    assertThat(emails.get(1).getSubject())
+        .isEqualTo(String.format(service.STATUS_UPDATE_EMAIL_SUBJECT_FORMAT, programDisplayName));
+    assertThat(emails.get(1).getBody())
+        .contains(STATUS_WITH_ONLY_ENGLISH_EMAIL.localizedEmailBodyText().get().getDefault());
   }
 
   @Test
@@ -387,14 +379,12 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
   public void setStatus_sentEmailFalse_doesNotSendEmail() throws Exception {
     Instant start = Instant.now();
     String status = STATUS_WITH_ONLY_ENGLISH_EMAIL.statusText();
-    SimpleEmail simpleEmail = Mockito.mock(SimpleEmail.class);
     service =
         new ProgramAdminApplicationService(
             instanceOf(ApplicantService.class),
             instanceOf(ApplicationRepository.class),
             instanceOf(ApplicationEventRepository.class),
-            instanceOf(Config.class),
-            simpleEmail);
+            instanceOf(Config.class));
 
     ProgramDefinition program =
         ProgramBuilder.newActiveProgram("some-program")
@@ -412,7 +402,7 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
 
     service.setStatus(application, event, account);
 
-    verify(simpleEmail, never()).send(anyString(), anyString(), anyString());
+    assertThat(instanceOf(EmailOutboxRepository.class).getUnsentEmails()).isEmpty();
 
     application.refresh();
     assertThat(application.getApplicationEvents()).hasSize(1);
@@ -424,4 +414,110 @@ public class ProgramAdminApplicationServiceTest extends ResetPostgres {
     assertThat(gotEvent.getCreator()).isEqualTo(account);
     assertThat(gotEvent.getCreateTime()).isAfter(start);
   }
+
+  @Test
+  public void setStatuses_setsStatusAndSendsEmailForEachApplication() throws Exception {
+    String status = STATUS_WITH_ONLY_ENGLISH_EMAIL.statusText();
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram("some-program")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .buildDefinition();
+    Account account = resourceCreator.insertAccount();
+    Application firstApplication =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(Optional.of("first@example.com")),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+    Application secondApplication =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(Optional.of("second@example.com")),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+    ImmutableList<Application> applications =
+        service.getApplications(
+            ImmutableSet.of(firstApplication.id, secondApplication.id), program);
+
+    service.setStatuses(
+        applications,
+        StatusEvent.builder().setEmailSent(true).setStatusText(status).build(),
+        account);
+
+    assertThat(instanceOf(EmailOutboxRepository.class).getUnsentEmails())
+        .extracting(OutboxEmail::getToAddresses)
+        .containsExactlyInAnyOrder(
+            ImmutableList.of("first@example.com"), ImmutableList.of("second@example.com"));
+    for (Application application : ImmutableList.of(firstApplication, secondApplication)) {
+      application.refresh();
+      assertThat(application.getLatestStatus()).contains(status);
+      assertThat(application.getApplicationEvents()).hasSize(1);
+      assertThat(application.getApplicationEvents().get(0).getCreator()).isEqualTo(account);
+    }
+  }
+
+  @Test
+  public void setStatuses_sendEmailWithNoUserEmail_setsNoStatus() throws Exception {
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram("some-program")
+            .withStatusDefinitions(new StatusDefinitions(ORIGINAL_STATUSES))
+            .buildDefinition();
+    Account account = resourceCreator.insertAccount();
+    Application applicationWithEmail =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(Optional.of("user@example.com")),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+    Application applicationWithoutEmail =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+    ImmutableList<Application> applications =
+        service.getApplications(
+            ImmutableSet.of(applicationWithEmail.id, applicationWithoutEmail.id), program);
+    StatusEvent event =
+        StatusEvent.builder()
+            .setEmailSent(true)
+            .setStatusText(STATUS_WITH_ONLY_ENGLISH_EMAIL.statusText())
+            .build();
+
+    assertThrows(
+        AccountHasNoEmailException.class, () -> service.setStatuses(applications, event, account));
+
+    assertThat(instanceOf(EmailOutboxRepository.class).getUnsentEmails()).isEmpty();
+    applicationWithEmail.refresh();
+    assertThat(applicationWithEmail.getApplicationEvents()).isEmpty();
+  }
+
+  @Test
+  public void setNotes_setsNoteOnEachApplication() {
+    ProgramDefinition program = ProgramBuilder.newActiveProgram("some-program").buildDefinition();
+    Account account = resourceCreator.insertAccount();
+    Application firstApplication =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+    Application secondApplication =
+        Application.create(
+                resourceCreator.insertApplicantWithAccount(),
+                program.toProgram(),
+                LifecycleStage.ACTIVE)
+            .setSubmitTimeToNow();
+
+    service.setNotes(
+        service.getApplications(
+            ImmutableSet.of(firstApplication.id, secondApplication.id), program),
+        NoteEvent.create("A note"),
+        account);
+
+    firstApplication.refresh();
+    secondApplication.refresh();
+    assertThat(service.getNote(firstApplication)).contains("A note");
+    assertThat(service.getNote(secondApplication)).contains("A note");
+  }
 }
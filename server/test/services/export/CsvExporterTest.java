@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.typesafe.config.Config;
 import featureflags.FeatureFlags;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Optional;
 import models.Question;
@@ -12,6 +13,8 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.junit.Test;
 import org.mockito.Mockito;
+import repository.ApplicationRepository;
+import repository.SubmittedApplicationFilter;
 import repository.TimeFilter;
 import services.applicant.ApplicantData;
 import services.applicant.ApplicantService;
@@ -33,6 +36,25 @@ public class CsvExporterTest extends AbstractExporterTest {
     return new ApplicantQuestion(questionDefinition, new ApplicantData(), Optional.empty());
   }
 
+  @Test
+  public void writeProgramAllVersionsCsv_writesSubmittedApplicationsNewestFirst() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+
+    CsvExporterService exporterService = instanceOf(CsvExporterService.class);
+    StringWriter writer = new StringWriter();
+    exporterService.writeProgramAllVersionsCsv(
+        fakeProgram.id, SubmittedApplicationFilter.EMPTY, writer);
+    List<CSVRecord> records = CSVParser.parse(writer.toString(), DEFAULT_FORMAT).getRecords();
+
+    assertThat(records.stream().map(record -> record.get("Application ID")))
+        .containsExactly(
+            applicationFour.id.toString(),
+            applicationTwo.id.toString(),
+            applicationOne.id.toString());
+  }
+
   @Test
   public void programCsv_noRepeatedEntities() throws Exception {
     createFakeQuestions();
@@ -135,6 +157,7 @@ public class CsvExporterTest extends AbstractExporterTest {
             instanceOf(ProgramService.class),
             instanceOf(QuestionService.class),
             instanceOf(ApplicantService.class),
+            instanceOf(ApplicationRepository.class),
             featureFlags,
             instanceOf(Config.class));
 
@@ -2,12 +2,17 @@ package services.export;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import featureflags.FeatureFlags;
+import java.util.LinkedHashMap;
 import java.util.Optional;
 import models.Application;
 import models.Program;
 import org.junit.Test;
 import org.mockito.Mockito;
+import play.libs.Json;
 import repository.SubmittedApplicationFilter;
 import services.CfJsonDocumentContext;
 import services.IdentifierBasedPaginationSpec;
@@ -137,6 +142,54 @@ public class JsonExporterTest extends AbstractExporterTest {
         333);
   }
 
+  @Test
+  public void export_usesStoredExportedAnswers() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+
+    JsonExporter exporter = instanceOf(JsonExporter.class);
+    String computedJsonString =
+        exporter
+            .export(
+                fakeProgram.getProgramDefinition(),
+                IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG,
+                SubmittedApplicationFilter.EMPTY)
+            .getLeft();
+
+    ApplicantService applicantService = instanceOf(ApplicantService.class);
+    for (Application application :
+        ImmutableList.of(applicationOne, applicationTwo, applicationFour)) {
+      application.setExportedAnswers(
+          ExportedAnswers.create(
+              applicantService.getReadOnlyApplicantProgramService(
+                  application, fakeProgram.getProgramDefinition())));
+      application.save();
+    }
+    // Change the answers that are stored for one application, which only the export of stored
+    // answers would pick up.
+    applicationFour.setExportedAnswers(
+        new ExportedAnswers(
+            new LinkedHashMap<>(),
+            new LinkedHashMap<>(ImmutableMap.of("application", ImmutableMap.of("stored", true)))));
+    applicationFour.save();
+
+    String resultJsonString =
+        exporter
+            .export(
+                fakeProgram.getProgramDefinition(),
+                IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG,
+                SubmittedApplicationFilter.EMPTY)
+            .getLeft();
+
+    JsonNode computed = Json.parse(computedJsonString);
+    JsonNode result = Json.parse(resultJsonString);
+    assertThat(result.get(1)).isEqualTo(computed.get(1));
+    assertThat(result.get(2)).isEqualTo(computed.get(2));
+    assertThat(result.get(0).get("application_id").asLong()).isEqualTo(applicationFour.id);
+    assertThat(result.get(0).get("application").get("stored").asBoolean()).isTrue();
+  }
+
   @Test
   public void testStatusTrackingDisabled() throws Exception {
     createFakeQuestions();
@@ -100,6 +100,21 @@ public class ProgramServiceImplTest extends ResetPostgres {
     assertThat(found).isInstanceOf(NameQuestionDefinition.class);
   }
 
+  @Test
+  public void getActiveAndDraftPrograms_isSharedUntilProgramsChange() {
+    ProgramBuilder.newActiveProgram("program1").buildDefinition();
+    // Creates the draft version if there is none.
+    ps.getActiveAndDraftPrograms();
+
+    ActiveAndDraftPrograms programs = ps.getActiveAndDraftPrograms();
+    assertThat(ps.getActiveAndDraftPrograms()).isSameAs(programs);
+
+    ProgramBuilder.newDraftProgram("program2").buildDefinition();
+    ActiveAndDraftPrograms updatedPrograms = ps.getActiveAndDraftPrograms();
+    assertThat(updatedPrograms).isNotSameAs(programs);
+    assertThat(updatedPrograms.getProgramNames()).containsExactlyInAnyOrder("program1", "program2");
+  }
+
   @Test
   public void createProgram_setsId() {
     assertThat(ps.getActiveAndDraftPrograms().getActivePrograms()).isEmpty();
@@ -395,6 +410,24 @@ public class ProgramServiceImplTest extends ResetPostgres {
     assertThat(foundQuestion).isInstanceOf(NameQuestionDefinition.class);
   }
 
+  @Test
+  public void getProgramDefinitionAsync_reusesCachedDefinitionUntilVersionsChange()
+      throws Exception {
+    ProgramDefinition program = ProgramBuilder.newDraftProgram().buildDefinition();
+
+    ProgramDefinition first =
+        ps.getActiveProgramDefinitionAsync(program.id()).toCompletableFuture().join();
+    assertThat(ps.getActiveProgramDefinitionAsync(program.id()).toCompletableFuture().join())
+        .isSameAs(first);
+
+    ps.addQuestionsToBlock(program.id(), 1L, ImmutableList.of(nameQuestion.getId()));
+    ProgramDefinition afterEdit =
+        ps.getActiveProgramDefinitionAsync(program.id()).toCompletableFuture().join();
+
+    assertThat(afterEdit).isNotSameAs(first);
+    assertThat(afterEdit.blockDefinitions().get(0).programQuestionDefinitions()).hasSize(1);
+  }
+
   @Test
   public void addBlockToProgram_noProgram_throwsProgramNotFoundException() {
     assertThatThrownBy(() -> ps.addBlockToProgram(1L))
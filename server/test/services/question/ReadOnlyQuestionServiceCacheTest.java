@@ -0,0 +1,63 @@
+package services.question;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import models.Question;
+import org.junit.Before;
+import org.junit.Test;
+import repository.ResetPostgres;
+import repository.VersionRepository;
+
+public class ReadOnlyQuestionServiceCacheTest extends ResetPostgres {
+
+  private ReadOnlyQuestionServiceCache cache;
+  private VersionRepository versionRepository;
+
+  @Before
+  public void setUp() {
+    cache = instanceOf(ReadOnlyQuestionServiceCache.class);
+    versionRepository = instanceOf(VersionRepository.class);
+    // Create the draft up front so that the first call doesn't change the current versions.
+    versionRepository.getDraftVersion();
+  }
+
+  @Test
+  public void get_reusesSnapshotWhenVersionsAreUnchanged() {
+    testQuestionBank.applicantName();
+
+    ReadOnlyQuestionService first = cache.get();
+
+    assertThat(cache.get()).isSameAs(first);
+  }
+
+  @Test
+  public void get_rebuildsSnapshotWhenQuestionIsAdded() {
+    ReadOnlyQuestionService first = cache.get();
+    assertThat(first.getAllQuestions()).isEmpty();
+
+    Question question = testQuestionBank.applicantName();
+    ReadOnlyQuestionService second = cache.get();
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getAllQuestions()).containsExactly(question.getQuestionDefinition());
+  }
+
+  @Test
+  public void get_rebuildsSnapshotOnPublish() {
+    resourceCreator.insertDraftProgram("program");
+    ReadOnlyQuestionService first = cache.get();
+
+    versionRepository.publishNewSynchronizedVersion();
+
+    assertThat(cache.get()).isNotSameAs(first);
+  }
+
+  @Test
+  public void invalidate_rebuildsSnapshot() {
+    ReadOnlyQuestionService first = cache.get();
+
+    cache.invalidate();
+
+    assertThat(cache.get()).isNotSameAs(first);
+  }
+}
@@ -21,6 +21,7 @@ import play.data.FormFactory;
 import play.mvc.Http;
 import repository.SearchParameters;
 import repository.UserRepository;
+import services.PageNumberBasedPaginationSpec;
 import services.applicant.ApplicantData;
 import services.applicant.exception.ApplicantNotFoundException;
 
@@ -256,7 +257,8 @@ public class TrustedIntermediaryServiceTest extends WithMockedProfiles {
             .setDateQuery(Optional.of("2022-12-12"))
             .build();
     TrustedIntermediarySearchResult tiResult =
-        service.getManagedAccounts(searchParameters, tiGroup);
+        service.getManagedAccounts(
+            searchParameters, tiGroup, PageNumberBasedPaginationSpec.MAX_PAGE_SIZE_SPEC);
     assertThat(tiResult.getAccounts().get().size()).isEqualTo(1);
     assertThat(tiResult.getAccounts().get().get(0).getEmailAddress()).isEqualTo("email3");
   }
@@ -272,7 +274,8 @@ public class TrustedIntermediaryServiceTest extends WithMockedProfiles {
             .setDateQuery(Optional.empty())
             .build();
     TrustedIntermediarySearchResult tiResult =
-        service.getManagedAccounts(searchParameters, tiGroup);
+        service.getManagedAccounts(
+            searchParameters, tiGroup, PageNumberBasedPaginationSpec.MAX_PAGE_SIZE_SPEC);
     assertThat(tiResult.getAccounts().get().size()).isEqualTo(1);
     assertThat(tiResult.getAccounts().get().get(0).getEmailAddress()).isEqualTo("email20");
   }
@@ -288,12 +291,40 @@ public class TrustedIntermediaryServiceTest extends WithMockedProfiles {
             .setDateQuery(Optional.of("22-22-22"))
             .build();
     TrustedIntermediarySearchResult tiResult =
-        service.getManagedAccounts(searchParameters, tiGroup);
+        service.getManagedAccounts(
+            searchParameters, tiGroup, PageNumberBasedPaginationSpec.MAX_PAGE_SIZE_SPEC);
     assertThat(tiResult.getAccounts().get().size()).isEqualTo(tiGroup.getManagedAccounts().size());
     assertThat(tiResult.getErrorMessage().get())
         .isEqualTo("Please enter date in MM/dd/yyyy format");
   }
 
+  @Test
+  public void getManagedAccounts_PagesAccountsSortedByName() {
+    setupTIAccount("Cora", "2022-07-08", "email12", tiGroup2);
+    setupTIAccount("Ana", "2022-07-08", "email22", tiGroup2);
+    setupTIAccount("Bea", "2022-07-10", "email32", tiGroup2);
+    SearchParameters searchParameters =
+        SearchParameters.builder()
+            .setNameQuery(Optional.of("last,"))
+            .setDateQuery(Optional.empty())
+            .build();
+
+    TrustedIntermediarySearchResult firstPage =
+        service.getManagedAccounts(
+            searchParameters, tiGroup2, new PageNumberBasedPaginationSpec(2, 1));
+    TrustedIntermediarySearchResult secondPage =
+        service.getManagedAccounts(
+            searchParameters, tiGroup2, new PageNumberBasedPaginationSpec(2, 2));
+
+    assertThat(firstPage.getPageCount()).isEqualTo(2);
+    assertThat(firstPage.getAccounts().get())
+        .extracting(Account::getEmailAddress)
+        .containsExactly("email22", "email32");
+    assertThat(secondPage.getAccounts().get())
+        .extracting(Account::getEmailAddress)
+        .containsExactly("email12");
+  }
+
   private void setupTIAccount(
       String firstName, String dob, String email, TrustedIntermediaryGroup tiGroup) {
     Account account = new Account();
@@ -0,0 +1,118 @@
+package tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.DB;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import models.OutboxEmail;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import repository.EmailOutboxRepository;
+import repository.ResetPostgres;
+import services.cloud.aws.SimpleEmail;
+import software.amazon.awssdk.services.ses.model.SesException;
+
+public class EmailOutboxDispatchTaskTest extends ResetPostgres {
+
+  // Emails are due from when they're queued.
+  private final Instant now = Instant.now().plusSeconds(60);
+
+  private EmailOutboxRepository emailOutboxRepository;
+  private SimpleEmail simpleEmail;
+  private EmailOutboxDispatchTask task;
+
+  @Before
+  public void setUp() {
+    emailOutboxRepository = instanceOf(EmailOutboxRepository.class);
+    simpleEmail = Mockito.mock(SimpleEmail.class);
+    task =
+        new EmailOutboxDispatchTask(
+            emailOutboxRepository, simpleEmail, Clock.fixed(now, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void run_sendsQueuedEmails() {
+    emailOutboxRepository.queue(
+        ImmutableList.of(
+            new OutboxEmail(ImmutableList.of("a@example.com"), "Subject A", "Body A"),
+            new OutboxEmail(ImmutableList.of("b@example.com"), "Subject B", "Body B")));
+
+    task.run();
+
+    verify(simpleEmail).deliver(ImmutableList.of("a@example.com"), "Subject A", "Body A");
+    verify(simpleEmail).deliver(ImmutableList.of("b@example.com"), "Subject B", "Body B");
+    assertThat(emailOutboxRepository.getUnsentEmails()).isEmpty();
+
+    task.run();
+
+    verify(simpleEmail, times(2)).deliver(any(), any(), any());
+  }
+
+  @Test
+  public void run_failedSend_isRetriedLater() {
+    emailOutboxRepository.queue(
+        ImmutableList.of(new OutboxEmail(ImmutableList.of("a@example.com"), "Subject", "Body")));
+    doThrow(SesException.builder().message("Throttled").build())
+        .when(simpleEmail)
+        .deliver(any(), any(), any());
+
+    task.run();
+
+    ImmutableList<OutboxEmail> unsent = emailOutboxRepository.getUnsentEmails();
+    assertThat(unsent).hasSize(1);
+    assertThat(unsent.get(0).getAttempts()).isEqualTo(1);
+    assertThat(unsent.get(0).getLastError())
+        .hasValueSatisfying(error -> assertThat(error).contains("Throttled"));
+    assertThat(unsent.get(0).getNextAttemptTime())
+        .hasValueSatisfying(retryTime -> assertThat(retryTime).isAfter(now));
+
+    // The email isn't due again yet.
+    task.run();
+
+    verify(simpleEmail, times(1)).deliver(eq(ImmutableList.of("a@example.com")), any(), any());
+  }
+
+  @Test
+  public void run_repositoryFailure_isNotThrown() {
+    EmailOutboxRepository failingRepository = Mockito.mock(EmailOutboxRepository.class);
+    doThrow(new RuntimeException("Connection reset"))
+        .when(failingRepository)
+        .claimDueEmails(anyInt(), any(), any());
+
+    new EmailOutboxDispatchTask(failingRepository, simpleEmail, Clock.fixed(now, ZoneOffset.UTC))
+        .run();
+
+    verify(simpleEmail, never()).deliver(any(), any(), any());
+  }
+
+  @Test
+  public void purgeFinishedEmails_deletesOldSentEmails() {
+    emailOutboxRepository.queue(
+        ImmutableList.of(new OutboxEmail(ImmutableList.of("a@example.com"), "Subject", "Body")));
+    task.run();
+    emailOutboxRepository.queue(
+        ImmutableList.of(new OutboxEmail(ImmutableList.of("b@example.com"), "Subject", "Body")));
+
+    new EmailOutboxDispatchTask(
+            emailOutboxRepository,
+            simpleEmail,
+            Clock.fixed(
+                now.plus(EmailOutboxDispatchTask.RETENTION).plusSeconds(60), ZoneOffset.UTC))
+        .purgeFinishedEmails();
+
+    assertThat(DB.find(OutboxEmail.class).findList())
+        .extracting(OutboxEmail::getToAddresses)
+        .containsExactly(ImmutableList.of("b@example.com"));
+  }
+}
@@ -0,0 +1,86 @@
+package tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+
+import io.ebean.DB;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import models.Account;
+import models.Applicant;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import repository.ResetPostgres;
+import repository.UserRepository;
+
+public class GuestAccountReaperTaskTest extends ResetPostgres {
+
+  private GuestAccountReaperTask task;
+
+  @Before
+  public void setUp() {
+    // Every account and applicant inserted by the tests is past the retention period.
+    Instant now = Instant.now().plus(GuestAccountReaperTask.RETENTION).plusSeconds(60);
+    task =
+        new GuestAccountReaperTask(
+            instanceOf(UserRepository.class), Clock.fixed(now, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void run_deletesUnusedGuestAccounts() {
+    Applicant guest = resourceCreator.insertApplicantWithAccount();
+    Applicant otherGuest = resourceCreator.insertApplicantWithAccount();
+
+    task.run();
+
+    assertThat(DB.find(Applicant.class).setId(guest.id).findOneOrEmpty()).isEmpty();
+    assertThat(DB.find(Account.class).setId(guest.getAccount().id).findOneOrEmpty()).isEmpty();
+    assertThat(DB.find(Applicant.class).setId(otherGuest.id).findOneOrEmpty()).isEmpty();
+  }
+
+  @Test
+  public void run_keepsGuestAccountsWithApplications() {
+    Program program = resourceCreator.insertActiveProgram("program");
+    Applicant guest = resourceCreator.insertApplicantWithAccount();
+    resourceCreator.insertDraftApplication(guest, program);
+
+    task.run();
+
+    assertThat(DB.find(Applicant.class).setId(guest.id).findOneOrEmpty()).isPresent();
+  }
+
+  @Test
+  public void run_keepsSignedInAccounts() {
+    Applicant applicant =
+        resourceCreator.insertApplicantWithAccount(Optional.of("applicant@example.com"));
+
+    task.run();
+
+    assertThat(DB.find(Applicant.class).setId(applicant.id).findOneOrEmpty()).isPresent();
+  }
+
+  @Test
+  public void run_keepsRecentGuestAccounts() {
+    Applicant guest = resourceCreator.insertApplicantWithAccount();
+
+    new GuestAccountReaperTask(instanceOf(UserRepository.class), Clock.systemUTC()).run();
+
+    assertThat(DB.find(Applicant.class).setId(guest.id).findOneOrEmpty()).isPresent();
+  }
+
+  @Test
+  public void run_repositoryFailure_isNotThrown() {
+    UserRepository failingRepository = Mockito.mock(UserRepository.class);
+    doThrow(new RuntimeException("Lock timeout"))
+        .when(failingRepository)
+        .deleteUnusedGuestAccounts(any(), anyInt());
+
+    new GuestAccountReaperTask(failingRepository, Clock.systemUTC()).run();
+  }
+}
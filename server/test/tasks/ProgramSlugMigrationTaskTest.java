@@ -0,0 +1,28 @@
+package tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.ebean.DB;
+import org.junit.Test;
+import repository.ResetPostgres;
+
+public class ProgramSlugMigrationTaskTest extends ResetPostgres {
+
+  @Test
+  public void run_storesMissingSlugs() {
+    DB.sqlUpdate(
+            "insert into programs (name, description, block_definitions,"
+                + " legacy_localized_name, legacy_localized_description) values ('Old Schema"
+                + " Entry', 'Description', '[]', '{\"en_us\": \"a\"}', '{\"en_us\":"
+                + " \"b\"}');")
+        .execute();
+
+    instanceOf(ProgramSlugMigrationTask.class).run();
+
+    assertThat(
+            DB.sqlQuery("select slug from programs where name = 'Old Schema Entry'")
+                .findOne()
+                .getString("slug"))
+        .isEqualTo("old-schema-entry");
+  }
+}
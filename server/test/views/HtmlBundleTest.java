@@ -3,8 +3,14 @@ package views;
 import static j2html.TagCreator.div;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
 import org.junit.Test;
 import play.twirl.api.Content;
+import views.components.Modal;
 
 public class HtmlBundleTest {
 
@@ -55,4 +61,73 @@ public class HtmlBundleTest {
     Content content = bundle.render();
     assertThat(content.body()).contains("<main><div>One</div><div>Two</div></main>");
   }
+
+  @Test
+  public void rendersRenderedFragmentsInOrder() {
+    HtmlBundle bundle = new HtmlBundle();
+    bundle.addHeaderContent(div("One"));
+    bundle.addHeaderContent(new HtmlFragmentCache().get("key", () -> div("Two")));
+
+    Content content = bundle.render();
+    assertThat(content.body()).contains("<header><div>One</div><div>Two</div></header>");
+  }
+
+  @Test
+  public void rendersStreamedContentInPlace() {
+    HtmlBundle bundle = new HtmlBundle();
+    bundle.addMainContent(
+        div("Before"),
+        div().with(bundle.streamedContent(ImmutableList.of(div("One"), div("Two")))),
+        div("After"));
+
+    Content content = bundle.render();
+    assertThat(content.body())
+        .contains(
+            "<main><div>Before</div><div><div>One</div><div>Two</div></div>"
+                + "<div>After</div></main>");
+  }
+
+  @Test
+  public void rendersStreamedModalsAfterStreamedRows() {
+    HtmlBundle bundle = new HtmlBundle();
+    ArrayList<Modal> modals = new ArrayList<>();
+    bundle.addStreamedModals(modals);
+    bundle.addMainContent(
+        div()
+            .with(
+                bundle.streamedContent(
+                    Iterables.transform(
+                        ImmutableList.of("row-modal"),
+                        modalId -> {
+                          modals.add(Modal.builder(modalId, div("Modal")).build());
+                          return div("Row");
+                        }))));
+
+    Content content = bundle.render();
+    assertThat(content.body()).contains("<main><div><div>Row</div></div></main>");
+    assertThat(content.body()).contains("<div id=\"row-modal\"");
+  }
+
+  @Test
+  public void renderStreamed_sendsTheRenderedPage() {
+    HtmlBundle bundle = new HtmlBundle();
+    bundle.addMainContent(
+        div().with(bundle.streamedContent(ImmutableList.of(div("One"), div("Two")))),
+        div().with(bundle.streamedContent(ImmutableList.of())));
+    ActorSystem actorSystem = ActorSystem.create();
+
+    try {
+      Materializer materializer = Materializer.matFromSystem(actorSystem);
+      String streamed =
+          bundle
+              .renderStreamed()
+              .runFold("", (page, chunk) -> page + chunk.utf8String(), materializer)
+              .toCompletableFuture()
+              .join();
+
+      assertThat(streamed).isEqualTo(bundle.render().body());
+    } finally {
+      actorSystem.terminate();
+    }
+  }
 }
@@ -0,0 +1,35 @@
+package views;
+
+import static j2html.TagCreator.div;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class HtmlFragmentCacheTest {
+
+  @Test
+  public void get_rendersFragmentOncePerKey() {
+    HtmlFragmentCache cache = new HtmlFragmentCache();
+    AtomicInteger renderCount = new AtomicInteger();
+
+    String first =
+        cache.get("key", () -> div("Rendered " + renderCount.incrementAndGet())).render();
+    String second =
+        cache.get("key", () -> div("Rendered " + renderCount.incrementAndGet())).render();
+    String otherKey =
+        cache.get("other-key", () -> div("Rendered " + renderCount.incrementAndGet())).render();
+
+    assertThat(first).isEqualTo("<div>Rendered 1</div>");
+    assertThat(second).isEqualTo(first);
+    assertThat(otherKey).isEqualTo("<div>Rendered 2</div>");
+  }
+
+  @Test
+  public void get_keepsEscapedText() {
+    HtmlFragmentCache cache = new HtmlFragmentCache();
+
+    assertThat(cache.get("key", () -> div("<script>")).render())
+        .isEqualTo("<div>&lt;script&gt;</div>");
+  }
+}
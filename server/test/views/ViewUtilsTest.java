@@ -27,7 +27,7 @@ public class ViewUtilsTest {
 
   @Before
   public void setUp() {
-    viewUtils = new ViewUtils(assetsFinder, dateConverter);
+    viewUtils = new ViewUtils(assetsFinder, dateConverter, new HtmlFragmentCache());
   }
 
   @Test